@@ -0,0 +1,17 @@
+package org.sam.server.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 빈의 메서드에 선언하여 서버가 종료될 때 호출되도록 합니다. 파라미터가 없는 메서드에만 선언할 수 있습니다.
+ *
+ * @author hypernova1
+ * @see org.sam.server.context.BeanContainer#destroy()
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface PreDestroy {
+}
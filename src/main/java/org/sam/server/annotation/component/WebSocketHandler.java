@@ -0,0 +1,24 @@
+package org.sam.server.annotation.component;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 클래스 위에 선언하여 해당 클래스를 웹소켓 핸들러로 만듭니다. 클래스는 WebSocketListener를 구현해야 합니다.
+ *
+ * @author hypernova1
+ * @see org.sam.server.http.WebSocketListener
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface WebSocketHandler {
+
+    /**
+     * 웹소켓 업그레이드 요청의 URL을 매핑합니다.
+     *
+     * @return URL
+     * */
+    String value();
+}
@@ -0,0 +1,313 @@
+package org.sam.server.common;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 서버의 동작 지표를 집계하는 클래스입니다.
+ *
+ * @author hypernova1
+ */
+public class ServerMetrics {
+
+    private static final LongAdder rejectedConnections = new LongAdder();
+
+    private static final LongAdder acceptedConnections = new LongAdder();
+
+    private static final LongAdder acceptLatencyNanos = new LongAdder();
+
+    private static final AtomicLong maxAcceptLatencyNanos = new AtomicLong();
+
+    private static final AtomicLong acceptRateWindow = new AtomicLong(currentSecond());
+
+    private static final LongAdder acceptRateCount = new LongAdder();
+
+    private static volatile long lastAcceptRate;
+
+    private static final LongAdder handshakes = new LongAdder();
+
+    private static final LongAdder resumedHandshakes = new LongAdder();
+
+    private static final LongAdder failedHandshakes = new LongAdder();
+
+    private static final LongAdder handshakeLatencyNanos = new LongAdder();
+
+    private static final LongAdder fullHandshakeLatencyNanos = new LongAdder();
+
+    private static final LongAdder timedOutConnections = new LongAdder();
+
+    private static final LongAdder staticCacheHits = new LongAdder();
+
+    private static final LongAdder staticCacheMisses = new LongAdder();
+
+    private static final LongAdder staticCacheEvictions = new LongAdder();
+
+    private static final AtomicLong staticCacheBytes = new AtomicLong();
+
+    private static final AtomicLong staticMappedBytes = new AtomicLong();
+
+    private ServerMetrics() {}
+
+    /**
+     * 과부하로 거절한 연결 수를 증가시킵니다.
+     * */
+    public static void incrementRejectedConnections() {
+        rejectedConnections.increment();
+    }
+
+    /**
+     * 과부하로 거절한 연결 수를 반환합니다.
+     *
+     * @return 거절한 연결 수
+     * */
+    public static long getRejectedConnections() {
+        return rejectedConnections.sum();
+    }
+
+    /**
+     * 수락한 연결을 기록합니다. 지연 시간은 accept가 반환된 시점부터 연결을 워커나 이벤트 루프에 넘길 때 까지의 시간입니다.
+     *
+     * @param latencyNanos 수락 처리 지연 시간(나노초)
+     * */
+    public static void recordAccept(long latencyNanos) {
+        acceptedConnections.increment();
+        acceptLatencyNanos.add(latencyNanos);
+        long max = maxAcceptLatencyNanos.get();
+        while (latencyNanos > max && !maxAcceptLatencyNanos.compareAndSet(max, latencyNanos)) {
+            max = maxAcceptLatencyNanos.get();
+        }
+        rollAcceptRateWindow();
+        acceptRateCount.increment();
+    }
+
+    /**
+     * 수락한 연결 수를 반환합니다.
+     *
+     * @return 수락한 연결 수
+     * */
+    public static long getAcceptedConnections() {
+        return acceptedConnections.sum();
+    }
+
+    /**
+     * 직전 1초 동안 수락한 연결 수를 반환합니다.
+     *
+     * @return 초당 수락한 연결 수
+     * */
+    public static long getAcceptRate() {
+        rollAcceptRateWindow();
+        return lastAcceptRate;
+    }
+
+    /**
+     * 수락 처리의 평균 지연 시간을 반환합니다.
+     *
+     * @return 평균 지연 시간(나노초)
+     * */
+    public static long getAverageAcceptLatencyNanos() {
+        long count = acceptedConnections.sum();
+        return count == 0 ? 0 : acceptLatencyNanos.sum() / count;
+    }
+
+    /**
+     * 수락 처리의 최대 지연 시간을 반환합니다.
+     *
+     * @return 최대 지연 시간(나노초)
+     * */
+    public static long getMaxAcceptLatencyNanos() {
+        return maxAcceptLatencyNanos.get();
+    }
+
+    /**
+     * 완료된 TLS 핸드셰이크를 기록합니다.
+     *
+     * @param latencyNanos 핸드셰이크 소요 시간(나노초)
+     * @param resumed 기존 세션을 재사용했는지 여부
+     * */
+    public static void recordHandshake(long latencyNanos, boolean resumed) {
+        handshakes.increment();
+        handshakeLatencyNanos.add(latencyNanos);
+        if (resumed) {
+            resumedHandshakes.increment();
+        } else {
+            fullHandshakeLatencyNanos.add(latencyNanos);
+        }
+    }
+
+    /**
+     * 실패한 TLS 핸드셰이크 수를 증가시킵니다.
+     * */
+    public static void incrementFailedHandshakes() {
+        failedHandshakes.increment();
+    }
+
+    /**
+     * 완료된 TLS 핸드셰이크 수를 반환합니다.
+     *
+     * @return 핸드셰이크 수
+     * */
+    public static long getHandshakes() {
+        return handshakes.sum();
+    }
+
+    /**
+     * 세션을 재사용한 TLS 핸드셰이크 수를 반환합니다.
+     *
+     * @return 세션 재사용 핸드셰이크 수
+     * */
+    public static long getResumedHandshakes() {
+        return resumedHandshakes.sum();
+    }
+
+    /**
+     * 실패한 TLS 핸드셰이크 수를 반환합니다.
+     *
+     * @return 실패한 핸드셰이크 수
+     * */
+    public static long getFailedHandshakes() {
+        return failedHandshakes.sum();
+    }
+
+    /**
+     * 완료된 TLS 핸드셰이크 중 세션을 재사용한 비율을 반환합니다.
+     *
+     * @return 세션 재사용 비율 (0 ~ 1)
+     * */
+    public static double getResumptionRate() {
+        long count = handshakes.sum();
+        return count == 0 ? 0 : (double) resumedHandshakes.sum() / count;
+    }
+
+    /**
+     * TLS 핸드셰이크의 평균 소요 시간을 반환합니다.
+     *
+     * @return 평균 소요 시간(나노초)
+     * */
+    public static long getAverageHandshakeLatencyNanos() {
+        long count = handshakes.sum();
+        return count == 0 ? 0 : handshakeLatencyNanos.sum() / count;
+    }
+
+    /**
+     * 세션을 재사용하지 않은 전체 TLS 핸드셰이크의 평균 소요 시간을 반환합니다.
+     *
+     * @return 평균 소요 시간(나노초)
+     * */
+    public static long getAverageFullHandshakeLatencyNanos() {
+        long count = handshakes.sum() - resumedHandshakes.sum();
+        return count <= 0 ? 0 : fullHandshakeLatencyNanos.sum() / count;
+    }
+
+    /**
+     * 읽기/쓰기 기한이 지나 닫은 연결 수를 증가시킵니다.
+     * */
+    public static void incrementTimedOutConnections() {
+        timedOutConnections.increment();
+    }
+
+    /**
+     * 읽기/쓰기 기한이 지나 닫은 연결 수를 반환합니다.
+     *
+     * @return 기한이 지나 닫은 연결 수
+     * */
+    public static long getTimedOutConnections() {
+        return timedOutConnections.sum();
+    }
+
+    /**
+     * 정적 자원 캐시에서 찾은 요청 수를 증가시킵니다.
+     * */
+    public static void incrementStaticCacheHits() {
+        staticCacheHits.increment();
+    }
+
+    /**
+     * 정적 자원 캐시에 없거나 바뀌어서 다시 읽은 요청 수를 증가시킵니다.
+     * */
+    public static void incrementStaticCacheMisses() {
+        staticCacheMisses.increment();
+    }
+
+    /**
+     * 크기 제한으로 정적 자원 캐시에서 버린 자원 수를 증가시킵니다.
+     * */
+    public static void incrementStaticCacheEvictions() {
+        staticCacheEvictions.increment();
+    }
+
+    /**
+     * 정적 자원 캐시가 힙에 보관한 바이트 수를 변경합니다.
+     *
+     * @param delta 변경할 바이트 수
+     * */
+    public static void addStaticCacheBytes(long delta) {
+        staticCacheBytes.addAndGet(delta);
+    }
+
+    /**
+     * 정적 자원 캐시에서 찾은 요청 수를 반환합니다.
+     *
+     * @return 캐시 적중 수
+     * */
+    public static long getStaticCacheHits() {
+        return staticCacheHits.sum();
+    }
+
+    /**
+     * 정적 자원 캐시에 없어서 다시 읽은 요청 수를 반환합니다.
+     *
+     * @return 캐시 실패 수
+     * */
+    public static long getStaticCacheMisses() {
+        return staticCacheMisses.sum();
+    }
+
+    /**
+     * 크기 제한으로 정적 자원 캐시에서 버린 자원 수를 반환합니다.
+     *
+     * @return 버린 자원 수
+     * */
+    public static long getStaticCacheEvictions() {
+        return staticCacheEvictions.sum();
+    }
+
+    /**
+     * 정적 자원 캐시가 힙에 보관한 바이트 수를 반환합니다.
+     *
+     * @return 보관한 바이트 수
+     * */
+    public static long getStaticCacheBytes() {
+        return staticCacheBytes.get();
+    }
+
+    /**
+     * 정적 자원을 메모리에 매핑한 바이트 수를 변경합니다. 힙 밖의 메모리이므로 캐시 크기와 따로 집계합니다.
+     *
+     * @param delta 변경할 바이트 수
+     * */
+    public static void addStaticMappedBytes(long delta) {
+        staticMappedBytes.addAndGet(delta);
+    }
+
+    /**
+     * 정적 자원을 메모리에 매핑한 바이트 수를 반환합니다.
+     *
+     * @return 매핑한 바이트 수
+     * */
+    public static long getStaticMappedBytes() {
+        return staticMappedBytes.get();
+    }
+
+    private static void rollAcceptRateWindow() {
+        long now = currentSecond();
+        long window = acceptRateWindow.get();
+        if (now == window || !acceptRateWindow.compareAndSet(window, now)) return;
+        long count = acceptRateCount.sumThenReset();
+        lastAcceptRate = now - window == 1 ? count : 0;
+    }
+
+    private static long currentSecond() {
+        return System.nanoTime() / 1_000_000_000L;
+    }
+
+}
@@ -41,6 +41,51 @@ public class ServerProperties {
         return properties.getProperty(key);
     }
 
+    /**
+     * 서버 설정을 정수로 가져옵니다. 설정이 없다면 기본 값을 반환합니다.
+     *
+     * @param key 설정 이름
+     * @param defaultValue 기본 값
+     * @return 설정 값
+     * */
+    public static int getInt(String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    /**
+     * 서버 설정을 long 타입으로 가져옵니다. 설정이 없다면 기본 값을 반환합니다.
+     *
+     * @param key 설정 이름
+     * @param defaultValue 기본 값
+     * @return 설정 값
+     * */
+    public static long getLong(String key, long defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Long.parseLong(value.trim()) : defaultValue;
+    }
+
+    /**
+     * 서버 설정을 boolean 타입으로 가져옵니다. 설정이 없다면 기본 값을 반환합니다.
+     *
+     * @param key 설정 이름
+     * @param defaultValue 기본 값
+     * @return 설정 값
+     * */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = properties.getProperty(key);
+        return value != null ? Boolean.parseBoolean(value.trim()) : defaultValue;
+    }
+
+    /**
+     * NIO 기반 이벤트 루프 전송 계층을 사용하는지 확인합니다.
+     *
+     * @return NIO 전송 계층 사용 여부
+     * */
+    public static boolean isNioTransport() {
+        return "nio".equalsIgnoreCase(get("server.transport"));
+    }
+
     /**
      * SSL 설정을 활성화 합니다.
      * */
@@ -0,0 +1,30 @@
+package org.sam.server.common;
+
+/**
+ * 서버의 실행 상태를 공유하는 클래스입니다.
+ *
+ * @author hypernova1
+ */
+public class ServerStatus {
+
+    private static volatile boolean shuttingDown;
+
+    private ServerStatus() {}
+
+    /**
+     * 서버가 종료 중임을 표시합니다. 이후의 응답은 연결을 유지하지 않습니다.
+     * */
+    public static void markShuttingDown() {
+        shuttingDown = true;
+    }
+
+    /**
+     * 서버가 종료 중인지 확인합니다.
+     *
+     * @return 종료 중 여부
+     * */
+    public static boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+}
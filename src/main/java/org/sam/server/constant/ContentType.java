@@ -15,7 +15,8 @@ public enum ContentType {
     PNG("image/png"),
     JPG("image/jpg"),
     JPEG("image/jpeg"),
-    MULTIPART_FORM_DATA("multipart/form-data");
+    MULTIPART_FORM_DATA("multipart/form-data"),
+    TEXT_EVENT_STREAM("text/event-stream");
 
     private final String value;
 
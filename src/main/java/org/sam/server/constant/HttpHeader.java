@@ -2,11 +2,74 @@ package org.sam.server.constant;
 
 /**
  * HTTP Header에 대한 상수입니다.
+ * 헤더 이름은 대소문자를 구분하지 않으며, 요청과 응답의 헤더 목록은 이 이름들을 같은 인스턴스로 공유합니다.
  *
  * @author hypernova1
+ * @see org.sam.server.http.web.HttpHeaders
  */
 public class HttpHeader {
-    public static String ACCEPT = "accept";
-    public static String CONTENT_TYPE = "content-type";
-    public static String USER_AGENT = "user-agent";
+    public static final String ACCEPT = "Accept";
+    public static final String ACCEPT_CHARSET = "Accept-Charset";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+    public static final String ACCEPT_LANGUAGE = "Accept-Language";
+    public static final String ACCEPT_RANGES = "Accept-Ranges";
+    public static final String ACCESS_CONTROL_ALLOW_ORIGIN = "Access-Control-Allow-Origin";
+    public static final String AGE = "Age";
+    public static final String ALLOW = "Allow";
+    public static final String AUTHORIZATION = "Authorization";
+    public static final String CACHE_CONTROL = "Cache-Control";
+    public static final String CONNECTION = "Connection";
+    public static final String CONTENT_DISPOSITION = "Content-Disposition";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String CONTENT_LANGUAGE = "Content-Language";
+    public static final String CONTENT_LENGTH = "Content-Length";
+    public static final String CONTENT_RANGE = "Content-Range";
+    public static final String CONTENT_TYPE = "Content-Type";
+    public static final String COOKIE = "Cookie";
+    public static final String DATE = "Date";
+    public static final String ETAG = "ETag";
+    public static final String EXPECT = "Expect";
+    public static final String EXPIRES = "Expires";
+    public static final String HOST = "Host";
+    public static final String HTTP2_SETTINGS = "HTTP2-Settings";
+    public static final String IF_MATCH = "If-Match";
+    public static final String IF_MODIFIED_SINCE = "If-Modified-Since";
+    public static final String IF_NONE_MATCH = "If-None-Match";
+    public static final String IF_RANGE = "If-Range";
+    public static final String IF_UNMODIFIED_SINCE = "If-Unmodified-Since";
+    public static final String KEEP_ALIVE = "Keep-Alive";
+    public static final String LAST_MODIFIED = "Last-Modified";
+    public static final String LOCATION = "Location";
+    public static final String ORIGIN = "Origin";
+    public static final String PRAGMA = "Pragma";
+    public static final String RANGE = "Range";
+    public static final String REFERER = "Referer";
+    public static final String SEC_WEBSOCKET_ACCEPT = "Sec-WebSocket-Accept";
+    public static final String SEC_WEBSOCKET_KEY = "Sec-WebSocket-Key";
+    public static final String SEC_WEBSOCKET_VERSION = "Sec-WebSocket-Version";
+    public static final String SERVER = "Server";
+    public static final String SET_COOKIE = "Set-Cookie";
+    public static final String TE = "TE";
+    public static final String TRANSFER_ENCODING = "Transfer-Encoding";
+    public static final String UPGRADE = "Upgrade";
+    public static final String USER_AGENT = "User-Agent";
+    public static final String VARY = "Vary";
+    public static final String VIA = "Via";
+    public static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    /**
+     * 미리 만들어 둔 헤더 이름 목록입니다.
+     *
+     * @return 헤더 이름 목록
+     * */
+    public static String[] values() {
+        return new String[] {
+                ACCEPT, ACCEPT_CHARSET, ACCEPT_ENCODING, ACCEPT_LANGUAGE, ACCEPT_RANGES, ACCESS_CONTROL_ALLOW_ORIGIN, AGE, ALLOW,
+                AUTHORIZATION, CACHE_CONTROL, CONNECTION, CONTENT_DISPOSITION, CONTENT_ENCODING, CONTENT_LANGUAGE, CONTENT_LENGTH,
+                CONTENT_RANGE, CONTENT_TYPE, COOKIE, DATE, ETAG, EXPECT, EXPIRES, HOST, HTTP2_SETTINGS, IF_MATCH, IF_MODIFIED_SINCE,
+                IF_NONE_MATCH, IF_RANGE, IF_UNMODIFIED_SINCE, KEEP_ALIVE, LAST_MODIFIED, LOCATION, ORIGIN, PRAGMA, RANGE, REFERER,
+                SEC_WEBSOCKET_ACCEPT, SEC_WEBSOCKET_KEY, SEC_WEBSOCKET_VERSION, SERVER, SET_COOKIE, TE, TRANSFER_ENCODING, UPGRADE,
+                USER_AGENT, VARY, VIA, X_FORWARDED_FOR
+        };
+    }
 }
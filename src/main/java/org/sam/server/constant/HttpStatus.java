@@ -9,12 +9,20 @@ public enum HttpStatus {
 
     OK("200", "OK"),
     CREATED("201", "Created"),
+    PARTIAL_CONTENT("206", "Partial Content"),
+    NOT_MODIFIED("304", "Not Modified"),
     BAD_REQUEST("400", "Bad Request"),
     UNAUTHORIZED("401", "Unauthorized"),
     FORBIDDEN("403", "Forbidden"),
     NOT_FOUND("404", "Not Found"),
     METHOD_NOT_ALLOWED("405", "Method Not Allowed"),
-    NOT_IMPLEMENTED("501", "Not Implemented");
+    REQUEST_TIMEOUT("408", "Request Timeout"),
+    PAYLOAD_TOO_LARGE("413", "Payload Too Large"),
+    RANGE_NOT_SATISFIABLE("416", "Range Not Satisfiable"),
+    INTERNAL_SERVER_ERROR("500", "Internal Server Error"),
+    NOT_IMPLEMENTED("501", "Not Implemented"),
+    SERVICE_UNAVAILABLE("503", "Service Unavailable"),
+    GATEWAY_TIMEOUT("504", "Gateway Timeout");
 
     private final String code;
     private final String message;
@@ -3,6 +3,7 @@ package org.sam.server.context;
 import org.sam.server.annotation.component.Component;
 import org.sam.server.annotation.ComponentScan;
 import org.sam.server.annotation.component.Handler;
+import org.sam.server.annotation.component.WebSocketHandler;
 import org.sam.server.annotation.handle.RequestMapping;
 import org.sam.server.exception.ComponentScanNotFoundException;
 import org.sam.server.http.Interceptor;
@@ -29,13 +30,15 @@ public class BeanClassLoader {
 
     private static final List<Class<?>> interceptorClasses = new ArrayList<>();
 
+    private static final List<Class<?>> webSocketHandlerClasses = new ArrayList<>();
+
     static {
         findRootPackageName();
         loadClasses();
     }
 
     /**
-     * 루트 패키지부터 경로를 탐색하며 핸들러, 컴포넌트, 인터셉터 클래스를 저장합니다.
+     * 루트 패키지부터 경로를 탐색하며 핸들러, 컴포넌트, 인터셉터, 웹소켓 핸들러 클래스를 저장합니다.
      * */
     private static void loadClasses() {
         String path = rootPackageName.replace(".", "/");
@@ -50,6 +53,7 @@ public class BeanClassLoader {
             loadHandlerClasses(classes);
             loadComponentClasses(classes);
             loadInterceptorClasses(classes);
+            loadWebSocketHandlerClasses(classes);
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -100,6 +104,18 @@ public class BeanClassLoader {
         }
     }
 
+    /**
+     * 웹소켓 핸들러 클래스를 저장합니다.
+     *
+     * @param classes 클래스 목록
+     * @see WebSocketHandler
+     * */
+    private static void loadWebSocketHandlerClasses(List<Class<?>> classes) {
+        webSocketHandlerClasses.addAll(classes.stream()
+                .filter(BeanClassLoader::isWebSocketHandlerClass)
+                .collect(Collectors.toList()));
+    }
+
     /**
      * 디렉토리를 탐색하며 클래스를 찾아 목록을 반환합니다.
      *
@@ -229,6 +245,15 @@ public class BeanClassLoader {
         return interceptorClasses;
     }
 
+    /**
+     * 웹소켓 핸들러 클래스 목록을 반환합니다.
+     *
+     * @return 웹소켓 핸들러 클래스 목록
+     * */
+    static List<Class<?>> getWebSocketHandlerClasses() {
+        return webSocketHandlerClasses;
+    }
+
     /**
      * 클래스의 이름을 반환합니다.
      *
@@ -260,6 +285,16 @@ public class BeanClassLoader {
         return clazz.getDeclaredAnnotation(Handler.class) != null;
     }
 
+    /**
+     * 해당 클래스가 웹소켓 핸들러 클래스인지 확인합니다.
+     *
+     * @param clazz 클래스 타입
+     * @return 웹소켓 핸들러 클래스 여부
+     * */
+    private static boolean isWebSocketHandlerClass(Class<?> clazz) {
+        return clazz.getDeclaredAnnotation(WebSocketHandler.class) != null;
+    }
+
     /**
      * 해당 클래스에 ComponentScan 어노테이션이 붙어 있는지 확인합니다.
      *
@@ -1,11 +1,14 @@
 package org.sam.server.context;
 
+import org.sam.server.annotation.PreDestroy;
 import org.sam.server.annotation.Qualifier;
 import org.sam.server.annotation.component.Bean;
+import org.sam.server.annotation.component.WebSocketHandler;
 import org.sam.server.exception.BeanAccessModifierException;
 import org.sam.server.exception.BeanCreationException;
 import org.sam.server.exception.BeanNotFoundException;
 import org.sam.server.http.Interceptor;
+import org.sam.server.http.WebSocketListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -30,10 +33,17 @@ public class BeanContainer {
 
     private static final List<Interceptor> interceptors = new ArrayList<>();
 
+    private static final Map<String, WebSocketListener> webSocketHandlers = new HashMap<>();
+
+    private static final List<Object> beanInstances = new ArrayList<>();
+
+    private static boolean destroyed;
+
     static {
         loadComponentBeans();
         loadHandlerBeans();
         loadInterceptors();
+        loadWebSocketHandlers();
     }
 
     /**
@@ -80,6 +90,7 @@ public class BeanContainer {
     private static void addBeanMap(Class<?> componentType, Object componentInstance, String beanName) {
         BeanInfo beanInfo = new BeanInfo(beanName, componentInstance);
         logger.info("create bean: " + beanName + " > " + componentType.getName());
+        beanInstances.add(componentInstance);
         if (beanMap.get(componentType) != null) {
             beanMap.get(componentType).add(beanInfo);
             return;
@@ -97,6 +108,7 @@ public class BeanContainer {
             Object bean = createComponentInstance(handlerClass);
             logger.info("create handler bean: " + handlerClass.getName());
             handlerBeans.add(bean);
+            beanInstances.add(bean);
         }
     }
 
@@ -114,6 +126,24 @@ public class BeanContainer {
         }
     }
 
+    /**
+     * 웹소켓 핸들러 클래스의 인스턴스를 생성하고 매핑된 URL과 함께 저장합니다.
+     *
+     * @throws BeanCreationException WebSocketListener를 구현하지 않았다면
+     * */
+    private static void loadWebSocketHandlers() {
+        for (Class<?> handlerClass : BeanClassLoader.getWebSocketHandlerClasses()) {
+            if (!WebSocketListener.class.isAssignableFrom(handlerClass)) {
+                throw new BeanCreationException(handlerClass);
+            }
+            Object bean = createComponentInstance(handlerClass);
+            String path = handlerClass.getDeclaredAnnotation(WebSocketHandler.class).value();
+            logger.info("create websocket handler bean: " + path + " > " + handlerClass.getName());
+            webSocketHandlers.put(path, (WebSocketListener) bean);
+            beanInstances.add(bean);
+        }
+    }
+
     /**
      * 컴포넌트의 인스턴스를 생성 후 반환합니다.
      *
@@ -272,6 +302,43 @@ public class BeanContainer {
         return constructors[0];
     }
 
+    /**
+     * 생성된 빈의 PreDestroy 메서드를 생성의 역순으로 호출합니다. 한 빈에서 예외가 발생해도 나머지 빈의 메서드는 호출됩니다.
+     *
+     * @see PreDestroy
+     * */
+    public static synchronized void destroy() {
+        if (destroyed) return;
+        destroyed = true;
+        Set<Object> destroyedBeans = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = beanInstances.size() - 1; i >= 0; i--) {
+            Object bean = beanInstances.get(i);
+            if (bean == null || !destroyedBeans.add(bean)) continue;
+            invokePreDestroyMethods(bean);
+        }
+    }
+
+    /**
+     * 빈에 선언된 PreDestroy 메서드를 호출합니다.
+     *
+     * @param bean 빈 인스턴스
+     * */
+    private static void invokePreDestroyMethods(Object bean) {
+        for (Method declaredMethod : bean.getClass().getDeclaredMethods()) {
+            if (declaredMethod.getDeclaredAnnotation(PreDestroy.class) == null) continue;
+            if (declaredMethod.getParameterCount() != 0) {
+                logger.warn("@PreDestroy method must not have parameters: " + declaredMethod);
+                continue;
+            }
+            try {
+                declaredMethod.setAccessible(true);
+                declaredMethod.invoke(bean);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                logger.error("failed to destroy bean: " + bean.getClass().getName(), e);
+            }
+        }
+    }
+
     /**
      * 핸들러 빈 목록을 반환합니다.
      *
@@ -290,6 +357,16 @@ public class BeanContainer {
         return interceptors;
     }
 
+    /**
+     * URL에 매핑된 웹소켓 핸들러를 반환합니다.
+     *
+     * @param path 요청 URL
+     * @return 웹소켓 핸들러, 매핑된 핸들러가 없다면 null
+     * */
+    public static WebSocketListener getWebSocketHandler(String path) {
+        return webSocketHandlers.get(path);
+    }
+
     /**
      * 빈 목록을 반환합니다.
      *
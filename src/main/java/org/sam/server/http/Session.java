@@ -3,10 +3,10 @@ package org.sam.server.http;
 import org.sam.server.http.context.HttpServer;
 
 import java.time.LocalDateTime;
-import java.util.Hashtable;
 import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 세션 정보를 담는 클래스입니다.
@@ -23,7 +23,7 @@ public final class Session {
 
     private int timeout;
 
-    private final Map<String, Object> attribute = new Hashtable<>();
+    private final Map<String, Object> attribute = new ConcurrentHashMap<>();
 
     public Session() {
         this.id = UUID.randomUUID().toString();
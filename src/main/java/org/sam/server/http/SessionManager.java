@@ -3,9 +3,9 @@ package org.sam.server.http;
 import org.sam.server.http.web.Request;
 
 import java.time.ZoneId;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 세션을 관리하는 클래스입니다. 세션의 생명주기를 관리합니다.
@@ -14,7 +14,7 @@ import java.util.Set;
  * */
 public class SessionManager {
 
-    private static final Set<Session> sessionList = new HashSet<>();
+    private static final Set<Session> sessionList = ConcurrentHashMap.newKeySet();
 
     private SessionManager() {}
 
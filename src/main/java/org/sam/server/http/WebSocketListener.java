@@ -0,0 +1,57 @@
+package org.sam.server.http;
+
+/**
+ * 웹소켓 연결의 이벤트를 받는 인터페이스입니다. WebSocketHandler 어노테이션을 선언한 클래스에서 구현합니다.
+ * 하나의 연결에 대한 메서드는 도착한 순서대로 한 번에 하나씩 호출됩니다.
+ *
+ * @author hypernova1
+ * @see org.sam.server.annotation.component.WebSocketHandler
+ * */
+public interface WebSocketListener {
+
+    /**
+     * 핸드셰이크를 마치고 연결이 열렸을 때 호출됩니다.
+     *
+     * @param session 웹소켓 세션
+     * */
+    default void onOpen(WebSocketSession session) {
+    }
+
+    /**
+     * 텍스트 메시지를 받았을 때 호출됩니다. 나누어 받은 메시지는 모두 모은 후 호출됩니다.
+     *
+     * @param session 웹소켓 세션
+     * @param message 메시지
+     * */
+    default void onMessage(WebSocketSession session, String message) {
+    }
+
+    /**
+     * 바이너리 메시지를 받았을 때 호출됩니다. 나누어 받은 메시지는 모두 모은 후 호출됩니다.
+     *
+     * @param session 웹소켓 세션
+     * @param message 메시지
+     * */
+    default void onMessage(WebSocketSession session, byte[] message) {
+    }
+
+    /**
+     * 연결이 닫혔을 때 호출됩니다. 종료 프레임 없이 끊어졌다면 1006 코드로 호출됩니다.
+     *
+     * @param session 웹소켓 세션
+     * @param code 종료 코드
+     * @param reason 종료 사유
+     * */
+    default void onClose(WebSocketSession session, int code, String reason) {
+    }
+
+    /**
+     * 다른 메서드를 실행하다가 예외가 발생했을 때 호출됩니다.
+     *
+     * @param session 웹소켓 세션
+     * @param error 발생한 예외
+     * */
+    default void onError(WebSocketSession session, Throwable error) {
+    }
+
+}
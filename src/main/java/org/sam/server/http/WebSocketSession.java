@@ -0,0 +1,83 @@
+package org.sam.server.http;
+
+import org.sam.server.http.web.Request;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 하나의 웹소켓 연결을 나타내는 인터페이스입니다. 메시지를 보내는 메서드는 여러 쓰레드에서 호출할 수 있습니다.
+ *
+ * @author hypernova1
+ * @see WebSocketListener
+ * */
+public interface WebSocketSession {
+
+    /**
+     * 정상 종료를 나타내는 종료 코드입니다.
+     * */
+    int NORMAL_CLOSURE = 1000;
+
+    /**
+     * 서버 종료 등으로 연결을 닫는다는 종료 코드입니다.
+     * */
+    int GOING_AWAY = 1001;
+
+    /**
+     * 세션의 아이디를 반환합니다.
+     *
+     * @return 세션 아이디
+     * */
+    String getId();
+
+    /**
+     * 연결을 연 업그레이드 요청을 반환합니다. 헤더, 쿠키, 쿼리 파라미터를 확인할 때 사용합니다.
+     *
+     * @return 업그레이드 요청
+     * */
+    Request getHandshakeRequest();
+
+    /**
+     * 세션에 저장할 값의 저장소를 반환합니다.
+     *
+     * @return 세션 속성
+     * */
+    Map<String, Object> getAttributes();
+
+    /**
+     * 연결이 열려 있는지 확인합니다. 종료 프레임을 보냈거나 받았다면 false를 반환합니다.
+     *
+     * @return 열림 여부
+     * */
+    boolean isOpen();
+
+    /**
+     * 텍스트 메시지를 보냅니다.
+     *
+     * @param message 메시지
+     * @throws IOException 연결이 닫혔거나 쓰다가 오류 발생시
+     * */
+    void sendText(String message) throws IOException;
+
+    /**
+     * 바이너리 메시지를 보냅니다.
+     *
+     * @param message 메시지
+     * @throws IOException 연결이 닫혔거나 쓰다가 오류 발생시
+     * */
+    void sendBinary(byte[] message) throws IOException;
+
+    /**
+     * 1000 코드로 연결을 닫습니다.
+     * */
+    void close();
+
+    /**
+     * 종료 프레임을 보내 연결을 닫습니다. 상대방이 종료 프레임으로 응답하거나 기한이 지나면 소켓을 닫습니다.
+     *
+     * @param code 종료 코드
+     * @param reason 종료 사유
+     * */
+    void close(int code, String reason);
+
+}
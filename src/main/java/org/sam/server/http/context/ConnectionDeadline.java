@@ -0,0 +1,121 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerMetrics;
+import org.sam.server.common.ServerProperties;
+
+import java.util.function.Consumer;
+
+/**
+ * 하나의 연결에 대한 읽기/쓰기 기한을 관리하는 클래스입니다.
+ * 모든 연결이 하나의 해시 휠 타이머를 공유하며, 연결의 단계가 바뀔 때만 기한을 다시 등록하므로 조금씩 데이터를 보내는 클라이언트도 기한을 늘릴 수 없습니다.
+ *
+ * @author hypernova1
+ * @see HashedWheelTimer
+ */
+class ConnectionDeadline {
+
+    private final Consumer<Phase> onExpire;
+
+    private HashedWheelTimer.Timeout timeout;
+
+    private Phase phase;
+
+    private boolean expired;
+
+    /**
+     * @param onExpire 기한이 지났을 때 타이머 쓰레드에서 실행할 작업, 블로킹되는 작업을 실행해서는 안 됩니다.
+     * */
+    ConnectionDeadline(Consumer<Phase> onExpire) {
+        this.onExpire = onExpire;
+    }
+
+    /**
+     * 연결의 단계를 바꾸고 해당 단계의 기한을 등록합니다. 이전 단계의 기한은 취소됩니다.
+     *
+     * @param phase 새 단계
+     * */
+    synchronized void start(Phase phase) {
+        if (expired || this.phase == phase) return;
+        cancelTimeout();
+        this.phase = phase;
+        HashedWheelTimer.Timeout[] registered = new HashedWheelTimer.Timeout[1];
+        registered[0] = HashedWheelTimer.shared().newTimeout(() -> expire(registered[0]), phase.timeoutMillis);
+        this.timeout = registered[0];
+    }
+
+    /**
+     * 등록된 기한을 취소합니다. 요청을 처리하는 동안과 같이 기한이 없는 단계에서 호출합니다.
+     * */
+    synchronized void cancel() {
+        cancelTimeout();
+        this.phase = null;
+    }
+
+    /**
+     * 현재 단계를 반환합니다.
+     *
+     * @return 현재 단계, 기한이 없다면 null
+     * */
+    synchronized Phase getPhase() {
+        return phase;
+    }
+
+    /**
+     * 기한이 지나 연결을 닫았는지 확인합니다.
+     *
+     * @return 만료 여부
+     * */
+    synchronized boolean isExpired() {
+        return expired;
+    }
+
+    private void cancelTimeout() {
+        if (timeout != null) {
+            timeout.cancel();
+            timeout = null;
+        }
+    }
+
+    private void expire(HashedWheelTimer.Timeout firedTimeout) {
+        Phase expiredPhase;
+        synchronized (this) {
+            if (expired || firedTimeout != timeout) return;
+            expired = true;
+            expiredPhase = phase;
+            timeout = null;
+        }
+        ServerMetrics.incrementTimedOutConnections();
+        onExpire.accept(expiredPhase);
+    }
+
+    /**
+     * 연결의 단계와 단계별 기한입니다. 요청을 읽는 중에 기한이 지나면 408 응답을 보내고, 그 외에는 응답 없이 연결을 닫습니다.
+     * */
+    enum Phase {
+
+        HANDSHAKE(ServerProperties.getInt("server.timeout.header-read", 20), false),
+        IDLE(HttpLauncher.KEEP_ALIVE_TIMEOUT, false),
+        HEADER_READ(ServerProperties.getInt("server.timeout.header-read", 20), true),
+        BODY_READ(ServerProperties.getInt("server.timeout.body-read", 60), true),
+        WRITE(ServerProperties.getInt("server.timeout.write", 60), false);
+
+        private final long timeoutMillis;
+
+        private final boolean requestTimeout;
+
+        Phase(int timeoutSeconds, boolean requestTimeout) {
+            this.timeoutMillis = timeoutSeconds * 1000L;
+            this.requestTimeout = requestTimeout;
+        }
+
+        /**
+         * 기한이 지났을 때 408 응답을 보내야 하는 단계인지 확인합니다.
+         *
+         * @return 408 응답 여부
+         * */
+        boolean isRequestTimeout() {
+            return requestTimeout;
+        }
+    }
+
+}
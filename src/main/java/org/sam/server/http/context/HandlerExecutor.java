@@ -2,7 +2,9 @@ package org.sam.server.http.context;
 
 import org.sam.server.annotation.CrossOrigin;
 import org.sam.server.annotation.handle.JsonRequest;
+import org.sam.server.common.ServerProperties;
 import org.sam.server.constant.ContentType;
+import org.sam.server.constant.HttpHeader;
 import org.sam.server.constant.HttpStatus;
 import org.sam.server.context.BeanContainer;
 import org.sam.server.context.HandlerInfo;
@@ -10,11 +12,23 @@ import org.sam.server.http.*;
 import org.sam.server.http.web.*;
 import org.sam.server.util.Converter;
 import org.sam.server.util.PrimitiveWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Parameter;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * 핸들러를 실행 시키는 클래스입니다.
@@ -24,6 +38,23 @@ import java.util.*;
  * */
 public class HandlerExecutor {
 
+    private static final Logger logger = LoggerFactory.getLogger(HandlerExecutor.class);
+
+    private static final int ASYNC_TIMEOUT = ServerProperties.getInt("server.async.timeout", 30);
+
+    /**
+     * 처리가 끝나지 않은 비동기 응답의 수를 보호합니다. 서버 종료 시 모두 완료될 때 까지 기다리는 데 사용됩니다.
+     * */
+    private static final ReentrantLock asyncLock = new ReentrantLock();
+
+    private static final Condition asyncCompleted = asyncLock.newCondition();
+
+    private static int pendingAsyncResponses;
+
+    private static final int SSE_HEARTBEAT = ServerProperties.getInt("server.sse.heartbeat", 15);
+
+    private static final Set<SseEmitter> openEventStreams = Collections.newSetFromMap(new ConcurrentHashMap<>());
+
     private final Request request;
 
     private final Response response;
@@ -46,31 +77,194 @@ public class HandlerExecutor {
 
     /**
      * 핸들러를 실행합니다.
+     * 핸들러가 CompletionStage를 반환하면 워커 쓰레드를 기다리게 하지 않고 바로 반환하며, 결과가 완료되었을 때 워커 쓰레드에서 응답을 씁니다.
+     * 설정된 시간 안에 완료되지 않으면 504 응답을, 예외로 완료되면 500 응답을 보냅니다.
+     * 핸들러가 SseEmitter를 반환하면 이벤트 스트림을 열고, 스트림이 끝날 때 까지 워커 쓰레드 없이 연결을 유지합니다.
+     *
+     * @param handlerInfo 핸들러 정보
+     * @return 응답을 모두 썼을 때 완료되는 Future
      * */
-    public void execute(HandlerInfo handlerInfo) {
+    public CompletableFuture<Void> execute(HandlerInfo handlerInfo) {
         setCrossOriginConfig(handlerInfo);
         SessionManager.removeExpiredSession();
         try {
             Object returnValue = executeHandlerWithInterceptor(handlerInfo);
-            HttpStatus httpStatus;
-            if (returnValue != null && returnValue.getClass().equals(ResponseEntity.class)) {
-                ResponseEntity<?> responseEntity = (ResponseEntity<?>) returnValue;
-                httpStatus = responseEntity.getHttpStatus();
-                returnValue = responseEntity.getValue();
-            } else {
-                httpStatus = HttpStatus.OK;
+            if (returnValue instanceof CompletionStage) {
+                return writeAsync((CompletionStage<?>) returnValue);
             }
-            String json = Converter.objectToJson(returnValue);
-            response.setContentMimeType(ContentType.APPLICATION_JSON);
-            response.execute(json, httpStatus);
+            if (returnValue instanceof SseEmitter) {
+                return writeEventStream((SseEmitter) returnValue);
+            }
+            writeReturnValue(returnValue);
         } catch (IllegalArgumentException e) {
             e.printStackTrace();
             response.badRequest();
         }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * 처리가 끝나지 않은 비동기 응답이 모두 완료될 때 까지 기다립니다. 서버 종료 시 사용됩니다.
+     *
+     * @param deadline 대기 기한 (System.nanoTime 기준)
+     * @return 기한 안에 모두 완료되었는지 여부
+     * @throws InterruptedException 대기 중 인터럽트가 발생하면
+     * */
+    static boolean awaitAsyncResponses(long deadline) throws InterruptedException {
+        asyncLock.lock();
+        try {
+            while (pendingAsyncResponses > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                asyncCompleted.awaitNanos(remaining);
+            }
+            return true;
+        } finally {
+            asyncLock.unlock();
+        }
+    }
+
+    /**
+     * 열려 있는 이벤트 스트림을 모두 끝냅니다. 서버 종료 시 사용됩니다.
+     * */
+    static void completeEventStreams() {
+        for (SseEmitter emitter : openEventStreams) {
+            emitter.complete();
+        }
+    }
+
+    /**
+     * 핸들러의 반환 값을 JSON으로 변환하여 응답합니다. ResponseEntity라면 지정된 상태 코드로 응답합니다.
+     *
+     * @param returnValue 핸들러의 반환 값
+     * */
+    private void writeReturnValue(Object returnValue) {
+        HttpStatus httpStatus;
+        if (returnValue != null && returnValue.getClass().equals(ResponseEntity.class)) {
+            ResponseEntity<?> responseEntity = (ResponseEntity<?>) returnValue;
+            httpStatus = responseEntity.getHttpStatus();
+            returnValue = responseEntity.getValue();
+        } else {
+            httpStatus = HttpStatus.OK;
+        }
+        String json = Converter.objectToJson(returnValue);
+        response.setContentMimeType(ContentType.APPLICATION_JSON);
+        response.execute(json, httpStatus);
+    }
+
+    /**
+     * 오류 상태 코드와 메시지를 JSON으로 응답합니다.
+     *
+     * @param httpStatus 상태 코드
+     * */
+    private void writeError(HttpStatus httpStatus) {
+        Map<String, Object> error = new LinkedHashMap<>();
+        error.put("status", Integer.parseInt(httpStatus.getCode()));
+        error.put("message", httpStatus.getMessage());
+        response.setContentMimeType(ContentType.APPLICATION_JSON);
+        response.execute(Converter.objectToJson(error), httpStatus);
+    }
+
+    /**
+     * 비동기 반환 값이 완료되거나 기한이 지나면 응답을 씁니다. 둘 중 먼저 일어난 쪽만 응답하며, 늦게 완료된 결과는 버립니다.
+     *
+     * @param stage 핸들러가 반환한 CompletionStage
+     * @return 응답을 모두 썼을 때 완료되는 Future
+     * */
+    private CompletableFuture<Void> writeAsync(CompletionStage<?> stage) {
+        CompletableFuture<Void> written = new CompletableFuture<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        asyncLock.lock();
+        try {
+            pendingAsyncResponses++;
+        } finally {
+            asyncLock.unlock();
+        }
+        HashedWheelTimer.Timeout timeout = ASYNC_TIMEOUT > 0
+                ? HashedWheelTimer.shared().newTimeout(() -> WorkerExecutors.executeFromTimer(() -> {
+                    logger.warn("async handler timed out: " + request.getUrl());
+                    complete(completed, written, () -> writeError(HttpStatus.GATEWAY_TIMEOUT));
+                }), ASYNC_TIMEOUT * 1000L)
+                : null;
+        stage.whenComplete((value, error) -> {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            if (error != null) {
+                logger.error("async handler failed: " + request.getUrl(), error);
+                complete(completed, written, () -> writeError(HttpStatus.INTERNAL_SERVER_ERROR));
+            } else {
+                complete(completed, written, () -> writeReturnValue(value));
+            }
+        });
+        return written;
+    }
+
+    /**
+     * 이벤트 스트림 응답의 헤더를 보내고 SseEmitter에 응답 바디를 연결합니다. 스트림이 열려 있는 동안 주기적으로 하트비트를 보냅니다.
+     *
+     * @param emitter 핸들러가 반환한 SseEmitter
+     * @return 이벤트 스트림이 끝났을 때 완료되는 Future
+     * */
+    private CompletableFuture<Void> writeEventStream(SseEmitter emitter) {
+        response.setContentMimeType(ContentType.TEXT_EVENT_STREAM);
+        try {
+            CompletableFuture<Void> completion = emitter.attach(response.openStream(HttpStatus.OK));
+            openEventStreams.add(emitter);
+            emitter.onCompletion(() -> openEventStreams.remove(emitter));
+            scheduleHeartbeat(emitter);
+            return completion;
+        } catch (IOException e) {
+            logger.debug("failed to open event stream: " + e.getMessage());
+            emitter.complete();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * 다음 하트비트를 공유 타이머에 등록합니다. 하트비트는 소켓에 쓰는 작업이므로 타이머 쓰레드가 아닌 워커 쓰레드에서 보냅니다.
+     *
+     * @param emitter 하트비트를 보낼 SseEmitter
+     * */
+    private static void scheduleHeartbeat(SseEmitter emitter) {
+        if (SSE_HEARTBEAT <= 0 || emitter.isClosed()) return;
+        HashedWheelTimer.shared().newTimeout(() -> WorkerExecutors.executeFromTimer(() -> {
+            if (emitter.heartbeat()) {
+                scheduleHeartbeat(emitter);
+            }
+        }), SSE_HEARTBEAT * 1000L);
+    }
+
+    /**
+     * 먼저 일어난 완료에 대해서만 응답을 씁니다. 응답은 결과를 완료한 쓰레드에서 바로 쓰며,
+     * 파이프라이닝된 요청처럼 워커 쓰레드가 결과를 기다리고 있는 경우에도 교착 상태에 빠지지 않도록 워커 쓰레드 풀을 거치지 않습니다.
+     *
+     * @param completed 응답을 이미 썼는지 여부
+     * @param written 응답을 모두 썼을 때 완료할 Future
+     * @param writer 응답을 쓰는 작업
+     * */
+    private void complete(AtomicBoolean completed, CompletableFuture<Void> written, Runnable writer) {
+        if (!completed.compareAndSet(false, true)) return;
+        try {
+            writer.run();
+        } catch (RuntimeException e) {
+            logger.error("async response write error", e);
+        } finally {
+            written.complete(null);
+            asyncLock.lock();
+            try {
+                if (--pendingAsyncResponses == 0) {
+                    asyncCompleted.signalAll();
+                }
+            } finally {
+                asyncLock.unlock();
+            }
+        }
     }
 
     /**
      * 핸들러를 실행시킨 후 리턴 값을 받아옵니다. interceptor가 구현되어 있다면 interceptor 실행 후 리턴 값을 받아옵니다.
+     * 비동기 핸들러의 경우 postHandler는 결과가 완료되기 전, 핸들러 메서드가 반환되었을 때 실행됩니다.
      *
      * @param handlerInfo 핸들러 정보
      * @return 핸들러의 리턴 값
@@ -99,7 +293,7 @@ public class HandlerExecutor {
      **/
     private void setCrossOriginConfig(HandlerInfo handlerInfo) {
         Class<?> handlerClass = handlerInfo.getInstance().getClass();
-        String origin = request.getHeader("origin");
+        String origin = request.getHeader(HttpHeader.ORIGIN);
 
         if (origin == null) return;
 
@@ -110,9 +304,9 @@ public class HandlerExecutor {
         String[] value = crossOrigin.value();
         List<String> allowPaths = Arrays.asList(value);
         if (allowPaths.contains("*")) {
-            response.setHeader("Access-Control-Allow-Origin", "*");
+            response.setHeader(HttpHeader.ACCESS_CONTROL_ALLOW_ORIGIN, "*");
         } else if (allowPaths.contains(origin)) {
-            response.setHeader("Access-Control-Allow-Origin", origin);
+            response.setHeader(HttpHeader.ACCESS_CONTROL_ALLOW_ORIGIN, origin);
         }
     }
 
@@ -167,6 +361,12 @@ public class HandlerExecutor {
         if (Session.class.equals(type)) {
             return SessionManager.getSessionFromRequest(request);
         }
+        if (InputStream.class.equals(type)) {
+            return request.getBody();
+        }
+        if (ReadableByteChannel.class.equals(type)) {
+            return Channels.newChannel(request.getBody());
+        }
         if (handlerParameter.getDeclaredAnnotation(JsonRequest.class) != null) {
             return Converter.jsonToObject(request.getJson(), type);
         }
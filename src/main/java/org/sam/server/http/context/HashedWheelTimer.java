@@ -0,0 +1,167 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 많은 수의 타임아웃을 하나의 쓰레드로 관리하는 해시 휠 타이머입니다.
+ * 타임아웃 등록과 취소는 O(1)이며, 정밀도는 틱 간격만큼입니다. 만료된 작업은 타이머 쓰레드에서 실행되므로 오래 걸리는 작업을 등록해서는 안 됩니다.
+ *
+ * @author hypernova1
+ * @see ConnectionDeadline
+ * @see HandlerExecutor
+ */
+class HashedWheelTimer implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HashedWheelTimer.class);
+
+    private final long tickNanos;
+
+    private final List<Queue<Timeout>> wheel;
+
+    private final int mask;
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+
+    private final long startTime = System.nanoTime();
+
+    private long tick;
+
+    /**
+     * 타이머를 생성하고 타이머 쓰레드를 시작합니다.
+     *
+     * @param name 타이머 쓰레드 이름
+     * @param tickMillis 틱 간격
+     * @param wheelSize 휠의 칸 수, 2의 거듭제곱으로 올림합니다.
+     * */
+    HashedWheelTimer(String name, long tickMillis, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(tickMillis, 1));
+        int size = Integer.highestOneBit(Math.max(wheelSize, 2) - 1) << 1;
+        this.wheel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.mask = size - 1;
+        Thread thread = new Thread(this, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 서버 전체가 함께 사용하는 타이머를 반환합니다. 처음 호출될 때 타이머 쓰레드가 시작됩니다.
+     *
+     * @return 공유 타이머
+     * */
+    static HashedWheelTimer shared() {
+        return SharedTimerHolder.TIMER;
+    }
+
+    /**
+     * 지정한 시간 후에 실행할 작업을 등록합니다.
+     *
+     * @param task 만료 시 실행할 작업
+     * @param delayMillis 지연 시간
+     * @return 취소할 수 있는 타임아웃
+     * */
+    Timeout newTimeout(Runnable task, long delayMillis) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMillis));
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            waitForNextTick();
+            transferPendingTimeouts();
+            expireTimeouts(wheel.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    private void waitForNextTick() {
+        long deadline = startTime + (tick + 1) * tickNanos;
+        long sleepNanos;
+        while ((sleepNanos = deadline - System.nanoTime()) > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                logger.debug("timer interrupted");
+            }
+        }
+    }
+
+    /**
+     * 새로 등록된 타임아웃을 만료 시각에 해당하는 칸에 넣습니다. 이미 지난 만료 시각은 현재 칸에 넣습니다.
+     * */
+    private void transferPendingTimeouts() {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.cancelled) continue;
+            long expireTick = Math.max((timeout.deadline - startTime + tickNanos - 1) / tickNanos - 1, tick);
+            timeout.remainingRounds = (expireTick - tick) / wheel.size();
+            wheel.get((int) (expireTick & mask)).add(timeout);
+        }
+    }
+
+    /**
+     * 칸에 있는 타임아웃 중 이번 바퀴에 만료되는 작업을 실행하고, 취소된 타임아웃은 제거합니다.
+     * */
+    private void expireTimeouts(Queue<Timeout> bucket) {
+        int size = bucket.size();
+        for (int i = 0; i < size; i++) {
+            Timeout timeout = bucket.poll();
+            if (timeout.cancelled) continue;
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                bucket.add(timeout);
+                continue;
+            }
+            try {
+                timeout.task.run();
+            } catch (RuntimeException e) {
+                logger.error("timer task error", e);
+            }
+        }
+    }
+
+    private static class SharedTimerHolder {
+
+        private static final HashedWheelTimer TIMER = new HashedWheelTimer(
+                "server-timer",
+                ServerProperties.getInt("server.timeout.tick-millis", 100),
+                ServerProperties.getInt("server.timeout.wheel-size", 512));
+    }
+
+    /**
+     * 등록된 타임아웃입니다. 취소된 타임아웃은 타이머 쓰레드가 해당 칸을 지날 때 제거됩니다.
+     * */
+    static class Timeout {
+
+        private final Runnable task;
+
+        private final long deadline;
+
+        private long remainingRounds;
+
+        private volatile boolean cancelled;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            this.cancelled = true;
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+package org.sam.server.http.context;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * HPACK으로 압축된 헤더 블록을 디코딩합니다. 연결마다 하나씩 생성하며 동적 테이블 상태를 유지합니다. (RFC 7541)
+ * 헤더 이름과 값은 바이트를 그대로 보존하도록 ISO-8859-1 문자열로 반환합니다.
+ *
+ * @author hypernova1
+ * @see Http2Connection
+ */
+class HpackDecoder {
+
+    private final HpackHeaderTable headerTable;
+
+    private final int maxTableSize;
+
+    private final int maxHeaderListSize;
+
+    HpackDecoder(int maxTableSize, int maxHeaderListSize) {
+        this.headerTable = new HpackHeaderTable(maxTableSize);
+        this.maxTableSize = maxTableSize;
+        this.maxHeaderListSize = maxHeaderListSize;
+    }
+
+    /**
+     * 헤더 블록을 디코딩하여 헤더 목록을 반환합니다.
+     *
+     * @param block 헤더 블록
+     * @return 헤더 이름과 값의 목록
+     * @throws Http2Exception 헤더 블록이 올바르지 않으면
+     * */
+    List<String[]> decode(byte[] block) throws Http2Exception {
+        List<String[]> headers = new ArrayList<>();
+        int headerListSize = 0;
+        int[] position = { 0 };
+        while (position[0] < block.length) {
+            int b = block[position[0]] & 0xFF;
+            String[] header;
+            if ((b & 0x80) != 0) {
+                header = headerTable.get(decodeInteger(block, position, 7));
+            } else if ((b & 0x40) != 0) {
+                header = decodeLiteral(block, position, 6);
+                headerTable.add(header[0], header[1]);
+            } else if ((b & 0x20) != 0) {
+                int tableSize = decodeInteger(block, position, 5);
+                if (tableSize > maxTableSize) {
+                    throw Http2Exception.connectionError(Http2Frame.COMPRESSION_ERROR, "header table size too large: " + tableSize);
+                }
+                headerTable.setMaxSize(tableSize);
+                continue;
+            } else {
+                header = decodeLiteral(block, position, 4);
+            }
+            headerListSize += header[0].length() + header[1].length() + 32;
+            if (headerListSize > maxHeaderListSize) {
+                throw Http2Exception.connectionError(Http2Frame.ENHANCE_YOUR_CALM, "header list too large");
+            }
+            headers.add(header);
+        }
+        return headers;
+    }
+
+    private String[] decodeLiteral(byte[] block, int[] position, int prefixBits) throws Http2Exception {
+        int nameIndex = decodeInteger(block, position, prefixBits);
+        String name = nameIndex == 0 ? decodeString(block, position) : headerTable.get(nameIndex)[0];
+        String value = decodeString(block, position);
+        return new String[]{ name, value };
+    }
+
+    private static String decodeString(byte[] block, int[] position) throws Http2Exception {
+        if (position[0] >= block.length) {
+            throw Http2Exception.connectionError(Http2Frame.COMPRESSION_ERROR, "truncated string literal");
+        }
+        boolean huffman = (block[position[0]] & 0x80) != 0;
+        int length = decodeInteger(block, position, 7);
+        if (length > block.length - position[0]) {
+            throw Http2Exception.connectionError(Http2Frame.COMPRESSION_ERROR, "truncated string literal");
+        }
+        int offset = position[0];
+        position[0] += length;
+        if (huffman) {
+            return new String(HpackHuffman.decode(block, offset, length), StandardCharsets.ISO_8859_1);
+        }
+        return new String(block, offset, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 접두 비트 수에 맞춰 정수를 디코딩합니다. (RFC 7541 Section 5.1)
+     * */
+    private static int decodeInteger(byte[] block, int[] position, int prefixBits) throws Http2Exception {
+        int maxPrefix = (1 << prefixBits) - 1;
+        int value = block[position[0]++] & maxPrefix;
+        if (value < maxPrefix) return value;
+        int shift = 0;
+        while (true) {
+            if (position[0] >= block.length || shift > 21) {
+                throw Http2Exception.connectionError(Http2Frame.COMPRESSION_ERROR, "invalid integer");
+            }
+            int b = block[position[0]++] & 0xFF;
+            value += (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+            shift += 7;
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.sam.server.http.context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * 응답 헤더를 HPACK으로 인코딩합니다.
+ * 동적 테이블을 사용하지 않아 상태가 없으므로 여러 스트림의 헤더를 인코딩 순서와 관계 없이 쓸 수 있습니다.
+ * 정적 테이블에 있는 헤더는 인덱스로, 나머지는 더 짧은 경우 허프만 인코딩한 리터럴로 씁니다.
+ *
+ * @author hypernova1
+ * @see Http2Connection
+ */
+class HpackEncoder {
+
+    private HpackEncoder() {}
+
+    /**
+     * 헤더 목록을 인코딩합니다.
+     *
+     * @param headers 소문자 이름과 값의 목록
+     * @return 헤더 블록
+     * */
+    static byte[] encode(List<String[]> headers) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256);
+        for (String[] header : headers) {
+            Integer fieldIndex = HpackHeaderTable.STATIC_FIELD_INDEX.get(header[0] + '\0' + header[1]);
+            if (fieldIndex != null) {
+                encodeInteger(out, 0x80, 7, fieldIndex);
+                continue;
+            }
+            Integer nameIndex = HpackHeaderTable.STATIC_NAME_INDEX.get(header[0]);
+            if (nameIndex != null) {
+                encodeInteger(out, 0x00, 4, nameIndex);
+            } else {
+                out.write(0x00);
+                encodeString(out, header[0]);
+            }
+            encodeString(out, header[1]);
+        }
+        return out.toByteArray();
+    }
+
+    private static void encodeString(ByteArrayOutputStream out, String value) {
+        byte[] data = value.getBytes(StandardCharsets.ISO_8859_1);
+        int huffmanLength = HpackHuffman.encodedLength(data);
+        if (huffmanLength < data.length) {
+            encodeInteger(out, 0x80, 7, huffmanLength);
+            HpackHuffman.encode(data, out);
+            return;
+        }
+        encodeInteger(out, 0x00, 7, data.length);
+        out.write(data, 0, data.length);
+    }
+
+    /**
+     * 접두 비트 수에 맞춰 정수를 인코딩합니다. (RFC 7541 Section 5.1)
+     * */
+    private static void encodeInteger(ByteArrayOutputStream out, int mask, int prefixBits, int value) {
+        int maxPrefix = (1 << prefixBits) - 1;
+        if (value < maxPrefix) {
+            out.write(mask | value);
+            return;
+        }
+        out.write(mask | maxPrefix);
+        value -= maxPrefix;
+        while (value >= 0x80) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+}
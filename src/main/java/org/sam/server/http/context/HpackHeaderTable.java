@@ -0,0 +1,117 @@
+package org.sam.server.http.context;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * HPACK의 정적 테이블과 동적 테이블을 관리합니다. 인덱스 1 ~ 61은 정적 테이블, 그 이후는 최근에 추가된 순서의 동적 테이블입니다.
+ *
+ * @author hypernova1
+ * @see HpackDecoder
+ * @see HpackEncoder
+ */
+class HpackHeaderTable {
+
+    private static final int ENTRY_OVERHEAD = 32;
+
+    static final String[][] STATIC_TABLE = {
+            {":authority", ""}, {":method", "GET"}, {":method", "POST"}, {":path", "/"},
+            {":path", "/index.html"}, {":scheme", "http"}, {":scheme", "https"}, {":status", "200"},
+            {":status", "204"}, {":status", "206"}, {":status", "304"}, {":status", "400"},
+            {":status", "404"}, {":status", "500"}, {"accept-charset", ""}, {"accept-encoding", "gzip, deflate"},
+            {"accept-language", ""}, {"accept-ranges", ""}, {"accept", ""}, {"access-control-allow-origin", ""},
+            {"age", ""}, {"allow", ""}, {"authorization", ""}, {"cache-control", ""},
+            {"content-disposition", ""}, {"content-encoding", ""}, {"content-language", ""}, {"content-length", ""},
+            {"content-location", ""}, {"content-range", ""}, {"content-type", ""}, {"cookie", ""},
+            {"date", ""}, {"etag", ""}, {"expect", ""}, {"expires", ""},
+            {"from", ""}, {"host", ""}, {"if-match", ""}, {"if-modified-since", ""},
+            {"if-none-match", ""}, {"if-range", ""}, {"if-unmodified-since", ""}, {"last-modified", ""},
+            {"link", ""}, {"location", ""}, {"max-forwards", ""}, {"proxy-authenticate", ""},
+            {"proxy-authorization", ""}, {"range", ""}, {"referer", ""}, {"refresh", ""},
+            {"retry-after", ""}, {"server", ""}, {"set-cookie", ""}, {"strict-transport-security", ""},
+            {"transfer-encoding", ""}, {"user-agent", ""}, {"vary", ""}, {"via", ""},
+            {"www-authenticate", ""}
+    };
+
+    static final Map<String, Integer> STATIC_NAME_INDEX = new HashMap<>();
+
+    static final Map<String, Integer> STATIC_FIELD_INDEX = new HashMap<>();
+
+    static {
+        for (int i = STATIC_TABLE.length - 1; i >= 0; i--) {
+            STATIC_NAME_INDEX.put(STATIC_TABLE[i][0], i + 1);
+            STATIC_FIELD_INDEX.put(STATIC_TABLE[i][0] + '\0' + STATIC_TABLE[i][1], i + 1);
+        }
+    }
+
+    private final Deque<String[]> dynamicTable = new ArrayDeque<>();
+
+    private int size;
+
+    private int maxSize;
+
+    HpackHeaderTable(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 인덱스에 해당하는 헤더를 반환합니다.
+     *
+     * @param index 1부터 시작하는 인덱스
+     * @return 헤더 이름과 값
+     * @throws Http2Exception 인덱스가 테이블 범위를 벗어나면
+     * */
+    String[] get(int index) throws Http2Exception {
+        if (index >= 1 && index <= STATIC_TABLE.length) {
+            return STATIC_TABLE[index - 1];
+        }
+        int dynamicIndex = index - STATIC_TABLE.length - 1;
+        if (index < 1 || dynamicIndex >= dynamicTable.size()) {
+            throw Http2Exception.connectionError(Http2Frame.COMPRESSION_ERROR, "invalid header index: " + index);
+        }
+        Iterator<String[]> iterator = dynamicTable.iterator();
+        for (int i = 0; i < dynamicIndex; i++) {
+            iterator.next();
+        }
+        return iterator.next();
+    }
+
+    /**
+     * 동적 테이블에 헤더를 추가합니다. 크기를 넘으면 오래된 항목부터 제거합니다.
+     *
+     * @param name 헤더 이름
+     * @param value 헤더 값
+     * */
+    void add(String name, String value) {
+        int entrySize = entrySize(name, value);
+        evict(maxSize - entrySize);
+        if (entrySize > maxSize) return;
+        dynamicTable.addFirst(new String[]{ name, value });
+        size += entrySize;
+    }
+
+    /**
+     * 동적 테이블의 최대 크기를 변경합니다.
+     *
+     * @param maxSize 최대 크기
+     * */
+    void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+        evict(maxSize);
+    }
+
+    private void evict(int targetSize) {
+        while (size > Math.max(targetSize, 0) && !dynamicTable.isEmpty()) {
+            String[] entry = dynamicTable.removeLast();
+            size -= entrySize(entry[0], entry[1]);
+        }
+    }
+
+    private static int entrySize(String name, String value) {
+        return name.length() + value.length() + ENTRY_OVERHEAD;
+    }
+
+}
@@ -0,0 +1,1253 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerMetrics;
+import org.sam.server.common.ServerProperties;
+import org.sam.server.common.ServerStatus;
+import org.sam.server.constant.HttpHeader;
+import org.sam.server.constant.HttpStatus;
+import org.sam.server.http.web.HttpRequest;
+import org.sam.server.http.web.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * HTTP/2 연결 하나를 처리합니다. (RFC 7540)
+ * 연결마다 전용 쓰레드가 프레임을 읽고, 요청이 완성된 스트림은 워커 쓰레드에서 HTTP/1.1 요청으로 변환되어
+ * 기존의 HandlerFinder, HandlerExecutor 경로로 실행됩니다. 응답은 HEADERS, DATA 프레임으로 변환하여 흐름 제어에 맞춰 씁니다.
+ *
+ * @author hypernova1
+ * @see HttpLauncher
+ * @see HpackDecoder
+ * @see HpackEncoder
+ */
+class Http2Connection {
+
+    private static final Logger logger = LoggerFactory.getLogger(Http2Connection.class);
+
+    static final boolean ENABLED = ServerProperties.getBoolean("server.http2.enabled", false);
+
+    static final byte[] PREFACE = "PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int MAX_CONCURRENT_STREAMS = ServerProperties.getInt("server.http2.max-concurrent-streams", 100);
+
+    /**
+     * 스트림 하나가 받을 수 있는 요청 바디의 최대 크기입니다. 넘으면 413 응답을 보내고 스트림을 닫습니다.
+     * */
+    private static final int MAX_REQUEST_BODY_SIZE = ServerProperties.getInt("server.http2.max-request-body-size", 8 * 1024 * 1024);
+
+    /**
+     * 연결 하나에서 아직 처리가 끝나지 않은 스트림들이 보관하는 요청 바디 크기의 합의 최대값입니다. 넘게 하는 스트림은 REFUSED_STREAM으로 거절합니다.
+     * */
+    private static final int MAX_BUFFERED_BODY_SIZE = ServerProperties.getInt("server.http2.max-buffered-body-size", 16 * 1024 * 1024);
+
+    private static final byte[] SWITCHING_PROTOCOLS_RESPONSE =
+            "HTTP/1.1 101 Switching Protocols\r\nConnection: Upgrade\r\nUpgrade: h2c\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int DEFAULT_WINDOW_SIZE = 65535;
+
+    private static final int MAX_FRAME_SIZE = 16384;
+
+    private static final int HEADER_TABLE_SIZE = 4096;
+
+    private static final int MAX_HEADER_LIST_SIZE = 64 * 1024;
+
+    private static final Set<String> CONNECTION_HEADERS = new HashSet<>(Arrays.asList(
+            "connection", "keep-alive", "proxy-connection", "transfer-encoding", "upgrade"));
+
+    private static final Set<Http2Connection> connections = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicInteger readerCount = new AtomicInteger();
+
+    private final InputStream in;
+
+    private final OutputStream out;
+
+    private final Closeable transport;
+
+    private final Executor executor;
+
+    /**
+     * 스트림 목록, 윈도우, 종료 여부를 보호하는 잠금입니다. 워커 쓰레드가 가상 쓰레드여도 캐리어 쓰레드를 붙잡지 않도록 모니터 대신 사용합니다.
+     * */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final Condition windowUpdated = lock.newCondition();
+
+    /**
+     * 프레임이 섞이지 않도록 소켓에 쓰는 동안 잡는 잠금입니다.
+     * */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final ConnectionDeadline deadline = new ConnectionDeadline(phase -> closeTransport());
+
+    private final HpackDecoder hpackDecoder = new HpackDecoder(HEADER_TABLE_SIZE, MAX_HEADER_LIST_SIZE);
+
+    private final Map<Integer, Http2Stream> streams = new HashMap<>();
+
+    private Http2Stream continuationStream;
+
+    private int lastStreamId;
+
+    private int lastAcceptedStreamId;
+
+    private int receiveWindow = DEFAULT_WINDOW_SIZE;
+
+    private long bufferedBodySize;
+
+    private int sendWindow = DEFAULT_WINDOW_SIZE;
+
+    private int initialStreamWindow = DEFAULT_WINDOW_SIZE;
+
+    private volatile int peerMaxFrameSize = MAX_FRAME_SIZE;
+
+    private boolean goAwaySent;
+
+    private boolean closed;
+
+    Http2Connection(InputStream in, OutputStream out, Closeable transport, Executor executor) {
+        this.in = in;
+        this.out = new BufferedOutputStream(out, MAX_FRAME_SIZE + Http2Frame.HEADER_LENGTH);
+        this.transport = transport;
+        this.executor = executor;
+    }
+
+    /**
+     * 스트림이 HTTP/2 연결 서문으로 시작하는지 확인합니다. 확인한 바이트는 다시 읽을 수 있도록 되돌립니다.
+     *
+     * @param in mark를 지원하는 입력 스트림
+     * @return 연결 서문 여부
+     * @throws IOException 읽기에 실패하면
+     * */
+    static boolean startsWithPreface(InputStream in) throws IOException {
+        in.mark(PREFACE.length);
+        try {
+            for (byte b : PREFACE) {
+                if (in.read() != (b & 0xFF)) return false;
+            }
+            return true;
+        } finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * 버퍼의 데이터가 HTTP/2 연결 서문과 일치하는지 확인합니다.
+     *
+     * @param data 읽은 데이터
+     * @param length 읽은 데이터의 길이
+     * @return 일치하면 1, 아직 판단할 수 없으면 0, 일치하지 않으면 -1
+     * */
+    static int matchPreface(byte[] data, int length) {
+        int compareLength = Math.min(length, PREFACE.length);
+        for (int i = 0; i < compareLength; i++) {
+            if (data[i] != PREFACE[i]) return -1;
+        }
+        return length >= PREFACE.length ? 1 : 0;
+    }
+
+    /**
+     * h2c 업그레이드 요청인지 확인합니다.
+     *
+     * @param request 요청 정보
+     * @return 업그레이드 요청 여부
+     * */
+    static boolean isUpgradeRequest(Request request) {
+        return ENABLED
+                && HttpLauncher.containsToken(request.getHeader(HttpHeader.UPGRADE), "h2c")
+                && HttpLauncher.containsToken(request.getHeader(HttpHeader.CONNECTION), "upgrade")
+                && request.getHeader(HttpHeader.HTTP2_SETTINGS) != null;
+    }
+
+    /**
+     * 열려 있는 모든 HTTP/2 연결에 GOAWAY를 보냅니다. 처리 중인 스트림이 끝나면 연결이 닫힙니다.
+     * */
+    static void goAwayAll() {
+        for (Http2Connection connection : connections) {
+            connection.goAway(Http2Frame.NO_ERROR);
+        }
+    }
+
+    /**
+     * h2c 업그레이드 요청을 HTTP/1.1 요청으로 실행합니다. 실행 결과는 업그레이드 후 1번 스트림의 응답으로 보냅니다.
+     *
+     * @param request 업그레이드 요청
+     * @return HTTP/1.1 응답 메시지
+     * */
+    static byte[] executeUpgradeRequest(Request request) {
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        HttpLauncher.execute(request, response, 1);
+        return response.toByteArray();
+    }
+
+    /**
+     * 연결 서문으로 시작하는 연결(prior knowledge, ALPN)을 전용 쓰레드에서 처리하기 시작합니다.
+     * 프레임을 읽는 쓰레드가 워커 쓰레드를 차지하면 스트림을 처리할 워커 쓰레드가 부족해질 수 있으므로 워커 쓰레드 풀을 사용하지 않습니다.
+     * */
+    void start() {
+        startReader(null, null);
+    }
+
+    /**
+     * h2c 업그레이드 요청으로 시작한 연결을 전용 쓰레드에서 처리하기 시작합니다.
+     * 101 응답을 보낸 후 HTTP2-Settings 헤더의 설정을 적용하고, 업그레이드 요청의 응답은 1번 스트림으로 보냅니다.
+     *
+     * @param request 업그레이드 요청
+     * @param response 업그레이드 요청의 HTTP/1.1 응답 메시지
+     * @return HTTP2-Settings 헤더가 올바르지 않아 시작하지 못했다면 false
+     * @see #executeUpgradeRequest(Request)
+     * */
+    boolean startUpgrade(Request request, byte[] response) {
+        byte[] settings;
+        try {
+            settings = Base64.getUrlDecoder().decode(request.getHeader(HttpHeader.HTTP2_SETTINGS).trim());
+        } catch (IllegalArgumentException e) {
+            logger.debug("invalid HTTP2-Settings header");
+            return false;
+        }
+        startReader(settings, response);
+        return true;
+    }
+
+    private void startReader(byte[] upgradeSettings, byte[] upgradeResponse) {
+        Thread reader = new Thread(() -> serve(upgradeSettings, upgradeResponse), "http2-connection-" + readerCount.incrementAndGet());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    private void serve(byte[] upgradeSettings, byte[] upgradeResponse) {
+        connections.add(this);
+        deadline.start(ConnectionDeadline.Phase.IDLE);
+        try {
+            if (upgradeResponse != null) {
+                out.write(SWITCHING_PROTOCOLS_RESPONSE);
+            }
+            if (upgradeSettings != null) {
+                applySettings(upgradeSettings);
+            }
+            writeSettings();
+            if (upgradeResponse != null) {
+                respondToUpgrade(upgradeResponse);
+            }
+            if (ServerStatus.isShuttingDown()) {
+                goAway(Http2Frame.NO_ERROR);
+            }
+            readPreface();
+            readFrames();
+        } catch (Http2Exception e) {
+            logger.debug("http2 connection error: " + e.getMessage());
+            goAway(e.getErrorCode());
+        } catch (IOException e) {
+            logger.debug("http2 connection closed: " + e.getMessage());
+        } finally {
+            connections.remove(this);
+            deadline.cancel();
+            close();
+        }
+    }
+
+    private void readPreface() throws IOException, Http2Exception {
+        for (byte b : PREFACE) {
+            if (in.read() != (b & 0xFF)) {
+                throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid connection preface");
+            }
+        }
+    }
+
+    /**
+     * 연결이 끝날 때 까지 프레임을 읽어 처리합니다. 처리 중인 스트림 없이 유휴 시간이 지나면 타이머가 연결을 닫습니다.
+     * */
+    private void readFrames() throws IOException, Http2Exception {
+        boolean first = true;
+        while (true) {
+            Http2Frame frame = Http2Frame.read(in, MAX_FRAME_SIZE);
+            if (frame == null) return;
+            if (first && frame.getType() != Http2Frame.SETTINGS) {
+                throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "first frame must be SETTINGS");
+            }
+            first = false;
+            try {
+                handleFrame(frame);
+            } catch (Http2Exception e) {
+                if (e.isConnectionError()) throw e;
+                resetStream(e.getStreamId(), e.getErrorCode());
+            }
+        }
+    }
+
+    private void handleFrame(Http2Frame frame) throws IOException, Http2Exception {
+        if (continuationStream != null && frame.getType() != Http2Frame.CONTINUATION) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "expected CONTINUATION frame");
+        }
+        switch (frame.getType()) {
+            case Http2Frame.DATA:
+                onData(frame);
+                break;
+            case Http2Frame.HEADERS:
+                onHeaders(frame);
+                break;
+            case Http2Frame.PRIORITY:
+                if (frame.getPayload().length != 5) {
+                    throw Http2Exception.streamError(frame.getStreamId(), Http2Frame.FRAME_SIZE_ERROR, "invalid PRIORITY frame");
+                }
+                break;
+            case Http2Frame.RST_STREAM:
+                onRstStream(frame);
+                break;
+            case Http2Frame.SETTINGS:
+                onSettings(frame);
+                break;
+            case Http2Frame.PUSH_PROMISE:
+                throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "client must not send PUSH_PROMISE");
+            case Http2Frame.PING:
+                onPing(frame);
+                break;
+            case Http2Frame.GOAWAY:
+                logger.debug("http2 GOAWAY received");
+                break;
+            case Http2Frame.WINDOW_UPDATE:
+                onWindowUpdate(frame);
+                break;
+            case Http2Frame.CONTINUATION:
+                onContinuation(frame);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void onHeaders(Http2Frame frame) throws IOException, Http2Exception {
+        int streamId = frame.getStreamId();
+        if (streamId == 0) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "HEADERS on stream 0");
+        }
+        byte[] payload = frame.getPayload();
+        int offset = 0;
+        int length = payload.length;
+        if (frame.hasFlag(Http2Frame.FLAG_PADDED)) {
+            if (length < 1) throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid padding");
+            int padLength = payload[0] & 0xFF;
+            offset = 1;
+            length -= 1 + padLength;
+        }
+        if (frame.hasFlag(Http2Frame.FLAG_PRIORITY)) {
+            offset += 5;
+            length -= 5;
+        }
+        if (length < 0) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid HEADERS frame");
+        }
+
+        Http2Stream stream = getStream(streamId);
+        if (stream == null) {
+            stream = openStream(streamId);
+        } else if (stream.isEndStream()) {
+            throw Http2Exception.streamError(streamId, Http2Frame.STREAM_CLOSED, "HEADERS on half-closed stream");
+        } else if (!frame.hasFlag(Http2Frame.FLAG_END_STREAM)) {
+            throw Http2Exception.streamError(streamId, Http2Frame.PROTOCOL_ERROR, "trailers without END_STREAM");
+        }
+        stream.appendHeaderBlock(payload, offset, length);
+        if (frame.hasFlag(Http2Frame.FLAG_END_STREAM)) {
+            stream.setEndStream();
+        }
+        if (frame.hasFlag(Http2Frame.FLAG_END_HEADERS)) {
+            onHeaderBlockComplete(stream);
+        } else {
+            continuationStream = stream;
+        }
+    }
+
+    private void onContinuation(Http2Frame frame) throws IOException, Http2Exception {
+        Http2Stream stream = continuationStream;
+        if (stream == null || stream.getId() != frame.getStreamId()) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "unexpected CONTINUATION frame");
+        }
+        if (stream.getHeaderBlockSize() + frame.getPayload().length > MAX_HEADER_LIST_SIZE) {
+            throw Http2Exception.connectionError(Http2Frame.ENHANCE_YOUR_CALM, "header block too large");
+        }
+        stream.appendHeaderBlock(frame.getPayload(), 0, frame.getPayload().length);
+        if (frame.hasFlag(Http2Frame.FLAG_END_HEADERS)) {
+            continuationStream = null;
+            onHeaderBlockComplete(stream);
+        }
+    }
+
+    /**
+     * 헤더 블록이 완성되면 디코딩합니다. 동적 테이블 상태를 맞추기 위해 거절한 스트림의 헤더도 디코딩합니다.
+     * */
+    private void onHeaderBlockComplete(Http2Stream stream) throws IOException, Http2Exception {
+        List<String[]> headers = hpackDecoder.decode(stream.takeHeaderBlock());
+        if (stream.isRefused()) {
+            writeRstStream(stream.getId(), Http2Frame.REFUSED_STREAM);
+            return;
+        }
+        if (stream.getHeaders() == null) {
+            stream.setHeaders(headers);
+        }
+        if (stream.isEndStream()) {
+            dispatch(stream);
+        }
+    }
+
+    private void onData(Http2Frame frame) throws IOException, Http2Exception {
+        int streamId = frame.getStreamId();
+        if (streamId == 0) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "DATA on stream 0");
+        }
+        byte[] payload = frame.getPayload();
+        int offset = 0;
+        int length = payload.length;
+        if (frame.hasFlag(Http2Frame.FLAG_PADDED)) {
+            if (length < 1) throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid padding");
+            int padLength = payload[0] & 0xFF;
+            offset = 1;
+            length -= 1 + padLength;
+            if (length < 0) throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid padding");
+        }
+        consumeReceiveWindow(payload.length);
+
+        Http2Stream stream = getStream(streamId);
+        if (stream == null || stream.getHeaders() == null) {
+            lock.lock();
+            try {
+                if (streamId > lastStreamId) {
+                    throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "DATA on idle stream");
+                }
+            } finally {
+                lock.unlock();
+            }
+            throw Http2Exception.streamError(streamId, Http2Frame.STREAM_CLOSED, "DATA on closed stream");
+        }
+        if (stream.isEndStream()) {
+            throw Http2Exception.streamError(streamId, Http2Frame.STREAM_CLOSED, "DATA on half-closed stream");
+        }
+        if (!stream.consumeReceiveWindow(payload.length)) {
+            throw Http2Exception.streamError(streamId, Http2Frame.FLOW_CONTROL_ERROR, "stream receive window exceeded");
+        }
+        if ((long) stream.getBodySize() + length > MAX_REQUEST_BODY_SIZE) {
+            rejectLargeBody(stream);
+            return;
+        }
+        if (!reserveBufferedBody(length)) {
+            throw Http2Exception.streamError(streamId, Http2Frame.REFUSED_STREAM, "too many buffered request bodies");
+        }
+        stream.appendBody(payload, offset, length);
+        if (frame.hasFlag(Http2Frame.FLAG_END_STREAM)) {
+            stream.setEndStream();
+            dispatch(stream);
+        } else if (payload.length > 0) {
+            stream.addReceiveWindow(payload.length);
+            writeWindowUpdate(streamId, payload.length);
+        }
+    }
+
+    /**
+     * 연결의 수신 윈도우를 줄이고 바로 돌려줍니다. 연결의 윈도우는 돌려주어도, 스트림의 윈도우는 바디를 보관할 수 있을 때만 돌려주고
+     * 보관 중인 바디의 크기는 스트림마다, 연결마다 제한하므로 메모리에 쌓이는 양은 제한됩니다.
+     *
+     * @param length DATA 프레임의 크기
+     * @throws Http2Exception 상대방이 윈도우를 넘게 보냈다면
+     * */
+    private void consumeReceiveWindow(int length) throws IOException, Http2Exception {
+        if (length == 0) return;
+        receiveWindow -= length;
+        if (receiveWindow < 0) {
+            throw Http2Exception.connectionError(Http2Frame.FLOW_CONTROL_ERROR, "connection receive window exceeded");
+        }
+        receiveWindow += length;
+        writeWindowUpdate(0, length);
+    }
+
+    /**
+     * 연결에서 보관 중인 요청 바디의 크기에 더합니다. 스트림이 닫힐 때 스트림의 바디 크기만큼 다시 뺍니다.
+     *
+     * @param length 추가할 바디의 크기
+     * @return 연결의 제한을 넘지 않아 보관할 수 있는지 여부
+     * */
+    private boolean reserveBufferedBody(int length) {
+        lock.lock();
+        try {
+            if (bufferedBodySize + length > MAX_BUFFERED_BODY_SIZE) return false;
+            bufferedBodySize += length;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 요청 바디가 너무 큰 스트림에 413 응답을 보낸 후 스트림을 닫습니다. (RFC 7540 8.1)
+     * */
+    private void rejectLargeBody(Http2Stream stream) throws IOException {
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{ ":status", HttpStatus.PAYLOAD_TOO_LARGE.getCode() });
+        headers.add(new String[]{ "content-length", "0" });
+        writeHeaders(stream.getId(), HpackEncoder.encode(headers), true);
+        resetStream(stream.getId(), Http2Frame.NO_ERROR);
+    }
+
+    private void onRstStream(Http2Frame frame) throws Http2Exception {
+        if (frame.getStreamId() == 0) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "RST_STREAM on stream 0");
+        }
+        if (frame.getPayload().length != 4) {
+            throw Http2Exception.connectionError(Http2Frame.FRAME_SIZE_ERROR, "invalid RST_STREAM frame");
+        }
+        closeStream(frame.getStreamId());
+    }
+
+    private void onSettings(Http2Frame frame) throws IOException, Http2Exception {
+        if (frame.getStreamId() != 0) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "SETTINGS on stream " + frame.getStreamId());
+        }
+        if (frame.hasFlag(Http2Frame.FLAG_ACK)) {
+            if (frame.getPayload().length != 0) {
+                throw Http2Exception.connectionError(Http2Frame.FRAME_SIZE_ERROR, "SETTINGS ACK with payload");
+            }
+            return;
+        }
+        applySettings(frame.getPayload());
+        writeFrame(Http2Frame.SETTINGS, Http2Frame.FLAG_ACK, 0, new byte[0]);
+    }
+
+    /**
+     * 상대방의 설정을 적용합니다. 인코더는 동적 테이블을 사용하지 않으므로 헤더 테이블 크기 설정은 무시합니다.
+     * */
+    private void applySettings(byte[] payload) throws Http2Exception {
+        if (payload.length % 6 != 0) {
+            throw Http2Exception.connectionError(Http2Frame.FRAME_SIZE_ERROR, "invalid SETTINGS frame");
+        }
+        for (int i = 0; i < payload.length; i += 6) {
+            int id = ((payload[i] & 0xFF) << 8) | (payload[i + 1] & 0xFF);
+            int value = Http2Frame.readInt(payload, i + 2);
+            switch (id) {
+                case Http2Frame.SETTINGS_ENABLE_PUSH:
+                    if (value != 0 && value != 1) {
+                        throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid SETTINGS_ENABLE_PUSH");
+                    }
+                    break;
+                case Http2Frame.SETTINGS_INITIAL_WINDOW_SIZE:
+                    if (value < 0) {
+                        throw Http2Exception.connectionError(Http2Frame.FLOW_CONTROL_ERROR, "invalid SETTINGS_INITIAL_WINDOW_SIZE");
+                    }
+                    updateInitialWindowSize(value);
+                    break;
+                case Http2Frame.SETTINGS_MAX_FRAME_SIZE:
+                    if (value < MAX_FRAME_SIZE || value > 0xFFFFFF) {
+                        throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid SETTINGS_MAX_FRAME_SIZE");
+                    }
+                    peerMaxFrameSize = value;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private void updateInitialWindowSize(int value) {
+        lock.lock();
+        try {
+            int delta = value - initialStreamWindow;
+            initialStreamWindow = value;
+            for (Http2Stream stream : streams.values()) {
+                stream.addSendWindow(delta);
+            }
+            windowUpdated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void onPing(Http2Frame frame) throws IOException, Http2Exception {
+        if (frame.getStreamId() != 0) {
+            throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "PING on stream " + frame.getStreamId());
+        }
+        if (frame.getPayload().length != 8) {
+            throw Http2Exception.connectionError(Http2Frame.FRAME_SIZE_ERROR, "invalid PING frame");
+        }
+        if (!frame.hasFlag(Http2Frame.FLAG_ACK)) {
+            writeFrame(Http2Frame.PING, Http2Frame.FLAG_ACK, 0, frame.getPayload());
+        }
+    }
+
+    private void onWindowUpdate(Http2Frame frame) throws Http2Exception {
+        if (frame.getPayload().length != 4) {
+            throw Http2Exception.connectionError(Http2Frame.FRAME_SIZE_ERROR, "invalid WINDOW_UPDATE frame");
+        }
+        int streamId = frame.getStreamId();
+        int increment = Http2Frame.readInt(frame.getPayload(), 0) & 0x7FFFFFFF;
+        if (increment == 0) {
+            if (streamId == 0) throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "zero window increment");
+            throw Http2Exception.streamError(streamId, Http2Frame.PROTOCOL_ERROR, "zero window increment");
+        }
+        lock.lock();
+        try {
+            if (streamId == 0) {
+                if ((long) sendWindow + increment > Integer.MAX_VALUE) {
+                    throw Http2Exception.connectionError(Http2Frame.FLOW_CONTROL_ERROR, "connection window overflow");
+                }
+                sendWindow += increment;
+            } else {
+                Http2Stream stream = streams.get(streamId);
+                if (stream == null) return;
+                if ((long) stream.getSendWindow() + increment > Integer.MAX_VALUE) {
+                    throw Http2Exception.streamError(streamId, Http2Frame.FLOW_CONTROL_ERROR, "stream window overflow");
+                }
+                stream.addSendWindow(increment);
+            }
+            windowUpdated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Http2Stream getStream(int streamId) {
+        lock.lock();
+        try {
+            return streams.get(streamId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 새 스트림을 엽니다. 종료 중이거나 동시 스트림 수를 넘으면 거절할 스트림으로 표시합니다.
+     * 거절한 스트림에 이미 보내진 DATA 프레임이 닫힌 스트림의 프레임으로 처리되도록 거절한 스트림의 번호도 기록합니다.
+     * */
+    private Http2Stream openStream(int streamId) throws Http2Exception {
+        lock.lock();
+        try {
+            if (streamId % 2 == 0) {
+                throw Http2Exception.connectionError(Http2Frame.PROTOCOL_ERROR, "invalid stream id: " + streamId);
+            }
+            if (streamId <= lastStreamId) {
+                throw Http2Exception.connectionError(Http2Frame.STREAM_CLOSED, "stream already closed: " + streamId);
+            }
+            Http2Stream stream = new Http2Stream(streamId, initialStreamWindow, DEFAULT_WINDOW_SIZE);
+            lastStreamId = streamId;
+            if (goAwaySent || streams.size() >= MAX_CONCURRENT_STREAMS) {
+                stream.setRefused();
+                return stream;
+            }
+            lastAcceptedStreamId = streamId;
+            streams.put(streamId, stream);
+            deadline.cancel();
+            return stream;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 업그레이드 요청에 대한 응답을 1번 스트림으로 보냅니다.
+     * 흐름 제어로 대기할 수 있으므로 프레임을 읽는 쓰레드가 아닌 워커 쓰레드에서 씁니다.
+     * */
+    private void respondToUpgrade(byte[] response) throws Http2Exception {
+        Http2Stream stream = openStream(1);
+        stream.setEndStream();
+        try {
+            executor.execute(() -> respond(stream, response));
+        } catch (RejectedExecutionException e) {
+            ServerMetrics.incrementRejectedConnections();
+            resetStream(stream.getId(), Http2Frame.REFUSED_STREAM);
+        }
+    }
+
+    /**
+     * 요청이 완성된 스트림을 워커 쓰레드에서 실행합니다. 워커 쓰레드 풀이 가득 찼다면 스트림을 거절합니다.
+     * */
+    private void dispatch(Http2Stream stream) {
+        try {
+            executor.execute(() -> handle(stream));
+        } catch (RejectedExecutionException e) {
+            ServerMetrics.incrementRejectedConnections();
+            resetStream(stream.getId(), Http2Frame.REFUSED_STREAM);
+        }
+    }
+
+    /**
+     * 스트림의 요청을 실행합니다. 비동기 핸들러라면 워커 쓰레드를 반환하고, 응답이 완료되면 워커 쓰레드에서 응답 프레임을 씁니다.
+     * 청크 단위로 스트리밍하는 응답은 완료를 기다리지 않고 flush 될 때 마다 DATA 프레임으로 보냅니다.
+     * */
+    private void handle(Http2Stream stream) {
+        ResponseStream responseBuffer = new ResponseStream(stream);
+        CompletableFuture<Boolean> result;
+        try {
+            Request request = HttpRequest.from(new ByteArrayInputStream(toHttp1Request(stream)));
+            if (request == null) {
+                throw Http2Exception.streamError(stream.getId(), Http2Frame.PROTOCOL_ERROR, "malformed request");
+            }
+            result = HttpLauncher.executeAsync(request, responseBuffer, 1);
+        } catch (Http2Exception e) {
+            resetStream(stream.getId(), e.getErrorCode());
+            return;
+        } catch (RuntimeException e) {
+            logger.error("http2 request handling error", e);
+            resetStream(stream.getId(), Http2Frame.INTERNAL_ERROR);
+            return;
+        }
+        if (result.isDone()) {
+            respond(stream, result, responseBuffer);
+            return;
+        }
+        result.whenComplete((keepAlive, e) -> {
+            try {
+                executor.execute(() -> respond(stream, result, responseBuffer));
+            } catch (RejectedExecutionException rejected) {
+                resetStream(stream.getId(), Http2Frame.REFUSED_STREAM);
+            }
+        });
+    }
+
+    private void respond(Http2Stream stream, CompletableFuture<Boolean> result, ResponseStream responseBuffer) {
+        if (result.isCompletedExceptionally()) {
+            resetStream(stream.getId(), Http2Frame.INTERNAL_ERROR);
+            return;
+        }
+        if (!responseBuffer.isStreaming()) {
+            respond(stream, responseBuffer.toByteArray());
+            return;
+        }
+        try {
+            responseBuffer.finish();
+        } catch (IOException e) {
+            logger.debug("http2 response write error: " + e);
+        } finally {
+            closeStream(stream.getId());
+        }
+    }
+
+    private void respond(Http2Stream stream, byte[] response) {
+        try {
+            writeResponse(stream, response);
+            closeStream(stream.getId());
+        } catch (Http2Exception e) {
+            resetStream(stream.getId(), e.getErrorCode());
+        } catch (IOException e) {
+            logger.debug("http2 response write error: " + e.getMessage());
+            closeStream(stream.getId());
+        }
+    }
+
+    /**
+     * 스트림의 헤더와 바디를 HTTP/1.1 요청 메시지로 변환합니다. 헤더 이름과 값의 바이트는 그대로 보존합니다.
+     * */
+    private static byte[] toHttp1Request(Http2Stream stream) throws Http2Exception {
+        String method = null;
+        String path = null;
+        String authority = null;
+        boolean hasHost = false;
+        boolean hasContentLength = false;
+        StringBuilder headerLines = new StringBuilder();
+        StringJoiner cookies = new StringJoiner("; ");
+        for (String[] header : stream.getHeaders()) {
+            String name = header[0];
+            String value = header[1];
+            if (name.startsWith(":")) {
+                if (":method".equals(name)) method = value;
+                else if (":path".equals(name)) path = value;
+                else if (":authority".equals(name)) authority = value;
+                else if (!":scheme".equals(name)) {
+                    throw Http2Exception.streamError(stream.getId(), Http2Frame.PROTOCOL_ERROR, "unknown pseudo header: " + name);
+                }
+                continue;
+            }
+            if (CONNECTION_HEADERS.contains(name) || !name.equals(name.toLowerCase())) {
+                throw Http2Exception.streamError(stream.getId(), Http2Frame.PROTOCOL_ERROR, "invalid header: " + name);
+            }
+            if ("cookie".equals(name)) {
+                cookies.add(value);
+                continue;
+            }
+            hasHost |= "host".equals(name);
+            hasContentLength |= "content-length".equals(name);
+            headerLines.append(name).append(": ").append(value).append("\r\n");
+        }
+        if (method == null || path == null) {
+            throw Http2Exception.streamError(stream.getId(), Http2Frame.PROTOCOL_ERROR, "missing :method or :path");
+        }
+        byte[] body = stream.getBody();
+        StringBuilder message = new StringBuilder();
+        message.append(method).append(' ').append(path).append(" HTTP/1.1\r\n");
+        if (!hasHost) {
+            message.append("host: ").append(authority != null ? authority : "").append("\r\n");
+        }
+        message.append(headerLines);
+        if (cookies.length() > 0) {
+            message.append("cookie: ").append(cookies).append("\r\n");
+        }
+        if (!hasContentLength && body.length > 0) {
+            message.append("content-length: ").append(body.length).append("\r\n");
+        }
+        message.append("\r\n");
+        byte[] head = message.toString().getBytes(StandardCharsets.ISO_8859_1);
+        byte[] request = Arrays.copyOf(head, head.length + body.length);
+        System.arraycopy(body, 0, request, head.length, body.length);
+        return request;
+    }
+
+    /**
+     * HTTP/1.1 응답 메시지를 HEADERS, DATA 프레임으로 변환하여 씁니다. 연결 관련 헤더는 제외합니다.
+     * */
+    private void writeResponse(Http2Stream stream, byte[] response) throws IOException, Http2Exception {
+        int headerEnd = indexOfHeaderEnd(response);
+        if (headerEnd == -1) {
+            throw Http2Exception.streamError(stream.getId(), Http2Frame.INTERNAL_ERROR, "invalid response");
+        }
+        String[] lines = new String(response, 0, headerEnd, StandardCharsets.ISO_8859_1).split("\r\n");
+        byte[] body = response;
+        int bodyOffset = headerEnd + 4;
+        if (isChunked(lines)) {
+            body = decodeChunked(response, bodyOffset);
+            bodyOffset = 0;
+        }
+        int bodyLength = body.length - bodyOffset;
+        writeHeaders(stream.getId(), HpackEncoder.encode(toHttp2Headers(lines)), bodyLength == 0);
+        if (bodyLength > 0) {
+            writeData(stream, body, bodyOffset, bodyLength, true);
+        }
+    }
+
+    /**
+     * HTTP/1.1 응답의 상태 줄과 헤더 줄을 HTTP/2 헤더 목록으로 변환합니다. 연결 관련 헤더는 제외합니다.
+     * */
+    private static List<String[]> toHttp2Headers(String[] lines) {
+        int statusStart = lines[0].indexOf(' ') + 1;
+        int statusEnd = lines[0].indexOf(' ', statusStart);
+        List<String[]> headers = new ArrayList<>();
+        headers.add(new String[]{ ":status", lines[0].substring(statusStart, statusEnd == -1 ? lines[0].length() : statusEnd) });
+        for (int i = 1; i < lines.length; i++) {
+            int index = lines[i].indexOf(':');
+            if (index <= 0) continue;
+            String name = lines[i].substring(0, index).trim().toLowerCase();
+            if (CONNECTION_HEADERS.contains(name)) continue;
+            headers.add(new String[]{ name, lines[i].substring(index + 1).trim() });
+        }
+        return headers;
+    }
+
+    private static boolean isChunked(String[] lines) {
+        for (int i = 1; i < lines.length; i++) {
+            int index = lines[i].indexOf(':');
+            if (index > 0 && "transfer-encoding".equalsIgnoreCase(lines[i].substring(0, index).trim())) {
+                return HttpLauncher.containsToken(lines[i].substring(index + 1), "chunked");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Transfer-Encoding: chunked 형식의 바디를 원래의 바디로 되돌립니다. HTTP/2는 DATA 프레임으로 바디를 나누므로 청크 형식을 사용하지 않습니다.
+     *
+     * @param data 응답 메시지
+     * @param offset 바디의 시작 위치
+     * @return 청크를 이어 붙인 바디
+     * */
+    static byte[] decodeChunked(byte[] data, int offset) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int position = offset;
+        while (position < data.length) {
+            int lineEnd = position;
+            while (lineEnd + 1 < data.length && !(data[lineEnd] == '\r' && data[lineEnd + 1] == '\n')) {
+                lineEnd++;
+            }
+            String sizeLine = new String(data, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int extension = sizeLine.indexOf(';');
+            int size;
+            try {
+                size = Integer.parseInt((extension == -1 ? sizeLine : sizeLine.substring(0, extension)).trim(), 16);
+            } catch (NumberFormatException e) {
+                break;
+            }
+            int chunkStart = lineEnd + 2;
+            if (size <= 0 || chunkStart + size > data.length) break;
+            body.write(data, chunkStart, size);
+            position = chunkStart + size + 2;
+        }
+        return body.toByteArray();
+    }
+
+    private static int indexOfHeaderEnd(byte[] data) {
+        for (int i = 3; i < data.length; i++) {
+            if (data[i] == '\n' && data[i - 1] == '\r' && data[i - 2] == '\n' && data[i - 3] == '\r') {
+                return i - 3;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 헤더 블록을 HEADERS 프레임과 필요한 만큼의 CONTINUATION 프레임으로 나누어 다른 프레임이 끼어들지 않도록 한 번에 씁니다.
+     * */
+    private void writeHeaders(int streamId, byte[] block, boolean endStream) throws IOException {
+        writeLock.lock();
+        try {
+            int frameSize = peerMaxFrameSize;
+            int offset = 0;
+            boolean first = true;
+            do {
+                int length = Math.min(frameSize, block.length - offset);
+                boolean last = offset + length == block.length;
+                int flags = (last ? Http2Frame.FLAG_END_HEADERS : 0) | (first && endStream ? Http2Frame.FLAG_END_STREAM : 0);
+                Http2Frame.write(out, first ? Http2Frame.HEADERS : Http2Frame.CONTINUATION, flags, streamId, block, offset, length);
+                offset += length;
+                first = false;
+            } while (offset < block.length);
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 연결과 스트림의 송신 윈도우가 허용하는 만큼씩 DATA 프레임을 씁니다. 길이가 0이고 스트림을 끝내야 한다면 빈 DATA 프레임을 씁니다. 윈도우가 없으면 WINDOW_UPDATE를 기다립니다.
+     * */
+    private void writeData(Http2Stream stream, byte[] data, int offset, int length, boolean endStream) throws IOException {
+        if (length == 0) {
+            if (endStream) {
+                writeLock.lock();
+                try {
+                    Http2Frame.write(out, Http2Frame.DATA, Http2Frame.FLAG_END_STREAM, stream.getId(), data, offset, 0);
+                    out.flush();
+                } finally {
+                    writeLock.unlock();
+                }
+            }
+            return;
+        }
+        long timeoutMillis = HttpLauncher.KEEP_ALIVE_TIMEOUT * 1000L;
+        while (length > 0) {
+            int chunk;
+            lock.lock();
+            try {
+                long deadline = System.currentTimeMillis() + timeoutMillis;
+                while (!closed && !stream.isClosed() && (sendWindow <= 0 || stream.getSendWindow() <= 0)) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) throw new IOException("flow control window timed out");
+                    try {
+                        windowUpdated.await(remaining, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IOException("interrupted while waiting for flow control window");
+                    }
+                }
+                if (closed || stream.isClosed()) throw new IOException("stream closed");
+                chunk = Math.min(length, Math.min(peerMaxFrameSize, Math.min(sendWindow, stream.getSendWindow())));
+                sendWindow -= chunk;
+                stream.addSendWindow(-chunk);
+            } finally {
+                lock.unlock();
+            }
+            int flags = endStream && chunk == length ? Http2Frame.FLAG_END_STREAM : 0;
+            writeLock.lock();
+            try {
+                Http2Frame.write(out, Http2Frame.DATA, flags, stream.getId(), data, offset, chunk);
+                out.flush();
+            } finally {
+                writeLock.unlock();
+            }
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * 핸들러가 쓰는 HTTP/1.1 응답을 받는 스트림입니다. 응답은 완료될 때 까지 모아두었다가 한 번에 변환하지만,
+     * Transfer-Encoding: chunked 응답의 헤더가 flush 되면 HEADERS 프레임을 바로 보내고 이후의 청크는 flush 될 때 마다 DATA 프레임으로 보냅니다.
+     * 스트림이 RST_STREAM으로 닫히면 쓰기에서 IOException이 발생하므로 핸들러가 클라이언트의 연결 종료를 알 수 있습니다.
+     * */
+    private class ResponseStream extends OutputStream {
+
+        private final Http2Stream stream;
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+
+        private final ChunkDecoder decoder = new ChunkDecoder();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private boolean streaming;
+
+        private ResponseStream(Http2Stream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{ (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            lock.lock();
+            try {
+                if (streaming) {
+                    decoder.decode(b, off, len, buffer);
+                    return;
+                }
+                buffer.write(b, off, len);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 청크 응답이라면 지금까지 쓴 바디를 DATA 프레임으로 보냅니다. 헤더를 아직 보내지 않았다면 HEADERS 프레임을 먼저 보냅니다.
+         * */
+        @Override
+        public void flush() throws IOException {
+            lock.lock();
+            try {
+                if (!streaming && !startStreaming()) return;
+                if (buffer.size() == 0) return;
+                byte[] data = buffer.toByteArray();
+                buffer.reset();
+                writeData(stream, data, 0, data.length, false);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isStreaming() {
+            lock.lock();
+            try {
+                return streaming;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        byte[] toByteArray() {
+            lock.lock();
+            try {
+                return buffer.toByteArray();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 남은 바디를 보내고 스트림을 끝냅니다.
+         * */
+        void finish() throws IOException {
+            lock.lock();
+            try {
+                byte[] data = buffer.toByteArray();
+                buffer.reset();
+                writeData(stream, data, 0, data.length, true);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean startStreaming() throws IOException {
+            byte[] response = buffer.toByteArray();
+            int headerEnd = indexOfHeaderEnd(response);
+            if (headerEnd == -1) return false;
+            String[] lines = new String(response, 0, headerEnd, StandardCharsets.ISO_8859_1).split("\r\n");
+            if (!isChunked(lines)) return false;
+            writeHeaders(stream.getId(), HpackEncoder.encode(toHttp2Headers(lines)), false);
+            streaming = true;
+            buffer.reset();
+            decoder.decode(response, headerEnd + 4, response.length - headerEnd - 4, buffer);
+            return true;
+        }
+    }
+
+    /**
+     * 청크 형식의 바디를 조각 단위로 받아 청크 데이터만 꺼냅니다. 청크의 경계가 여러 번의 쓰기에 걸쳐 있어도 됩니다.
+     * */
+    private static class ChunkDecoder {
+
+        private static final int SIZE = 0, EXTENSION = 1, DATA = 2, DATA_END = 3, TRAILER = 4;
+
+        /**
+         * 청크 크기에 허용하는 16진수 자릿수입니다. long 범위를 넘지 않도록 합니다.
+         * */
+        private static final int MAX_CHUNK_SIZE_DIGITS = 15;
+
+        private int state = SIZE;
+
+        private long chunkSize;
+
+        private int sizeDigits;
+
+        void decode(byte[] data, int offset, int length, ByteArrayOutputStream body) throws IOException {
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                if (state == DATA) {
+                    int size = (int) Math.min(end - i, chunkSize);
+                    body.write(data, i, size);
+                    chunkSize -= size;
+                    i += size;
+                    if (chunkSize == 0) state = DATA_END;
+                    continue;
+                }
+                byte b = data[i++];
+                if (state == SIZE || state == EXTENSION) {
+                    if (b == '\n') {
+                        if (sizeDigits == 0) throw new IOException("invalid chunk size");
+                        state = chunkSize == 0 ? TRAILER : DATA;
+                        sizeDigits = 0;
+                    } else if (b == ';') {
+                        state = EXTENSION;
+                    } else if (state == SIZE && Character.digit(b, 16) != -1) {
+                        if (++sizeDigits > MAX_CHUNK_SIZE_DIGITS) throw new IOException("invalid chunk size");
+                        chunkSize = chunkSize * 16 + Character.digit(b, 16);
+                    }
+                } else if (state == DATA_END && b == '\n') {
+                    state = SIZE;
+                }
+            }
+        }
+    }
+
+    private void writeSettings() throws IOException {
+        byte[] payload = new byte[18];
+        writeSetting(payload, 0, Http2Frame.SETTINGS_MAX_CONCURRENT_STREAMS, MAX_CONCURRENT_STREAMS);
+        writeSetting(payload, 6, Http2Frame.SETTINGS_ENABLE_PUSH, 0);
+        writeSetting(payload, 12, Http2Frame.SETTINGS_MAX_HEADER_LIST_SIZE, MAX_HEADER_LIST_SIZE);
+        writeFrame(Http2Frame.SETTINGS, 0, 0, payload);
+    }
+
+    private static void writeSetting(byte[] payload, int offset, int id, int value) {
+        payload[offset] = (byte) (id >>> 8);
+        payload[offset + 1] = (byte) id;
+        Http2Frame.writeInt(payload, offset + 2, value);
+    }
+
+    private void writeWindowUpdate(int streamId, int increment) throws IOException {
+        byte[] payload = new byte[4];
+        Http2Frame.writeInt(payload, 0, increment);
+        writeFrame(Http2Frame.WINDOW_UPDATE, 0, streamId, payload);
+    }
+
+    private void writeRstStream(int streamId, int errorCode) throws IOException {
+        byte[] payload = new byte[4];
+        Http2Frame.writeInt(payload, 0, errorCode);
+        writeFrame(Http2Frame.RST_STREAM, 0, streamId, payload);
+    }
+
+    private void writeFrame(int type, int flags, int streamId, byte[] payload) throws IOException {
+        writeLock.lock();
+        try {
+            Http2Frame.write(out, type, flags, streamId, payload, 0, payload.length);
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 스트림을 닫고 RST_STREAM을 보냅니다.
+     * */
+    private void resetStream(int streamId, int errorCode) {
+        closeStream(streamId);
+        try {
+            writeRstStream(streamId, errorCode);
+        } catch (IOException e) {
+            logger.debug("failed to send RST_STREAM: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 스트림을 목록에서 제거합니다. GOAWAY를 보낸 후 마지막 스트림이 닫히면 연결을 닫습니다.
+     * */
+    private void closeStream(int streamId) {
+        boolean drained;
+        lock.lock();
+        try {
+            Http2Stream stream = streams.remove(streamId);
+            if (stream != null) {
+                stream.setClosed();
+                bufferedBodySize -= stream.getBodySize();
+            }
+            windowUpdated.signalAll();
+            if (streams.isEmpty()) {
+                deadline.start(ConnectionDeadline.Phase.IDLE);
+            }
+            drained = goAwaySent && streams.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+        if (drained) {
+            closeTransport();
+        }
+    }
+
+    /**
+     * GOAWAY를 보내 새 스트림을 받지 않도록 합니다. 오류로 인한 GOAWAY이거나 처리 중인 스트림이 없다면 바로 연결을 닫습니다.
+     *
+     * @param errorCode HTTP/2 오류 코드
+     * */
+    void goAway(int errorCode) {
+        int lastProcessedStreamId;
+        boolean closeNow;
+        lock.lock();
+        try {
+            if (goAwaySent || closed) return;
+            goAwaySent = true;
+            lastProcessedStreamId = lastAcceptedStreamId;
+            closeNow = errorCode != Http2Frame.NO_ERROR || streams.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+        byte[] payload = new byte[8];
+        Http2Frame.writeInt(payload, 0, lastProcessedStreamId);
+        Http2Frame.writeInt(payload, 4, errorCode);
+        try {
+            writeFrame(Http2Frame.GOAWAY, 0, 0, payload);
+        } catch (IOException e) {
+            logger.debug("failed to send GOAWAY: " + e.getMessage());
+        }
+        if (closeNow) {
+            closeTransport();
+        }
+    }
+
+    private void close() {
+        lock.lock();
+        try {
+            closed = true;
+            windowUpdated.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        closeTransport();
+    }
+
+    private void closeTransport() {
+        try {
+            transport.close();
+        } catch (IOException e) {
+            logger.debug("http2 transport close error", e);
+        }
+    }
+
+}
@@ -0,0 +1,58 @@
+package org.sam.server.http.context;
+
+/**
+ * HTTP/2 프로토콜 오류를 나타내는 예외입니다. 스트림 아이디가 0이면 연결 오류, 그 외에는 해당 스트림만의 오류입니다.
+ *
+ * @author hypernova1
+ * @see Http2Connection
+ */
+class Http2Exception extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int errorCode;
+
+    private final int streamId;
+
+    private Http2Exception(int errorCode, int streamId, String message) {
+        super(message);
+        this.errorCode = errorCode;
+        this.streamId = streamId;
+    }
+
+    /**
+     * 연결 전체를 종료해야 하는 오류를 생성합니다.
+     *
+     * @param errorCode HTTP/2 오류 코드
+     * @param message 오류 메시지
+     * @return 예외 인스턴스
+     * */
+    static Http2Exception connectionError(int errorCode, String message) {
+        return new Http2Exception(errorCode, 0, message);
+    }
+
+    /**
+     * 해당 스트림만 종료해야 하는 오류를 생성합니다.
+     *
+     * @param streamId 스트림 아이디
+     * @param errorCode HTTP/2 오류 코드
+     * @param message 오류 메시지
+     * @return 예외 인스턴스
+     * */
+    static Http2Exception streamError(int streamId, int errorCode, String message) {
+        return new Http2Exception(errorCode, streamId, message);
+    }
+
+    int getErrorCode() {
+        return errorCode;
+    }
+
+    int getStreamId() {
+        return streamId;
+    }
+
+    boolean isConnectionError() {
+        return streamId == 0;
+    }
+
+}
@@ -0,0 +1,166 @@
+package org.sam.server.http.context;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketTimeoutException;
+
+/**
+ * HTTP/2 프레임을 나타내며 프레임을 읽고 쓰는 기능을 제공합니다. (RFC 7540 Section 4, 6)
+ *
+ * @author hypernova1
+ * @see Http2Connection
+ */
+class Http2Frame {
+
+    static final int HEADER_LENGTH = 9;
+
+    static final int DATA = 0x0;
+    static final int HEADERS = 0x1;
+    static final int PRIORITY = 0x2;
+    static final int RST_STREAM = 0x3;
+    static final int SETTINGS = 0x4;
+    static final int PUSH_PROMISE = 0x5;
+    static final int PING = 0x6;
+    static final int GOAWAY = 0x7;
+    static final int WINDOW_UPDATE = 0x8;
+    static final int CONTINUATION = 0x9;
+
+    static final int FLAG_END_STREAM = 0x1;
+    static final int FLAG_ACK = 0x1;
+    static final int FLAG_END_HEADERS = 0x4;
+    static final int FLAG_PADDED = 0x8;
+    static final int FLAG_PRIORITY = 0x20;
+
+    static final int NO_ERROR = 0x0;
+    static final int PROTOCOL_ERROR = 0x1;
+    static final int INTERNAL_ERROR = 0x2;
+    static final int FLOW_CONTROL_ERROR = 0x3;
+    static final int STREAM_CLOSED = 0x5;
+    static final int FRAME_SIZE_ERROR = 0x6;
+    static final int REFUSED_STREAM = 0x7;
+    static final int CANCEL = 0x8;
+    static final int COMPRESSION_ERROR = 0x9;
+    static final int ENHANCE_YOUR_CALM = 0xb;
+
+    static final int SETTINGS_HEADER_TABLE_SIZE = 0x1;
+    static final int SETTINGS_ENABLE_PUSH = 0x2;
+    static final int SETTINGS_MAX_CONCURRENT_STREAMS = 0x3;
+    static final int SETTINGS_INITIAL_WINDOW_SIZE = 0x4;
+    static final int SETTINGS_MAX_FRAME_SIZE = 0x5;
+    static final int SETTINGS_MAX_HEADER_LIST_SIZE = 0x6;
+
+    private final int type;
+
+    private final int flags;
+
+    private final int streamId;
+
+    private final byte[] payload;
+
+    private Http2Frame(int type, int flags, int streamId, byte[] payload) {
+        this.type = type;
+        this.flags = flags;
+        this.streamId = streamId;
+        this.payload = payload;
+    }
+
+    /**
+     * 스트림에서 프레임 하나를 읽습니다. 프레임 경계에서 스트림이 끝나면 null을 반환합니다.
+     * 프레임 경계에서의 읽기 시간 초과는 그대로 던지고, 프레임 도중의 시간 초과는 연결 오류로 처리합니다.
+     *
+     * @param in 입력 스트림
+     * @param maxFrameSize 허용하는 최대 페이로드 길이
+     * @return 프레임
+     * @throws IOException 읽기에 실패하면
+     * @throws Http2Exception 페이로드가 최대 길이를 넘으면
+     * */
+    static Http2Frame read(InputStream in, int maxFrameSize) throws IOException, Http2Exception {
+        int first = in.read();
+        if (first == -1) return null;
+        byte[] header = new byte[HEADER_LENGTH];
+        header[0] = (byte) first;
+        try {
+            readFully(in, header, 1, HEADER_LENGTH - 1);
+            int length = (first << 16) | ((header[1] & 0xFF) << 8) | (header[2] & 0xFF);
+            int type = header[3] & 0xFF;
+            int flags = header[4] & 0xFF;
+            int streamId = readInt(header, 5) & 0x7FFFFFFF;
+            if (length > maxFrameSize) {
+                throw Http2Exception.connectionError(FRAME_SIZE_ERROR, "frame too large: " + length);
+            }
+            byte[] payload = new byte[length];
+            readFully(in, payload, 0, length);
+            return new Http2Frame(type, flags, streamId, payload);
+        } catch (SocketTimeoutException e) {
+            throw new IOException("frame read timed out", e);
+        }
+    }
+
+    /**
+     * 프레임을 씁니다.
+     *
+     * @param out 출력 스트림
+     * @param type 프레임 타입
+     * @param flags 플래그
+     * @param streamId 스트림 아이디
+     * @param payload 페이로드
+     * @param offset 페이로드 시작 위치
+     * @param length 페이로드 길이
+     * @throws IOException 쓰기에 실패하면
+     * */
+    static void write(OutputStream out, int type, int flags, int streamId, byte[] payload, int offset, int length) throws IOException {
+        byte[] header = new byte[HEADER_LENGTH];
+        header[0] = (byte) (length >>> 16);
+        header[1] = (byte) (length >>> 8);
+        header[2] = (byte) length;
+        header[3] = (byte) type;
+        header[4] = (byte) flags;
+        writeInt(header, 5, streamId & 0x7FFFFFFF);
+        out.write(header);
+        out.write(payload, offset, length);
+    }
+
+    static int readInt(byte[] data, int offset) {
+        return ((data[offset] & 0xFF) << 24) | ((data[offset + 1] & 0xFF) << 16)
+                | ((data[offset + 2] & 0xFF) << 8) | (data[offset + 3] & 0xFF);
+    }
+
+    static void writeInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    private static void readFully(InputStream in, byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = in.read(buffer, offset, length);
+            if (read == -1) throw new EOFException("connection closed in the middle of a frame");
+            offset += read;
+            length -= read;
+        }
+    }
+
+    int getType() {
+        return type;
+    }
+
+    int getFlags() {
+        return flags;
+    }
+
+    boolean hasFlag(int flag) {
+        return (flags & flag) != 0;
+    }
+
+    int getStreamId() {
+        return streamId;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+}
@@ -0,0 +1,125 @@
+package org.sam.server.http.context;
+
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * HTTP/2 연결 안의 스트림 하나의 상태를 저장합니다.
+ * 헤더와 바디, 수신 윈도우는 프레임을 읽는 쓰레드에서만 채워지고, 요청이 완성된 후 워커 쓰레드로 넘어갑니다.
+ * 송신 윈도우와 종료 여부는 Http2Connection의 잠금 안에서만 변경됩니다.
+ *
+ * @author hypernova1
+ * @see Http2Connection
+ */
+class Http2Stream {
+
+    private final int id;
+
+    private final ByteArrayOutputStream headerBlock = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    private List<String[]> headers;
+
+    private boolean endStream;
+
+    private boolean refused;
+
+    private int sendWindow;
+
+    private int receiveWindow;
+
+    private boolean closed;
+
+    Http2Stream(int id, int sendWindow, int receiveWindow) {
+        this.id = id;
+        this.sendWindow = sendWindow;
+        this.receiveWindow = receiveWindow;
+    }
+
+    int getId() {
+        return id;
+    }
+
+    void appendHeaderBlock(byte[] data, int offset, int length) {
+        headerBlock.write(data, offset, length);
+    }
+
+    int getHeaderBlockSize() {
+        return headerBlock.size();
+    }
+
+    byte[] takeHeaderBlock() {
+        byte[] block = headerBlock.toByteArray();
+        headerBlock.reset();
+        return block;
+    }
+
+    List<String[]> getHeaders() {
+        return headers;
+    }
+
+    void setHeaders(List<String[]> headers) {
+        this.headers = headers;
+    }
+
+    void appendBody(byte[] data, int offset, int length) {
+        body.write(data, offset, length);
+    }
+
+    byte[] getBody() {
+        return body.toByteArray();
+    }
+
+    int getBodySize() {
+        return body.size();
+    }
+
+    boolean isEndStream() {
+        return endStream;
+    }
+
+    void setEndStream() {
+        this.endStream = true;
+    }
+
+    boolean isRefused() {
+        return refused;
+    }
+
+    void setRefused() {
+        this.refused = true;
+    }
+
+    int getSendWindow() {
+        return sendWindow;
+    }
+
+    void addSendWindow(int delta) {
+        this.sendWindow += delta;
+    }
+
+    /**
+     * 받은 DATA 프레임의 크기만큼 수신 윈도우를 줄입니다.
+     *
+     * @param length DATA 프레임의 크기
+     * @return 윈도우를 넘지 않았는지 여부
+     * */
+    boolean consumeReceiveWindow(int length) {
+        receiveWindow -= length;
+        return receiveWindow >= 0;
+    }
+
+    void addReceiveWindow(int delta) {
+        this.receiveWindow += delta;
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    void setClosed() {
+        this.closed = true;
+    }
+
+}
@@ -1,6 +1,10 @@
 package org.sam.server.http.context;
 
+import org.sam.server.common.ServerProperties;
+import org.sam.server.common.ServerStatus;
+import org.sam.server.constant.HttpHeader;
 import org.sam.server.constant.HttpMethod;
+import org.sam.server.constant.HttpStatus;
 import org.sam.server.context.HandlerInfo;
 import org.sam.server.exception.HandlerNotFoundException;
 import org.sam.server.http.web.HttpRequest;
@@ -9,7 +13,11 @@ import org.sam.server.http.web.Request;
 import org.sam.server.http.web.Response;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Request, Response 인스턴스를 만들고 HTTP 요청을 분기합니다.
@@ -20,58 +28,189 @@ import java.net.Socket;
  */
 public class HttpLauncher {
 
+    static final int KEEP_ALIVE_TIMEOUT = ServerProperties.getInt("server.keep-alive.timeout", 60);
+
+    static final int MAX_KEEP_ALIVE_REQUESTS = ServerProperties.getInt("server.keep-alive.max-requests", 100);
+
+    static final long MAX_DISCARD_BODY_SIZE = ServerProperties.getInt("server.request.max-discard-body-size", 2 * 1024 * 1024);
+
+    static final int RETRY_AFTER = ServerProperties.getInt("server.overload.retry-after", 5);
+
+    /**
+     * 요청 바디의 형식이 잘못되어 더 읽을 수 없을 때 보내기 위해 미리 만들어 둔 400 응답입니다.
+     * */
+    static final byte[] BAD_REQUEST_RESPONSE = ("HTTP/1.1 " + HttpStatus.BAD_REQUEST.getCode() + " " + HttpStatus.BAD_REQUEST.getMessage() + "\r\n" +
+            "Content-Length: 0\r\n" +
+            "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
     /**
-     * 소켓을 받아 Request, Response 인스턴스를 만든 후 핸들러 혹은 정적 자원을 찾습니다.
+     * 과부하 상태에서 핸들러를 실행하지 않고 바로 응답하기 위해 미리 만들어 둔 503 응답입니다.
+     * */
+    static final byte[] SERVICE_UNAVAILABLE_RESPONSE = ("HTTP/1.1 " + HttpStatus.SERVICE_UNAVAILABLE.getCode() + " " + HttpStatus.SERVICE_UNAVAILABLE.getMessage() + "\r\n" +
+            "Retry-After: " + RETRY_AFTER + "\r\n" +
+            "Content-Length: 0\r\n" +
+            "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 요청을 기한 안에 다 받지 못했을 때 연결을 닫기 전에 보내는 408 응답입니다.
+     * */
+    static final byte[] REQUEST_TIMEOUT_RESPONSE = ("HTTP/1.1 " + HttpStatus.REQUEST_TIMEOUT.getCode() + " " + HttpStatus.REQUEST_TIMEOUT.getMessage() + "\r\n" +
+            "Content-Length: 0\r\n" +
+            "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * 소켓을 받아 Request, Response 인스턴스를 만든 후 핸들러 혹은 정적 자원을 찾습니다. 하나의 요청만 처리합니다.
      * 
      * @param connect 소켓
      * */
     public static void execute(Socket connect) {
         try {
-            Request request = HttpRequest.from(connect.getInputStream());
-            if (request == null) {
-                return;
-            }
-            Response response = HttpResponse.of(connect.getOutputStream(), request.getUrl(), request.getMethod());
-            findHandler(request, response);
+            execute(connect.getInputStream(), connect.getOutputStream(), MAX_KEEP_ALIVE_REQUESTS);
         } catch (IOException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 요청 스트림과 응답 스트림으로 Request, Response 인스턴스를 만든 후 핸들러 혹은 정적 자원을 찾습니다.
+     * 요청과 설정에 따라 연결 유지 여부를 결정하고 응답 헤더에 반영합니다.
+     *
+     * @param in 요청을 읽을 스트림
+     * @param out 응답을 쓸 스트림
+     * @param requestCount 현재 연결에서 몇 번째 요청인지
+     * @return 연결을 유지할지 여부
+     * */
+    public static boolean execute(InputStream in, OutputStream out, int requestCount) {
+        Request request = HttpRequest.from(in);
+        if (request == null) {
+            return false;
+        }
+        return execute(request, out, requestCount);
+    }
+
+    /**
+     * 이미 파싱된 요청에 대한 Response 인스턴스를 만든 후 핸들러 혹은 정적 자원을 찾습니다.
+     *
+     * @param request 요청 인스턴스
+     * @param out 응답을 쓸 스트림
+     * @param requestCount 현재 연결에서 몇 번째 요청인지
+     * @return 연결을 유지할지 여부
+     * */
+    static boolean execute(Request request, OutputStream out, int requestCount) {
+        return executeAsync(request, out, requestCount).join();
+    }
+
+    /**
+     * 이미 파싱된 요청에 대한 Response 인스턴스를 만든 후 핸들러 혹은 정적 자원을 찾습니다.
+     * 비동기 핸들러라면 응답이 완료되기 전에 반환하므로, 호출한 쓰레드는 응답을 기다리지 않고 다른 작업을 할 수 있습니다.
+     *
+     * @param request 요청 인스턴스
+     * @param out 응답을 쓸 스트림
+     * @param requestCount 현재 연결에서 몇 번째 요청인지
+     * @return 응답을 모두 썼을 때 연결 유지 여부와 함께 완료되는 Future
+     * */
+    static CompletableFuture<Boolean> executeAsync(Request request, OutputStream out, int requestCount) {
+        Response response = HttpResponse.of(out, request);
+        boolean keepAlive = isKeepAliveRequest(request) && requestCount < MAX_KEEP_ALIVE_REQUESTS && !ServerStatus.isShuttingDown();
+        if (keepAlive) {
+            response.setHeader(HttpHeader.CONNECTION, "keep-alive");
+            response.setHeader(HttpHeader.KEEP_ALIVE, "timeout=" + KEEP_ALIVE_TIMEOUT + ", max=" + (MAX_KEEP_ALIVE_REQUESTS - requestCount));
+        } else {
+            response.setHeader(HttpHeader.CONNECTION, "close");
+        }
+        return findHandler(request, response)
+                .thenApply(ignored -> keepAlive && !"close".equalsIgnoreCase(response.getHeader(HttpHeader.CONNECTION))
+                        && discardRemainingBody(request));
+    }
+
+    /**
+     * 핸들러가 읽지 않고 남긴 요청 바디를 버려 다음 요청을 읽을 수 있도록 합니다.
+     * 남은 바디가 설정된 크기보다 크다면 모두 읽지 않고 연결을 닫도록 합니다.
+     *
+     * @param request 요청 인스턴스
+     * @return 남은 바디를 모두 버렸는지 여부
+     * */
+    private static boolean discardRemainingBody(Request request) {
+        byte[] buffer = new byte[8192];
+        long discarded = 0;
+        try {
+            InputStream body = request.getBody();
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                discarded += read;
+                if (discarded > MAX_DISCARD_BODY_SIZE) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
     /**
      * 요청 URL을 읽어 핸들러를 찾을지 정적 자원을 찾을지 분기합니다.
      * 
      * @param request 요청 인스턴스
      * @param response 응답 인스턴스
+     * @return 응답을 모두 썼을 때 완료되는 Future
      * */
-    private static void findHandler(Request request, Response response) {
+    private static CompletableFuture<Void> findHandler(Request request, Response response) {
         if (isFaviconRequest(request)) {
             response.favicon();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         if (isResourceRequest(request)) {
             response.staticResources();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         if (isIndexRequest(request)) {
             response.indexFile();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         if (isOptionsRequest(request)) {
             response.allowedMethods();
-            return;
+            return CompletableFuture.completedFuture(null);
         }
 
         try {
             HandlerFinder handlerFinder = HandlerFinder.of(request, response);
             HandlerInfo handlerInfo = handlerFinder.createHandlerInfo();
             HandlerExecutor handlerExecutor = HandlerExecutor.of(request, response);
-            handlerExecutor.execute(handlerInfo);
+            return handlerExecutor.execute(handlerInfo);
         } catch (HandlerNotFoundException e) {
             response.notFound();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    /**
+     * 클라이언트가 연결 유지를 원하는지 확인합니다. HTTP/1.1은 기본적으로 연결을 유지하고, HTTP/1.0은 keep-alive를 명시해야 합니다.
+     *
+     * @param request 요청 정보
+     * @return 연결 유지 여부
+     * */
+    static boolean isKeepAliveRequest(Request request) {
+        String connection = request.getHeader(HttpHeader.CONNECTION);
+        if ("HTTP/1.0".equals(request.getProtocol())) {
+            return containsToken(connection, "keep-alive");
+        }
+        return !containsToken(connection, "close");
+    }
+
+    /**
+     * 콤마로 구분된 헤더 값에 토큰이 포함되어 있는지 확인합니다.
+     *
+     * @param headerValue 헤더 값
+     * @param token 찾을 토큰
+     * @return 토큰 포함 여부
+     * */
+    static boolean containsToken(String headerValue, String token) {
+        if (headerValue == null) return false;
+        for (String value : headerValue.split(",")) {
+            if (value.trim().equalsIgnoreCase(token)) return true;
         }
+        return false;
     }
 
     /**
@@ -0,0 +1,163 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerProperties;
+import org.sam.server.constant.HttpHeader;
+import org.sam.server.constant.HttpMethod;
+import org.sam.server.http.web.HttpRequest;
+import org.sam.server.http.web.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 하나의 연결로 연달아 들어온(파이프라이닝된) HTTP/1.1 요청을 처리하는 클래스입니다.
+ * 안전한 요청은 워커 쓰레드에서 병렬로 실행하고, 응답은 요청 순서대로 모아서 한 번에 씁니다.
+ *
+ * @author hypernova1
+ * @see HttpLauncher
+ */
+class HttpPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(HttpPipeline.class);
+
+    static final int MAX_PIPELINED_REQUESTS = ServerProperties.getInt("server.pipelining.max-requests", 16);
+
+    private HttpPipeline() {}
+
+    /**
+     * 스트림에서 요청을 하나 읽고, 이미 도착해 있는 요청이 더 있다면 함께 읽어 반환합니다.
+     * 안전하지 않은 요청이나 연결 종료 요청이 나오면 그 뒤의 요청은 읽지 않습니다.
+     *
+     * @param in 요청을 읽을 스트림
+     * @param limit 최대로 읽을 요청 수
+     * @return 요청 목록
+     * @throws IOException 스트림을 읽다가 오류 발생시
+     * */
+    static List<Request> readRequests(InputStream in, int limit) throws IOException {
+        List<Request> requests = new ArrayList<>();
+        Request request = HttpRequest.from(in);
+        while (request != null) {
+            requests.add(request);
+            if (requests.size() >= limit || !isPipelinable(request) || in.available() == 0) break;
+            request = HttpRequest.from(in);
+        }
+        return requests;
+    }
+
+    /**
+     * 요청 목록을 처리하고 응답을 요청 순서대로 한 번에 씁니다.
+     * 연속된 안전한 요청은 병렬로 실행되고, 안전하지 않은 요청은 앞선 요청이 모두 끝난 후 실행됩니다.
+     *
+     * @param requests 요청 목록
+     * @param out 응답을 쓸 스트림
+     * @param requestCount 첫 번째 요청이 현재 연결에서 몇 번째 요청인지
+     * @param executor 요청을 병렬로 실행할 쓰레드 풀
+     * @return 연결을 유지할지 여부
+     * @throws IOException 응답을 쓰다가 오류 발생시
+     * */
+    static boolean execute(List<Request> requests, OutputStream out, int requestCount, Executor executor) throws IOException {
+        if (requests.size() == 1) {
+            return HttpLauncher.execute(requests.get(0), out, requestCount);
+        }
+        List<FutureTask<Boolean>> tasks = new ArrayList<>(requests.size());
+        List<ByteArrayOutputStream> buffers = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            Request request = requests.get(i);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            int count = requestCount + i;
+            FutureTask<Boolean> task = new FutureTask<>(() -> HttpLauncher.execute(request, buffer, count));
+            if (isSafeMethod(request)) {
+                submit(task, executor);
+            } else {
+                awaitAll(tasks);
+                task.run();
+            }
+            tasks.add(task);
+            buffers.add(buffer);
+        }
+
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        boolean keepAlive = true;
+        for (int i = 0; i < tasks.size() && keepAlive; i++) {
+            keepAlive = await(tasks.get(i));
+            buffers.get(i).writeTo(response);
+        }
+        response.writeTo(out);
+        out.flush();
+        return keepAlive;
+    }
+
+    /**
+     * 뒤이어 다른 요청을 함께 읽어도 되는지 확인합니다. 바디가 있는 요청은 핸들러가 바디를 읽을 수 있으므로 함께 읽지 않습니다.
+     *
+     * @param request 요청 인스턴스
+     * @return 파이프라이닝 가능 여부
+     * */
+    static boolean isPipelinable(Request request) {
+        return isSafeMethod(request) && HttpLauncher.isKeepAliveRequest(request)
+                && request.getHeader(HttpHeader.CONTENT_LENGTH) == null && request.getHeader(HttpHeader.TRANSFER_ENCODING) == null;
+    }
+
+    /**
+     * 서버의 상태를 바꾸지 않는 안전한 요청인지 확인합니다.
+     *
+     * @param request 요청 인스턴스
+     * @return 안전한 요청 여부
+     * */
+    private static boolean isSafeMethod(Request request) {
+        HttpMethod method = request.getMethod();
+        return method == HttpMethod.GET || method == HttpMethod.HEAD ||
+                method == HttpMethod.OPTIONS || method == HttpMethod.TRACE;
+    }
+
+    /**
+     * 작업을 쓰레드 풀에 넘깁니다. 쓰레드 풀이 받지 못하면 기다리는 쓰레드가 직접 실행합니다.
+     *
+     * @param task 작업
+     * @param executor 쓰레드 풀
+     * */
+    private static void submit(FutureTask<Boolean> task, Executor executor) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            logger.debug("pipelined request will run on the connection thread");
+        }
+    }
+
+    private static void awaitAll(List<FutureTask<Boolean>> tasks) {
+        for (FutureTask<Boolean> task : tasks) {
+            await(task);
+        }
+    }
+
+    /**
+     * 작업이 끝날 때 까지 기다립니다. 아직 시작되지 않은 작업이라면 현재 쓰레드에서 직접 실행하여
+     * 쓰레드 풀이 가득 찬 상황에서도 교착 상태에 빠지지 않도록 합니다.
+     *
+     * @param task 작업
+     * @return 연결 유지 여부
+     * */
+    private static boolean await(FutureTask<Boolean> task) {
+        task.run();
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException e) {
+            logger.error("pipelined request error", e.getCause());
+            return false;
+        }
+    }
+
+}
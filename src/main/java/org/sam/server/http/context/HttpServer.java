@@ -1,13 +1,31 @@
 package org.sam.server.http.context;
 
+import org.sam.server.common.ServerMetrics;
+import org.sam.server.common.ServerProperties;
+import org.sam.server.common.ServerStatus;
+import org.sam.server.context.BeanContainer;
+import org.sam.server.http.web.Request;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.net.ssl.SSLSocket;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.concurrent.LinkedBlockingDeque;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -21,10 +39,33 @@ public class HttpServer implements Runnable {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpServer.class);
 
+    private static final Set<HttpServer> connections = ConcurrentHashMap.newKeySet();
+
+    private static ServerSocket serverSocket;
+
+    private static NioServer nioServer;
+
+    private static volatile ExecutorService workerExecutor;
+
     private final Socket connect;
 
-    private HttpServer(Socket connect) {
+    private final Executor executor;
+
+    private final ConnectionDeadline deadline = new ConnectionDeadline(this::onTimeout);
+
+    private InputStream in;
+
+    private OutputStream out;
+
+    private int requestCount;
+
+    private boolean idle;
+
+    private volatile boolean processing;
+
+    private HttpServer(Socket connect, Executor executor) {
         this.connect = connect;
+        this.executor = executor;
     }
 
     /**
@@ -34,6 +75,13 @@ public class HttpServer implements Runnable {
      * @see HttpLauncher
      * */
     public static void start() {
+        if (ServerProperties.isNioTransport()) {
+            if (ServerSocketFactory.getKeyStore() == null) {
+                startNioServer();
+                return;
+            }
+            logger.warn("nio transport does not support SSL, falling back to blocking transport");
+        }
         try {
             ServerSocket serverSocket = ServerSocketFactory.createServerSocket();
             logger.info("server started..");
@@ -41,30 +89,498 @@ public class HttpServer implements Runnable {
 
             Class.forName("org.sam.server.context.BeanContainer");
 
-            ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(
-                    Runtime.getRuntime().availableProcessors(),
-                    200,
-                    150L,
-                    TimeUnit.SECONDS,
-                    new LinkedBlockingDeque<>()
-            );
-            while (!Thread.currentThread().isInterrupted()) {
-                Socket clientSocket = serverSocket.accept();
-                HttpServer httpServer = new HttpServer(clientSocket);
-                threadPoolExecutor.execute(httpServer);
+            ExecutorService workerExecutor = WorkerExecutors.create();
+            registerServer(serverSocket, null, workerExecutor);
+            int acceptorThreads = getAcceptorThreads();
+            for (int i = 1; i < acceptorThreads; i++) {
+                Thread acceptor = new Thread(() -> acceptLoop(serverSocket, workerExecutor), "acceptor-" + i);
+                acceptor.start();
             }
+            acceptLoop(serverSocket, workerExecutor);
         } catch (IOException | ClassNotFoundException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * 서버가 종료될 때 까지 연결을 수락하여 워커 쓰레드 풀에 넘깁니다. 여러 수락 쓰레드가 같은 서버 소켓에서 동시에 호출할 수 있습니다.
+     *
+     * @param serverSocket 서버 소켓
+     * @param workerExecutor 워커 쓰레드 풀
+     * */
+    private static void acceptLoop(ServerSocket serverSocket, ExecutorService workerExecutor) {
+        while (!Thread.currentThread().isInterrupted()) {
+            Socket clientSocket;
+            try {
+                clientSocket = serverSocket.accept();
+            } catch (IOException e) {
+                if (serverSocket.isClosed()) return;
+                logger.error("accept error", e);
+                continue;
+            }
+            long acceptedAt = System.nanoTime();
+            try {
+                ServerSocketFactory.configureSocket(clientSocket);
+                workerExecutor.execute(new HttpServer(clientSocket, workerExecutor));
+            } catch (SocketException e) {
+                logger.debug("failed to configure socket", e);
+                closeQuietly(clientSocket);
+            } catch (RejectedExecutionException e) {
+                rejectConnection(clientSocket);
+            }
+            ServerMetrics.recordAccept(System.nanoTime() - acceptedAt);
+        }
+    }
+
+    private static int getAcceptorThreads() {
+        return Math.max(ServerProperties.getInt("server.acceptor-threads", 1), 1);
+    }
+
+    /**
+     * NIO 이벤트 루프 기반으로 애플리케이션을 시작합니다. 이벤트 루프 쓰레드가 소켓을 읽고 쓰며, 완성된 요청만 워커 쓰레드에서 처리합니다.
+     *
+     * @see NioServer
+     * */
+    private static void startNioServer() {
+        try {
+            int eventLoopThreads = ServerProperties.getInt("server.event-loop-threads", Runtime.getRuntime().availableProcessors());
+            ExecutorService workerExecutor = WorkerExecutors.create();
+            NioServer nioServer = NioServer.open(eventLoopThreads, workerExecutor);
+            logger.info("server started.. (nio)");
+            logger.info("server port: " + nioServer.getLocalPort());
+
+            Class.forName("org.sam.server.context.BeanContainer");
+
+            registerServer(null, nioServer, workerExecutor);
+
+            nioServer.acceptLoop(getAcceptorThreads());
+        } catch (IOException | ClassNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 실행 중인 서버를 저장하고 JVM 종료 시 서버를 정상 종료하도록 훅을 등록합니다.
+     *
+     * @param serverSocket 블로킹 전송 계층의 서버 소켓
+     * @param nioServer NIO 전송 계층 서버
+     * @param workerExecutor 워커 쓰레드 풀
+     * */
+    private static synchronized void registerServer(ServerSocket serverSocket, NioServer nioServer, ExecutorService workerExecutor) {
+        HttpServer.serverSocket = serverSocket;
+        HttpServer.nioServer = nioServer;
+        HttpServer.workerExecutor = workerExecutor;
+        Runtime.getRuntime().addShutdownHook(new Thread(HttpServer::stop, "server-shutdown-hook"));
+    }
+
+    /**
+     * 실행 중인 서버의 워커 쓰레드 풀을 반환합니다.
+     *
+     * @return 워커 쓰레드 풀, 서버가 시작되지 않았다면 null
+     * */
+    static ExecutorService getWorkerExecutor() {
+        return workerExecutor;
+    }
+
+    /**
+     * 서버를 정상 종료합니다. 연결 수락을 멈추고, 요청을 기다리는 keep-alive 연결을 닫고,
+     * 처리 중인 요청에는 Connection: close 헤더를 보내 응답을 마칠 때 까지 설정된 기한만큼 기다린 후 빈의 PreDestroy 메서드를 호출합니다.
+     * 기한이 지나면 남은 연결을 강제로 닫습니다.
+     *
+     * @see BeanContainer#destroy()
+     * */
+    public static synchronized void stop() {
+        if (ServerStatus.isShuttingDown() || workerExecutor == null) return;
+        ServerStatus.markShuttingDown();
+        int timeout = ServerProperties.getInt("server.shutdown.timeout", 30);
+        logger.info("server shutting down.. (timeout: " + timeout + "s)");
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeout);
+        try {
+            boolean drained;
+            if (nioServer != null) {
+                Http2Connection.goAwayAll();
+                WebSocketConnection.closeAll();
+                HandlerExecutor.completeEventStreams();
+                drained = nioServer.shutdownGracefully(deadline);
+                HandlerExecutor.awaitAsyncResponses(deadline);
+                workerExecutor.shutdown();
+                drained &= workerExecutor.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            } else {
+                serverSocket.close();
+                Http2Connection.goAwayAll();
+                WebSocketConnection.closeAll();
+                for (HttpServer connection : connections) {
+                    connection.closeIfIdle();
+                }
+                HandlerExecutor.completeEventStreams();
+                HandlerExecutor.awaitAsyncResponses(deadline);
+                workerExecutor.shutdown();
+                drained = workerExecutor.awaitTermination(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+            }
+            if (!drained) {
+                logger.warn("in-flight requests did not complete within " + timeout + "s, closing remaining connections");
+                workerExecutor.shutdownNow();
+                for (HttpServer connection : connections) {
+                    closeQuietly(connection.connect);
+                }
+            }
+        } catch (IOException e) {
+            logger.error("server socket close error", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        BeanContainer.destroy();
+        logger.info("server stopped");
+    }
+
+    /**
+     * 워커 쓰레드 풀이 가득 찼을 때 핸들러를 실행하지 않고 503 응답을 보낸 후 연결을 닫습니다.
+     *
+     * @param clientSocket 클라이언트 소켓
+     * */
+    private static void rejectConnection(Socket clientSocket) {
+        ServerMetrics.incrementRejectedConnections();
+        logger.debug("server overloaded, rejected connection: " + clientSocket.getRemoteSocketAddress());
+        try {
+            OutputStream out = clientSocket.getOutputStream();
+            out.write(HttpLauncher.SERVICE_UNAVAILABLE_RESPONSE);
+            out.flush();
+            clientSocket.shutdownOutput();
+        } catch (IOException e) {
+            logger.debug("failed to send 503 response", e);
+        } finally {
+            closeQuietly(clientSocket);
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 연결을 준비한 후 요청을 처리합니다. TLS 연결이라면 핸드셰이크를 먼저 수행합니다.
+     * HTTP/2가 활성화되어 있다면 ALPN으로 HTTP/2 연결을 판별하여 Http2Connection에 넘기고 워커 쓰레드를 반환합니다.
+     *
+     * @see #serve(boolean)
+     * @see Http2Connection
+     * */
     @Override
     public void run() {
-        HttpLauncher.execute(connect);
+        connections.add(this);
+        try {
+            if (connect instanceof SSLSocket) {
+                deadline.start(ConnectionDeadline.Phase.HANDSHAKE);
+                if (!startHandshake((SSLSocket) connect)) {
+                    close();
+                    return;
+                }
+            }
+            in = new BufferedInputStream(new DeadlineInputStream(connect.getInputStream()));
+            out = new DeadlineOutputStream(connect.getOutputStream());
+            if (Http2Connection.ENABLED && connect instanceof SSLSocket
+                    && "h2".equals(SSLContextFactory.getApplicationProtocol((SSLSocket) connect))) {
+                handOffToHttp2();
+                return;
+            }
+        } catch (IOException e) {
+            printIOException(e);
+            close();
+            return;
+        }
+        serve(true);
+    }
+
+    /**
+     * 하나의 연결에서 요청을 연속으로 처리합니다. 클라이언트나 설정에 의해 연결 유지가 끝나거나 유휴 시간이 지나면 연결을 닫습니다.
+     * 이미 도착해 있는 파이프라이닝된 요청은 함께 읽어 처리합니다.
+     * 비동기 핸들러가 아직 응답하지 않았다면 연결을 열어둔 채 워커 쓰레드를 반환하고, 응답이 완료되면 워커 쓰레드에서 이어서 처리합니다.
+     * HTTP/2가 활성화되어 있다면 연결 서문, h2c 업그레이드 요청으로 HTTP/2 연결을 판별하여 Http2Connection에 넘깁니다.
+     * 웹소켓 핸들러가 매핑된 URL의 업그레이드 요청은 핸드셰이크 후 WebSocketConnection에 넘깁니다.
+     *
+     * @param keepAlive 이전 응답 후 연결을 유지할지 여부
+     * @see HttpPipeline
+     * @see Http2Connection
+     * @see WebSocketConnection
+     * */
+    private void serve(boolean keepAlive) {
+        boolean released = false;
         try {
-            connect.close();
+            while (keepAlive && awaitRequest(in)) {
+                if (Http2Connection.ENABLED && requestCount == 0 && Http2Connection.startsWithPreface(in)) {
+                    handOffToHttp2();
+                    released = true;
+                    return;
+                }
+                int limit = Math.min(HttpPipeline.MAX_PIPELINED_REQUESTS, HttpLauncher.MAX_KEEP_ALIVE_REQUESTS - requestCount);
+                List<Request> requests = HttpPipeline.readRequests(in, Math.max(limit, 1));
+                deadline.cancel();
+                processing = true;
+                if (requests.isEmpty() || deadline.isExpired()) break;
+                if (requests.size() == 1 && WebSocketConnection.isUpgradeRequest(requests.get(0))) {
+                    released = handOffToWebSocket(requests.get(0));
+                    return;
+                }
+                if (requestCount == 0 && requests.size() == 1 && Http2Connection.isUpgradeRequest(requests.get(0))) {
+                    Request upgradeRequest = requests.get(0);
+                    byte[] response = Http2Connection.executeUpgradeRequest(upgradeRequest);
+                    released = new Http2Connection(in, out, connect, executor).startUpgrade(upgradeRequest, response);
+                    if (released) {
+                        connections.remove(this);
+                    }
+                    return;
+                }
+                int firstRequestCount = requestCount + 1;
+                requestCount += requests.size();
+                if (requests.size() > 1) {
+                    keepAlive = HttpPipeline.execute(requests, out, firstRequestCount, executor);
+                    continue;
+                }
+                CompletableFuture<Boolean> result = HttpLauncher.executeAsync(requests.get(0), out, firstRequestCount);
+                if (!result.isDone()) {
+                    result.whenComplete((keepAliveAfterResponse, e) -> resume(e == null && keepAliveAfterResponse));
+                    released = true;
+                    return;
+                }
+                keepAlive = result.join();
+            }
         } catch (IOException e) {
+            printIOException(e);
+        } finally {
+            if (!released) {
+                close();
+            }
+        }
+    }
+
+    /**
+     * 비동기 응답이 완료된 연결을 워커 쓰레드에서 다시 처리합니다. 워커 쓰레드 풀이 작업을 받지 못하면 연결을 닫습니다.
+     *
+     * @param keepAlive 연결을 유지할지 여부
+     * */
+    private void resume(boolean keepAlive) {
+        try {
+            executor.execute(() -> serve(keepAlive));
+        } catch (RejectedExecutionException e) {
+            serve(false);
+        }
+    }
+
+    private void handOffToHttp2() {
+        deadline.cancel();
+        connections.remove(this);
+        new Http2Connection(in, out, connect, executor).start();
+    }
+
+    /**
+     * 웹소켓 핸드셰이크 응답을 보내고 연결을 WebSocketConnection의 전용 쓰레드에 넘깁니다.
+     *
+     * @param request 업그레이드 요청
+     * @return 연결을 넘겼는지 여부, 핸드셰이크에 실패했다면 false
+     * @throws IOException 응답을 쓰다가 오류 발생시
+     * */
+    private boolean handOffToWebSocket(Request request) throws IOException {
+        byte[] response = WebSocketConnection.createHandshakeResponse(request);
+        out.write(response);
+        out.flush();
+        if (!WebSocketConnection.isAccepted(response)) return false;
+        processing = false;
+        deadline.cancel();
+        connections.remove(this);
+        new WebSocketConnection(request, out, Runnable::run, () -> closeQuietly(connect)).startReader(in);
+        return true;
+    }
+
+    private void printIOException(IOException e) {
+        if (!ServerStatus.isShuttingDown() && !deadline.isExpired()) {
             e.printStackTrace();
         }
     }
+
+    private void close() {
+        connections.remove(this);
+        deadline.cancel();
+        closeQuietly(connect);
+    }
+
+    /**
+     * TLS 핸드셰이크를 워커 쓰레드에서 수행하고 소요 시간과 세션 재사용 여부를 기록합니다.
+     * 세션이 핸드셰이크 시작 전에 생성되었다면 재사용된 세션으로 판단합니다.
+     *
+     * @param socket SSL 소켓
+     * @return 핸드셰이크 성공 여부
+     * */
+    private static boolean startHandshake(SSLSocket socket) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        try {
+            socket.startHandshake();
+        } catch (IOException e) {
+            ServerMetrics.incrementFailedHandshakes();
+            logger.debug("ssl handshake failed: " + socket.getRemoteSocketAddress(), e);
+            return false;
+        }
+        boolean resumed = socket.getSession().getCreationTime() < startTime;
+        ServerMetrics.recordHandshake(System.nanoTime() - startNanos, resumed);
+        return true;
+    }
+
+    /**
+     * 다음 요청의 첫 바이트가 도착할 때 까지 기다립니다. 기다리는 동안에는 서버 종료 시 닫힐 수 있는 유휴 상태이며,
+     * keep-alive 유휴 시간이 지나면 타이머가 연결을 닫습니다.
+     *
+     * @param in 소켓 입력 스트림
+     * @return 요청이 도착했는지 여부
+     * @throws IOException 소켓에서 읽는 중 오류가 발생하면
+     * */
+    private boolean awaitRequest(InputStream in) throws IOException {
+        synchronized (this) {
+            if (ServerStatus.isShuttingDown()) return false;
+            idle = true;
+            processing = false;
+        }
+        deadline.start(ConnectionDeadline.Phase.IDLE);
+        try {
+            in.mark(1);
+            if (in.read() == -1) return false;
+            in.reset();
+            return true;
+        } catch (SocketTimeoutException e) {
+            return false;
+        } finally {
+            synchronized (this) {
+                idle = false;
+            }
+        }
+    }
+
+    /**
+     * 요청을 기다리는 중인 연결이라면 닫습니다.
+     * */
+    private synchronized void closeIfIdle() {
+        if (idle) {
+            closeQuietly(connect);
+        }
+    }
+
+    /**
+     * 기한이 지난 연결을 닫습니다. 요청을 읽는 중이었다면 408 응답을 먼저 보냅니다.
+     * 핸들러가 요청 바디를 읽는 중이었다면 이미 응답을 쓰기 시작했을 수 있으므로 응답 없이 닫습니다.
+     * 타이머 쓰레드에서 호출되며, 요청을 읽는 동안에는 보낸 응답이 없으므로 작은 408 응답은 소켓 송신 버퍼에 바로 쓰입니다.
+     *
+     * @param phase 기한이 지난 단계
+     * */
+    private void onTimeout(ConnectionDeadline.Phase phase) {
+        logger.debug("connection timed out (" + phase + "): " + connect.getRemoteSocketAddress());
+        if (phase != null && phase.isRequestTimeout() && !processing) {
+            try {
+                OutputStream out = connect.getOutputStream();
+                out.write(HttpLauncher.REQUEST_TIMEOUT_RESPONSE);
+                out.flush();
+            } catch (IOException e) {
+                logger.debug("failed to send 408 response", e);
+            }
+        }
+        closeQuietly(connect);
+    }
+
+    /**
+     * 소켓에서 읽은 데이터에 따라 연결의 단계를 바꾸는 입력 스트림입니다.
+     * 유휴 상태에서 데이터가 도착하면 헤더 읽기 기한을, 헤더의 끝이 도착하면 바디 읽기 기한을 등록합니다.
+     * 기한이 지나 소켓이 닫혔다면 SocketTimeoutException을 던집니다.
+     * */
+    private class DeadlineInputStream extends FilterInputStream {
+
+        private int headerEndMatched;
+
+        private DeadlineInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        /**
+         * 소켓에서 읽습니다. 핸들러가 요청 바디를 직접 읽는 중이라면 읽을 때 마다 바디 읽기 기한을 새로 등록하여
+         * 큰 업로드는 허용하되 멈춘 클라이언트는 닫습니다.
+         * */
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            boolean streamingBody = processing;
+            if (streamingBody) {
+                deadline.start(ConnectionDeadline.Phase.BODY_READ);
+            }
+            int read;
+            try {
+                read = in.read(b, off, len);
+            } catch (IOException e) {
+                if (deadline.isExpired()) throw new SocketTimeoutException(e.getMessage());
+                throw e;
+            } finally {
+                if (streamingBody) {
+                    deadline.cancel();
+                }
+            }
+            if (read > 0 && !streamingBody) {
+                onDataReceived(b, off, read);
+            }
+            return read;
+        }
+
+        private void onDataReceived(byte[] b, int off, int len) {
+            ConnectionDeadline.Phase phase = deadline.getPhase();
+            if (phase == ConnectionDeadline.Phase.IDLE) {
+                headerEndMatched = 0;
+                deadline.start(ConnectionDeadline.Phase.HEADER_READ);
+            } else if (phase != ConnectionDeadline.Phase.HEADER_READ) {
+                return;
+            }
+            for (int i = off; i < off + len; i++) {
+                byte expected = headerEndMatched % 2 == 0 ? (byte) '\r' : (byte) '\n';
+                if (b[i] == expected) {
+                    headerEndMatched++;
+                } else {
+                    headerEndMatched = b[i] == '\r' ? 1 : 0;
+                }
+                if (headerEndMatched == 4) {
+                    deadline.start(ConnectionDeadline.Phase.BODY_READ);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * 쓰기마다 쓰기 기한을 등록하는 출력 스트림입니다. 클라이언트가 응답을 읽지 않아 쓰기가 멈추면 타이머가 연결을 닫습니다.
+     * */
+    private class DeadlineOutputStream extends FilterOutputStream {
+
+        private DeadlineOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{ (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            deadline.start(ConnectionDeadline.Phase.WRITE);
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                if (deadline.isExpired()) throw new SocketTimeoutException(e.getMessage());
+                throw e;
+            } finally {
+                deadline.cancel();
+            }
+        }
+    }
 }
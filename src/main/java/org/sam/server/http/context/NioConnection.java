@@ -0,0 +1,1069 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerMetrics;
+import org.sam.server.common.ServerProperties;
+import org.sam.server.http.web.FileTransfer;
+import org.sam.server.http.web.HttpRequest;
+import org.sam.server.http.web.Request;
+import org.sam.server.http.web.RequestHeadParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * NIO 전송 계층에서 하나의 클라이언트 연결 상태를 관리하는 클래스입니다.
+ * 이벤트 루프 쓰레드에서 요청을 읽어 완성된 요청만 워커 쓰레드로 넘기고, 워커가 작성한 응답을 이벤트 루프에서 씁니다.
+ *
+ * @author hypernova1
+ * @see NioEventLoop
+ * @see HttpPipeline
+ */
+class NioConnection {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioConnection.class);
+
+    private static final int INITIAL_BUFFER_SIZE = 8192;
+
+    private static final int MAX_BUFFERED_RESPONSE_SIZE = 64 * 1024;
+
+    private static final int MAX_BUFFERED_BODY_SIZE = ServerProperties.getInt("server.nio.max-buffered-body-size", 1024 * 1024);
+
+    private static final int BODY_PIPE_CAPACITY = 256 * 1024;
+
+    private static final int WRITE_HIGH_WATER_MARK = ServerProperties.getInt("server.nio.write-high-water-mark", 256 * 1024);
+
+    private final NioEventLoop eventLoop;
+
+    private final SocketChannel channel;
+
+    private final Deque<PendingWrite> writeQueue = new ArrayDeque<>();
+
+    /**
+     * 대기 중인 응답 크기를 보호하는 잠금입니다. 워커 쓰레드가 가상 쓰레드여도 기다리는 동안 캐리어 쓰레드를 붙잡지 않도록 모니터 대신 사용합니다.
+     * */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final Condition writable = writeLock.newCondition();
+
+    private long pendingWriteBytes;
+
+    private SelectionKey selectionKey;
+
+    private ByteBuffer readBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+
+    private final RequestHeadParser headParser = new RequestHeadParser();
+
+    private boolean processing;
+
+    private RequestBodyPipe bodyPipe;
+
+    private WebSocketConnection webSocket;
+
+    private int requestCount;
+
+    private final ConnectionDeadline deadline;
+
+    private boolean responseStarted;
+
+    private boolean closeAfterWrite;
+
+    private volatile boolean closed;
+
+    NioConnection(NioEventLoop eventLoop, SocketChannel channel) {
+        this.eventLoop = eventLoop;
+        this.channel = channel;
+        this.deadline = new ConnectionDeadline(phase -> eventLoop.execute(() -> onTimeout(phase)));
+    }
+
+    void setSelectionKey(SelectionKey selectionKey) {
+        this.selectionKey = selectionKey;
+        updateDeadline();
+    }
+
+    /**
+     * 채널에서 데이터를 읽고 완성된 요청이 있다면 워커 쓰레드에 넘깁니다.
+     * */
+    void onReadable() {
+        int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            close();
+            return;
+        }
+        if (read == -1) {
+            close();
+            return;
+        }
+        if (webSocket != null) {
+            webSocket.onData(readBuffer.array(), 0, readBuffer.position());
+            ((Buffer) readBuffer).clear();
+            return;
+        }
+        if (!readBuffer.hasRemaining()) {
+            readBuffer = grow(readBuffer);
+        }
+        if (bodyPipe != null) {
+            feedBody();
+            return;
+        }
+        dispatchIfComplete();
+        updateDeadline();
+    }
+
+    /**
+     * 쓰기 가능 상태가 되면 남은 응답을 씁니다.
+     * */
+    void onWritable() {
+        flushWriteQueue();
+    }
+
+    /**
+     * 버퍼에 완성된 요청이 있다면 잘라내어 워커 쓰레드에서 실행합니다.
+     * */
+    private void dispatchIfComplete() {
+        if (processing) return;
+        if (Http2Connection.ENABLED && requestCount == 0) {
+            int prefaceMatch = Http2Connection.matchPreface(readBuffer.array(), readBuffer.position());
+            if (prefaceMatch == 0) return;
+            if (prefaceMatch == 1) {
+                switchToHttp2(null, null);
+                return;
+            }
+        }
+        List<byte[]> requests = new ArrayList<>();
+        int limit = Math.min(HttpPipeline.MAX_PIPELINED_REQUESTS, HttpLauncher.MAX_KEEP_ALIVE_REQUESTS - requestCount);
+        byte[] data = readBuffer.array();
+        int offset = 0;
+        RequestBodyPipe body = null;
+        while (requests.size() < Math.max(limit, 1)) {
+            try {
+                if (!headParser.parse(data, offset, readBuffer.position())) break;
+            } catch (RequestHeadParser.MalformedRequestException e) {
+                if (!requests.isEmpty()) break;
+                logger.warn("malformed request: " + e.getMessage());
+                close();
+                return;
+            }
+            int headerEnd = offset + headParser.getHeadLength();
+            BodyFraming framing = createStreamingFraming(headParser);
+            if (framing != null) {
+                if (requests.isEmpty()) {
+                    requests.add(Arrays.copyOfRange(data, offset, headerEnd));
+                    body = new RequestBodyPipe(framing);
+                    offset = headerEnd;
+                    headParser.reset();
+                }
+                break;
+            }
+            long requestEnd = headerEnd + Math.max(headParser.getContentLength(), 0);
+            if (requestEnd > readBuffer.position()) break;
+            requests.add(Arrays.copyOfRange(data, offset, (int) requestEnd));
+            offset = (int) requestEnd;
+            headParser.reset();
+        }
+        if (requests.isEmpty()) return;
+        ((Buffer) readBuffer).flip();
+        ((Buffer) readBuffer).position(offset);
+        readBuffer.compact();
+
+        processing = true;
+        int firstRequestCount = requestCount + 1;
+        requestCount += requests.size();
+        selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_READ);
+        RequestBodyPipe streamingBody = body;
+        try {
+            eventLoop.getWorkerExecutor().execute(() -> handle(requests, firstRequestCount, streamingBody));
+        } catch (RejectedExecutionException e) {
+            reject();
+            return;
+        }
+        if (streamingBody != null) {
+            bodyPipe = streamingBody;
+            feedBody();
+        }
+    }
+
+    /**
+     * 읽어둔 데이터 중 스트리밍 중인 요청 바디에 해당하는 만큼을 워커 쓰레드가 읽는 파이프로 넘깁니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     * 파이프가 가득 차면 워커가 읽을 때 까지 소켓 읽기를 멈추고, 바디가 끝나면 다음 요청은 읽기 버퍼에 남겨둡니다.
+     * */
+    private void feedBody() {
+        RequestBodyPipe pipe = bodyPipe;
+        if (closed || pipe == null) return;
+        boolean paused = pipe.feed(readBuffer);
+        if (pipe.framing.isFailed()) {
+            rejectBody(pipe);
+            return;
+        }
+        if (pipe.framing.isComplete()) {
+            pipe.finish();
+            bodyPipe = null;
+            selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_READ);
+        } else if (paused) {
+            selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_READ);
+        } else {
+            selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_READ);
+        }
+        updateDeadline();
+    }
+
+    /**
+     * 형식이 잘못된 요청 바디를 더 읽지 않고, 워커가 읽던 바디를 실패시킨 후 400 응답을 보내고 연결을 닫습니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     * 워커가 이미 응답을 보내기 시작했다면 400 응답 없이 연결을 닫습니다.
+     *
+     * @param pipe 스트리밍 중인 요청 바디
+     * */
+    private void rejectBody(RequestBodyPipe pipe) {
+        logger.warn("malformed chunked request body");
+        pipe.fail(new IOException("malformed chunked request body"));
+        bodyPipe = null;
+        selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_READ);
+        if (!responseStarted) {
+            enqueueWrite(new BufferWrite(ByteBuffer.wrap(HttpLauncher.BAD_REQUEST_RESPONSE)));
+        }
+        closeAfterWrite();
+    }
+
+    /**
+     * 워커 쓰레드 풀이 가득 찼을 때 핸들러를 실행하지 않고 503 응답을 보낸 후 연결을 닫습니다.
+     * */
+    private void reject() {
+        ServerMetrics.incrementRejectedConnections();
+        logger.debug("server overloaded, rejected connection");
+        enqueueWrite(new BufferWrite(ByteBuffer.wrap(HttpLauncher.SERVICE_UNAVAILABLE_RESPONSE)));
+        closeAfterWrite();
+    }
+
+    /**
+     * 응답을 마친 후 연결을 유지하는 경우 다음 요청을 읽기 시작합니다. 이미 읽어둔 요청이 있다면 바로 처리합니다.
+     * */
+    private void resumeReading() {
+        if (closed) return;
+        processing = false;
+        responseStarted = false;
+        selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_READ);
+        dispatchIfComplete();
+        updateDeadline();
+    }
+
+    /**
+     * 연결 상태에 맞는 기한을 등록합니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     * 쓰지 못한 응답이 있다면 쓰기 기한을, 스트리밍 중인 요청 바디를 기다린다면 데이터가 올 때 마다 새로 시작하는 바디 읽기 기한을, 처리 중이라면 기한 없음을, 읽은 데이터가 없다면 keep-alive 유휴 기한을,
+     * 헤더를 읽는 중이라면 헤더 읽기 기한을, 바디를 읽는 중이라면 바디 읽기 기한을 사용합니다.
+     * */
+    private void updateDeadline() {
+        if (closed) return;
+        if (!writeQueue.isEmpty()) {
+            deadline.start(ConnectionDeadline.Phase.WRITE);
+        } else if (bodyPipe != null && !bodyPipe.isPaused()) {
+            deadline.cancel();
+            deadline.start(ConnectionDeadline.Phase.BODY_READ);
+        } else if (processing) {
+            deadline.cancel();
+        } else if (readBuffer.position() == 0) {
+            deadline.start(ConnectionDeadline.Phase.IDLE);
+        } else if (!headParser.isComplete()) {
+            deadline.start(ConnectionDeadline.Phase.HEADER_READ);
+        } else {
+            deadline.start(ConnectionDeadline.Phase.BODY_READ);
+        }
+    }
+
+    /**
+     * 기한이 지난 연결을 닫습니다. 요청을 읽는 중이었다면 408 응답을 보낸 후 닫습니다.
+     *
+     * @param phase 기한이 지난 단계
+     * */
+    private void onTimeout(ConnectionDeadline.Phase phase) {
+        if (closed) return;
+        logger.debug("connection timed out (" + phase + ")");
+        if (phase != null && phase.isRequestTimeout() && !processing) {
+            processing = true;
+            enqueueWrite(new BufferWrite(ByteBuffer.wrap(HttpLauncher.REQUEST_TIMEOUT_RESPONSE)));
+            closeAfterWrite();
+            return;
+        }
+        close();
+    }
+
+    /**
+     * 처리 중인 요청, 남은 응답, 읽다 만 요청이 모두 없다면 연결을 닫습니다. 서버 종료 시 사용됩니다.
+     * */
+    void closeIfDrained() {
+        if (processing || !writeQueue.isEmpty() || readBuffer.position() > 0) return;
+        close();
+    }
+
+    /**
+     * 워커 쓰레드에서 요청을 처리합니다. 함께 도착한 요청들의 응답은 요청 순서대로 한 번에 씁니다.
+     * 비동기 핸들러라면 응답을 기다리지 않고 워커 쓰레드를 반환하며, 응답이 완료된 후 다음 요청을 읽습니다.
+     *
+     * @param requestBytes 요청 바이트 목록
+     * @param requestCount 첫 번째 요청이 현재 연결에서 몇 번째 요청인지
+     * @param body 바디를 스트리밍하는 요청이라면 헤더 뒤에 이어서 읽을 바디 파이프, 아니라면 null
+     * */
+    private void handle(List<byte[]> requestBytes, int requestCount, RequestBodyPipe body) {
+        ChannelOutputStream outputStream = new ChannelOutputStream();
+        boolean keepAlive = false;
+        try {
+            List<Request> requests = new ArrayList<>(requestBytes.size());
+            for (byte[] bytes : requestBytes) {
+                InputStream in = new ByteArrayInputStream(bytes);
+                Request request = HttpRequest.from(body == null ? in : new SequenceInputStream(in, body));
+                if (request == null) break;
+                requests.add(request);
+            }
+            if (body == null && requests.size() == 1 && WebSocketConnection.isUpgradeRequest(requests.get(0))) {
+                upgradeToWebSocket(requests.get(0), outputStream);
+                return;
+            }
+            if (body == null && requestCount == 1 && requests.size() == 1 && Http2Connection.isUpgradeRequest(requests.get(0))) {
+                Request upgradeRequest = requests.get(0);
+                byte[] response = Http2Connection.executeUpgradeRequest(upgradeRequest);
+                eventLoop.execute(() -> switchToHttp2(upgradeRequest, response));
+                return;
+            }
+            if (requests.size() == 1) {
+                HttpLauncher.executeAsync(requests.get(0), outputStream, requestCount)
+                        .whenComplete((keepAliveAfterResponse, e) -> {
+                            if (e != null) {
+                                logger.error("request handling error", e);
+                            }
+                            finishResponse(outputStream, e == null && keepAliveAfterResponse);
+                        });
+                return;
+            }
+            if (!requests.isEmpty()) {
+                keepAlive = HttpPipeline.execute(requests, outputStream, requestCount, eventLoop.getWorkerExecutor());
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.error("request handling error", e);
+        }
+        finishResponse(outputStream, keepAlive);
+    }
+
+    /**
+     * 남은 응답을 쓰기 큐에 넘기고, 연결을 유지한다면 다음 요청을 읽고 아니라면 응답을 다 쓴 후 연결을 닫습니다.
+     *
+     * @param outputStream 응답 스트림
+     * @param keepAlive 연결을 유지할지 여부
+     * */
+    private void finishResponse(ChannelOutputStream outputStream, boolean keepAlive) {
+        try {
+            outputStream.flush();
+        } catch (IOException e) {
+            logger.debug("response write error: " + e.getMessage());
+            keepAlive = false;
+        }
+        eventLoop.execute(keepAlive ? this::resumeReading : this::closeAfterWrite);
+    }
+
+    /**
+     * 연결을 이벤트 루프에서 제외하고 HTTP/2 연결로 전환합니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     * HTTP/2 연결은 프레임을 읽는 전용 쓰레드가 필요하므로 채널을 블로킹 모드로 바꾸어 넘기며, 이미 읽어둔 데이터는 입력 앞에 이어 붙입니다.
+     *
+     * @param upgradeRequest h2c 업그레이드 요청, 연결 서문으로 시작한 연결이라면 null
+     * @param upgradeResponse 업그레이드 요청의 HTTP/1.1 응답 메시지
+     * @see Http2Connection
+     * */
+    private void switchToHttp2(Request upgradeRequest, byte[] upgradeResponse) {
+        if (closed) return;
+        processing = true;
+        deadline.cancel();
+        byte[] buffered = Arrays.copyOf(readBuffer.array(), readBuffer.position());
+        ((Buffer) readBuffer).clear();
+        eventLoop.deregister(selectionKey, () -> {
+            try {
+                channel.configureBlocking(true);
+            } catch (IOException e) {
+                logger.debug("failed to switch to http2", e);
+                close();
+                return;
+            }
+            InputStream in = new BufferedInputStream(new SequenceInputStream(
+                    new ByteArrayInputStream(buffered), new BlockingChannelInputStream()));
+            Http2Connection connection = new Http2Connection(in, new BlockingChannelOutputStream(), channel, eventLoop.getWorkerExecutor());
+            if (upgradeRequest == null) {
+                connection.start();
+            } else if (!connection.startUpgrade(upgradeRequest, upgradeResponse)) {
+                close();
+            }
+        });
+    }
+
+    /**
+     * 웹소켓 핸드셰이크 응답을 보내고 연결을 웹소켓 연결로 전환합니다. 핸드셰이크에 실패했다면 응답을 보낸 후 연결을 닫습니다.
+     *
+     * @param request 업그레이드 요청
+     * @param outputStream 응답 스트림
+     * @throws IOException 응답을 쓰다가 오류 발생시
+     * */
+    private void upgradeToWebSocket(Request request, ChannelOutputStream outputStream) throws IOException {
+        byte[] response = WebSocketConnection.createHandshakeResponse(request);
+        outputStream.write(response);
+        if (!WebSocketConnection.isAccepted(response)) {
+            finishResponse(outputStream, false);
+            return;
+        }
+        WebSocketConnection connection = new WebSocketConnection(request, outputStream, eventLoop.getWorkerExecutor(),
+                () -> eventLoop.execute(this::closeAfterWrite));
+        outputStream.flush();
+        eventLoop.execute(() -> switchToWebSocket(connection));
+    }
+
+    /**
+     * 연결을 웹소켓 연결로 전환합니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     * 이후 읽은 데이터는 이벤트 루프 쓰레드에서 바로 프레임으로 풀고, 메시지만 워커 쓰레드에서 리스너에 전달하므로 유휴 연결은 쓰레드를 차지하지 않습니다.
+     *
+     * @param connection 웹소켓 연결
+     * @see WebSocketConnection
+     * */
+    private void switchToWebSocket(WebSocketConnection connection) {
+        if (closed) {
+            connection.onTransportClosed();
+            return;
+        }
+        webSocket = connection;
+        deadline.cancel();
+        connection.start();
+        selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_READ);
+        if (readBuffer.position() > 0) {
+            connection.onData(readBuffer.array(), 0, readBuffer.position());
+            ((Buffer) readBuffer).clear();
+        }
+    }
+
+    /**
+     * 응답 버퍼나 파일 영역을 쓰기 큐에 추가합니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     *
+     * @param write 응답 버퍼 혹은 파일 영역
+     * */
+    private void enqueueWrite(PendingWrite write) {
+        if (closed || closeAfterWrite) {
+            write.release();
+            return;
+        }
+        responseStarted = true;
+        writeQueue.add(write);
+        flushWriteQueue();
+    }
+
+    /**
+     * 쓰기 큐의 버퍼를 소켓이 받을 수 있는 만큼 씁니다. 다 쓰지 못하면 쓰기 이벤트를 기다립니다.
+     * 연속된 버퍼는 한 번의 호출로 모아서 쓰고, 파일 영역은 FileChannel.transferTo로 힙을 거치지 않고 씁니다.
+     * */
+    private void flushWriteQueue() {
+        try {
+            while (!writeQueue.isEmpty()) {
+                if (writeQueue.peek() instanceof FileRegion) {
+                    releasePendingWrite(((FileRegion) writeQueue.peek()).transferTo(channel));
+                } else {
+                    releasePendingWrite(channel.write(collectBuffers()));
+                }
+                while (!writeQueue.isEmpty() && writeQueue.peek().isDone()) {
+                    writeQueue.poll().release();
+                }
+                if (!writeQueue.isEmpty()) {
+                    selectionKey.interestOps(selectionKey.interestOps() | SelectionKey.OP_WRITE);
+                    updateDeadline();
+                    return;
+                }
+            }
+            selectionKey.interestOps(selectionKey.interestOps() & ~SelectionKey.OP_WRITE);
+            if (closeAfterWrite) {
+                close();
+                return;
+            }
+            updateDeadline();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private ByteBuffer[] collectBuffers() {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (PendingWrite write : writeQueue) {
+            if (!(write instanceof BufferWrite)) break;
+            buffers.add(((BufferWrite) write).buffer);
+        }
+        return buffers.toArray(new ByteBuffer[0]);
+    }
+
+    /**
+     * 소켓에 쓴 만큼 대기 중인 응답 크기를 줄이고, 쓰기 한도 아래로 내려가면 기다리던 워커 쓰레드를 깨웁니다.
+     *
+     * @param written 소켓에 쓴 바이트 수
+     * */
+    private void releasePendingWrite(long written) {
+        writeLock.lock();
+        try {
+            pendingWriteBytes = Math.max(pendingWriteBytes - written, 0);
+            if (pendingWriteBytes <= WRITE_HIGH_WATER_MARK) {
+                writable.signalAll();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void addPendingWrite(long bytes) {
+        writeLock.lock();
+        try {
+            pendingWriteBytes += bytes;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 아직 소켓에 쓰지 못한 응답이 쓰기 한도를 넘으면 줄어들 때 까지 워커 쓰레드를 기다리게 합니다.
+     * 스트리밍 응답이 클라이언트가 받는 속도보다 빠르게 만들어져도 메모리에 쌓이지 않도록 합니다.
+     *
+     * @throws IOException 기다리는 중 연결이 닫히면
+     * */
+    private void awaitWritable() throws IOException {
+        if (eventLoop.inEventLoop()) return;
+        writeLock.lock();
+        try {
+            while (pendingWriteBytes > WRITE_HIGH_WATER_MARK && !closed) {
+                try {
+                    writable.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for socket write");
+                }
+            }
+        } finally {
+            writeLock.unlock();
+        }
+        if (closed) throw new IOException("connection closed");
+    }
+
+    /**
+     * 남은 응답을 모두 쓴 후 연결을 닫도록 표시합니다.
+     * */
+    private void closeAfterWrite() {
+        this.closeAfterWrite = true;
+        if (writeQueue.isEmpty()) {
+            close();
+        }
+    }
+
+    /**
+     * 연결을 닫습니다.
+     * */
+    void close() {
+        if (closed) return;
+        closed = true;
+        deadline.cancel();
+        for (PendingWrite write : writeQueue) {
+            write.release();
+        }
+        writeQueue.clear();
+        if (bodyPipe != null) {
+            bodyPipe.fail(new IOException("connection closed"));
+            bodyPipe = null;
+        }
+        if (webSocket != null) {
+            webSocket.onTransportClosed();
+        }
+        writeLock.lock();
+        try {
+            writable.signalAll();
+        } finally {
+            writeLock.unlock();
+        }
+        if (selectionKey != null) {
+            selectionKey.cancel();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            logger.debug("channel close error", e);
+        }
+    }
+
+    /**
+     * 바디를 모두 모은 후 넘기지 않고 워커 쓰레드로 스트리밍해야 하는 요청이라면 바디의 끝을 찾는 방법을 반환합니다.
+     * Transfer-Encoding: chunked 요청과 바디가 설정된 크기보다 큰 요청이 해당됩니다.
+     *
+     * @param head 헤더를 모두 읽은 파서
+     * @return 바디의 끝을 찾는 방법, 스트리밍하지 않는 요청이라면 null
+     * */
+    private static BodyFraming createStreamingFraming(RequestHeadParser head) {
+        if (head.isChunked()) return new ChunkedBodyFraming();
+        return head.getContentLength() > MAX_BUFFERED_BODY_SIZE ? new ContentLengthBodyFraming(head.getContentLength()) : null;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buffer) {
+        ByteBuffer newBuffer = ByteBuffer.allocate(buffer.capacity() * 2);
+        ((Buffer) buffer).flip();
+        newBuffer.put(buffer);
+        return newBuffer;
+    }
+
+    /**
+     * 이벤트 루프가 소켓에서 읽은 요청 바디를 워커 쓰레드에 넘기는 파이프입니다.
+     * 정해진 크기만큼만 담아두며, 워커가 절반 이상 읽으면 이벤트 루프가 다시 소켓을 읽도록 합니다.
+     * */
+    private class RequestBodyPipe extends InputStream {
+
+        private final BodyFraming framing;
+
+        private final Deque<byte[]> chunks = new ArrayDeque<>();
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Condition readable = lock.newCondition();
+
+        private byte[] current;
+
+        private int position;
+
+        private int buffered;
+
+        private boolean paused;
+
+        private boolean finished;
+
+        private IOException failure;
+
+        private RequestBodyPipe(BodyFraming framing) {
+            this.framing = framing;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            lock.lock();
+            try {
+                while (current == null && chunks.isEmpty() && !finished && failure == null) {
+                    try {
+                        readable.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("interrupted while reading request body");
+                    }
+                }
+                if (failure != null) throw failure;
+                if (current == null) {
+                    current = chunks.poll();
+                    position = 0;
+                    if (current == null) return -1;
+                }
+                int read = Math.min(len, current.length - position);
+                System.arraycopy(current, position, b, off, read);
+                position += read;
+                if (position == current.length) {
+                    current = null;
+                }
+                buffered -= read;
+                if (paused && buffered <= BODY_PIPE_CAPACITY / 2) {
+                    paused = false;
+                    eventLoop.execute(NioConnection.this::feedBody);
+                }
+                return read;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public int available() {
+            lock.lock();
+            try {
+                return buffered;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * 읽기 버퍼에서 바디에 해당하는 데이터를 담을 수 있는 만큼 옮깁니다. 가득 찼다면 워커가 읽어서 비울 때 까지 멈춘 상태로 표시합니다.
+         * 워커가 읽는 중에 멈춤 여부가 바뀌지 않도록 한 번에 처리합니다.
+         *
+         * @param readBuffer 연결의 읽기 버퍼
+         * @return 멈춤 여부
+         * */
+        boolean feed(ByteBuffer readBuffer) {
+            lock.lock();
+            try {
+                int capacity = Math.max(BODY_PIPE_CAPACITY - buffered, 0);
+                int length = framing.consume(readBuffer.array(), 0, Math.min(readBuffer.position(), capacity));
+                if (length > 0) {
+                    chunks.add(Arrays.copyOf(readBuffer.array(), length));
+                    buffered += length;
+                    ((Buffer) readBuffer).flip();
+                    ((Buffer) readBuffer).position(length);
+                    readBuffer.compact();
+                    readable.signalAll();
+                }
+                paused = buffered >= BODY_PIPE_CAPACITY;
+                return paused;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isPaused() {
+            lock.lock();
+            try {
+                return paused;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void finish() {
+            lock.lock();
+            try {
+                finished = true;
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void fail(IOException e) {
+            lock.lock();
+            try {
+                if (finished) return;
+                failure = e;
+                readable.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * 이벤트 루프에서 요청 바디가 어디서 끝나는지 찾습니다. 바디의 내용은 워커 쓰레드의 요청 파서가 해석합니다.
+     * */
+    private interface BodyFraming {
+
+        /**
+         * 주어진 데이터 중 바디에 해당하는 바이트 수를 반환합니다.
+         *
+         * @param data 읽은 데이터
+         * @param offset 시작 위치
+         * @param length 데이터 길이
+         * @return 바디에 해당하는 바이트 수
+         * */
+        int consume(byte[] data, int offset, int length);
+
+        boolean isComplete();
+
+        /**
+         * 바디의 형식이 잘못되어 더 이상 끝을 찾을 수 없는지 확인합니다.
+         *
+         * @return 형식 오류 여부
+         * */
+        default boolean isFailed() {
+            return false;
+        }
+    }
+
+    private static class ContentLengthBodyFraming implements BodyFraming {
+
+        private long remaining;
+
+        private ContentLengthBodyFraming(long contentLength) {
+            this.remaining = contentLength;
+        }
+
+        @Override
+        public int consume(byte[] data, int offset, int length) {
+            int consumed = (int) Math.min(length, remaining);
+            remaining -= consumed;
+            return consumed;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return remaining == 0;
+        }
+    }
+
+    /**
+     * 청크 크기 줄, 청크 데이터, 마지막 청크 뒤의 트레일러를 따라가며 chunked 바디의 끝을 찾습니다.
+     * 청크 데이터 바로 뒤에 빈 줄이 오지 않으면 형식 오류로 봅니다.
+     * */
+    private static class ChunkedBodyFraming implements BodyFraming {
+
+        private static final int SIZE = 0, EXTENSION = 1, DATA = 2, DATA_END = 3, TRAILER = 4, COMPLETE = 5, FAILED = 6;
+
+        /**
+         * 청크 크기에 허용하는 16진수 자릿수입니다. long 범위를 넘지 않도록 합니다.
+         * */
+        private static final int MAX_CHUNK_SIZE_DIGITS = 15;
+
+        private int state = SIZE;
+
+        private long chunkSize;
+
+        private int sizeDigits;
+
+        private int lineLength;
+
+        @Override
+        public int consume(byte[] data, int offset, int length) {
+            int i = offset;
+            int end = offset + length;
+            while (i < end && state != COMPLETE && state != FAILED) {
+                if (state == DATA) {
+                    int skip = (int) Math.min(end - i, chunkSize);
+                    chunkSize -= skip;
+                    i += skip;
+                    if (chunkSize == 0) state = DATA_END;
+                    continue;
+                }
+                byte b = data[i++];
+                if (state == SIZE || state == EXTENSION) {
+                    if (b == '\n') {
+                        state = sizeDigits == 0 ? FAILED : chunkSize == 0 ? TRAILER : DATA;
+                        sizeDigits = 0;
+                        lineLength = 0;
+                    } else if (b == ';') {
+                        state = EXTENSION;
+                    } else if (state == SIZE && Character.digit(b, 16) != -1) {
+                        if (++sizeDigits > MAX_CHUNK_SIZE_DIGITS) {
+                            state = FAILED;
+                            return i - offset;
+                        }
+                        chunkSize = chunkSize * 16 + Character.digit(b, 16);
+                    }
+                } else if (state == DATA_END) {
+                    if (b == '\n') {
+                        state = SIZE;
+                        lineLength = 0;
+                    } else if (b == '\r' && lineLength == 0) {
+                        lineLength++;
+                    } else {
+                        state = FAILED;
+                        return i - offset;
+                    }
+                } else if (b == '\n') {
+                    if (lineLength == 0) state = COMPLETE;
+                    lineLength = 0;
+                } else if (b != '\r') {
+                    lineLength++;
+                }
+            }
+            return i - offset;
+        }
+
+        @Override
+        public boolean isComplete() {
+            return state == COMPLETE;
+        }
+
+        @Override
+        public boolean isFailed() {
+            return state == FAILED;
+        }
+    }
+
+    /**
+     * 블로킹 모드로 전환한 채널에서 읽는 입력 스트림입니다.
+     * 소켓 어댑터의 스트림은 읽는 동안 쓰기를 막으므로, 읽기와 쓰기가 동시에 일어나는 HTTP/2 연결에서는 채널을 직접 사용합니다.
+     * */
+    private class BlockingChannelInputStream extends InputStream {
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            return channel.read(ByteBuffer.wrap(b, off, len));
+        }
+    }
+
+    /**
+     * 블로킹 모드로 전환한 채널에 쓰는 출력 스트림입니다.
+     * */
+    private class BlockingChannelOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{ (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(b, off, len);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * 쓰기 큐에서 소켓에 쓰기를 기다리는 데이터입니다.
+     * */
+    private interface PendingWrite {
+
+        boolean isDone();
+
+        void release();
+    }
+
+    private static class BufferWrite implements PendingWrite {
+
+        private final ByteBuffer buffer;
+
+        private BufferWrite(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public boolean isDone() {
+            return !buffer.hasRemaining();
+        }
+
+        @Override
+        public void release() {
+        }
+    }
+
+    /**
+     * 소켓에 보낼 파일의 영역입니다. 다 보내거나 연결이 닫히면 파일 채널을 닫습니다.
+     * */
+    private static class FileRegion implements PendingWrite {
+
+        private final FileChannel file;
+
+        private long position;
+
+        private long remaining;
+
+        private FileRegion(FileChannel file, long position, long count) {
+            this.file = file;
+            this.position = position;
+            this.remaining = count;
+        }
+
+        /**
+         * 소켓이 받을 수 있는 만큼 파일을 보냅니다.
+         *
+         * @param channel 소켓 채널
+         * @return 보낸 바이트 수
+         * @throws IOException 파일이 보낼 영역보다 짧아졌거나 쓰다가 오류 발생시
+         * */
+        long transferTo(SocketChannel channel) throws IOException {
+            long written = file.transferTo(position, remaining, channel);
+            if (written == 0 && position >= file.size()) throw new IOException("file truncated during transfer");
+            position += written;
+            remaining -= written;
+            return written;
+        }
+
+        @Override
+        public boolean isDone() {
+            return remaining == 0;
+        }
+
+        @Override
+        public void release() {
+            try {
+                file.close();
+            } catch (IOException e) {
+                logger.debug("file close error", e);
+            }
+        }
+    }
+
+    /**
+     * 워커 쓰레드가 작성한 응답을 모았다가 flush 시점에 이벤트 루프로 넘기는 출력 스트림입니다.
+     * 모아둔 응답이 일정 크기를 넘으면 flush를 기다리지 않고 넘겨서 큰 응답도 만들어지는 대로 보냅니다.
+     * 정적 파일은 힙에 읽지 않고 파일 영역으로 넘겨 이벤트 루프가 소켓으로 바로 보냅니다.
+     * */
+    private class ChannelOutputStream extends OutputStream implements FileTransfer {
+
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+
+        @Override
+        public void write(int b) throws IOException {
+            buffer.write(b);
+            flushIfFull();
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            buffer.write(b, off, len);
+            flushIfFull();
+        }
+
+        private void flushIfFull() throws IOException {
+            if (buffer.size() >= MAX_BUFFERED_RESPONSE_SIZE) {
+                flush();
+            }
+        }
+
+        /**
+         * 모아둔 응답을 쓰기 큐에 넘깁니다. 소켓에 쓰지 못한 응답이 쓰기 한도를 넘으면 줄어들 때 까지 기다립니다.
+         *
+         * @throws IOException 연결이 닫혔다면
+         * */
+        @Override
+        public void flush() throws IOException {
+            if (buffer.size() == 0) return;
+            if (closed) throw new IOException("connection closed");
+            ByteBuffer data = ByteBuffer.wrap(buffer.toByteArray());
+            buffer.reset();
+            addPendingWrite(data.remaining());
+            eventLoop.execute(() -> enqueueWrite(new BufferWrite(data)));
+            awaitWritable();
+        }
+
+        /**
+         * 모아둔 응답을 넘긴 후 파일 영역을 쓰기 큐에 넘깁니다. 파일 채널은 전송이 끝나면 이벤트 루프에서 닫습니다.
+         *
+         * @throws IOException 연결이 닫혔거나 파일을 열다가 오류 발생시
+         * */
+        @Override
+        public void transferFile(Path path, long position, long count) throws IOException {
+            flush();
+            if (count == 0) return;
+            if (closed) throw new IOException("connection closed");
+            FileRegion region = new FileRegion(FileChannel.open(path, StandardOpenOption.READ), position, count);
+            addPendingWrite(count);
+            eventLoop.execute(() -> enqueueWrite(region));
+            awaitWritable();
+        }
+    }
+
+}
@@ -0,0 +1,254 @@
+package org.sam.server.http.context;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * 하나의 Selector를 소유하고 등록된 연결의 읽기/쓰기 이벤트를 처리하는 이벤트 루프입니다.
+ * 채널에 대한 모든 조작은 이벤트 루프 쓰레드에서만 수행되며, 다른 쓰레드는 execute 메서드로 작업을 전달합니다.
+ *
+ * @author hypernova1
+ * @see NioServer
+ * @see NioConnection
+ */
+class NioEventLoop implements Runnable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioEventLoop.class);
+
+    private final Selector selector;
+
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    private final List<Runnable> deregisteredTasks = new ArrayList<>();
+
+    private final Executor workerExecutor;
+
+    private final Thread thread;
+
+    private volatile boolean shuttingDown;
+
+    NioEventLoop(String name, Executor workerExecutor) throws IOException {
+        this.selector = Selector.open();
+        this.workerExecutor = workerExecutor;
+        this.thread = new Thread(this, name);
+    }
+
+    /**
+     * 이벤트 루프 쓰레드를 시작합니다.
+     * */
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * 새로 수락한 연결을 이벤트 루프에 등록합니다.
+     *
+     * @param channel 클라이언트 채널
+     * */
+    void register(SocketChannel channel) {
+        execute(() -> {
+            try {
+                NioConnection connection = new NioConnection(this, channel);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ, connection);
+                connection.setSelectionKey(key);
+            } catch (ClosedChannelException e) {
+                logger.debug("channel closed before registration");
+            }
+        });
+    }
+
+    /**
+     * 연결을 이벤트 루프에서 제외합니다. 채널은 다음 select에서 Selector와의 등록이 해제된 후에야 블로킹 모드로 바꿀 수 있으므로,
+     * 전달한 작업은 등록이 해제된 후 이벤트 루프 쓰레드에서 실행됩니다. 이벤트 루프 쓰레드에서 호출되어야 합니다.
+     *
+     * @param key 제외할 연결의 키
+     * @param task 등록 해제 후 실행할 작업
+     * */
+    void deregister(SelectionKey key, Runnable task) {
+        key.cancel();
+        deregisteredTasks.add(task);
+        selector.wakeup();
+    }
+
+    /**
+     * 이벤트 루프 쓰레드에서 실행할 작업을 추가합니다.
+     *
+     * @param task 실행할 작업
+     * */
+    void execute(Runnable task) {
+        tasks.add(task);
+        if (!inEventLoop()) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * 현재 쓰레드가 이벤트 루프 쓰레드인지 확인합니다.
+     *
+     * @return 이벤트 루프 쓰레드 여부
+     * */
+    boolean inEventLoop() {
+        return Thread.currentThread() == thread;
+    }
+
+    /**
+     * 완성된 요청을 처리할 워커 쓰레드 풀을 반환합니다.
+     *
+     * @return 워커 쓰레드 풀
+     * */
+    Executor getWorkerExecutor() {
+        return workerExecutor;
+    }
+
+    /**
+     * 처리 중인 요청이 없는 연결부터 닫고, 모든 연결이 닫히면 이벤트 루프를 종료합니다.
+     * 처리 중인 연결은 응답을 마친 후 닫힙니다.
+     * */
+    void shutdownGracefully() {
+        shuttingDown = true;
+        selector.wakeup();
+    }
+
+    /**
+     * 이벤트 루프가 종료될 때 까지 기다립니다.
+     *
+     * @param timeoutMillis 최대 대기 시간
+     * @return 종료 여부
+     * @throws InterruptedException 대기 중 인터럽트가 발생하면
+     * */
+    boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        thread.join(Math.max(timeoutMillis, 1));
+        return !thread.isAlive();
+    }
+
+    /**
+     * 남은 연결을 모두 닫고 이벤트 루프를 즉시 종료합니다.
+     * */
+    void shutdownNow() {
+        thread.interrupt();
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    selector.select(shuttingDown ? 100 : 0);
+                    runDeregisteredTasks();
+                    processSelectedKeys();
+                    runTasks();
+                    if (shuttingDown) {
+                        closeDrainedConnections();
+                        if (selector.keys().isEmpty()) break;
+                    }
+                } catch (IOException e) {
+                    logger.error("event loop error", e);
+                }
+            }
+        } finally {
+            closeAllConnections();
+        }
+    }
+
+    /**
+     * 다른 쓰레드나 이벤트 처리 중에 전달한 작업을 실행합니다. 이벤트 처리 중에 추가된 작업도 다음 이벤트를 기다리기 전에 실행되도록 이벤트를 처리한 후 호출합니다.
+     * */
+    private void runTasks() {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("event loop task error", e);
+            }
+        }
+    }
+
+    /**
+     * 등록이 해제된 연결에 대한 작업을 실행합니다.
+     * */
+    private void runDeregisteredTasks() {
+        if (deregisteredTasks.isEmpty()) return;
+        List<Runnable> pending = new ArrayList<>(deregisteredTasks);
+        deregisteredTasks.clear();
+        for (Runnable task : pending) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                logger.error("event loop task error", e);
+            }
+        }
+    }
+
+    /**
+     * 종료 중일 때 처리 중인 요청과 남은 응답이 없는 연결을 닫습니다.
+     * */
+    private void closeDrainedConnections() {
+        for (SelectionKey key : selector.keys()) {
+            NioConnection connection = (NioConnection) key.attachment();
+            if (connection != null) {
+                connection.closeIfDrained();
+            }
+        }
+    }
+
+    /**
+     * 남은 연결과 Selector를 닫습니다.
+     * */
+    private void closeAllConnections() {
+        runTasks();
+        for (SelectionKey key : selector.keys()) {
+            NioConnection connection = (NioConnection) key.attachment();
+            if (connection != null) {
+                connection.close();
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            logger.debug("selector close error", e);
+        }
+        runDeregisteredTasks();
+    }
+
+    /**
+     * 준비된 키의 읽기/쓰기 이벤트를 연결에 전달합니다.
+     * */
+    private void processSelectedKeys() {
+        Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+            SelectionKey key = iterator.next();
+            iterator.remove();
+            NioConnection connection = (NioConnection) key.attachment();
+            if (!key.isValid()) {
+                connection.close();
+                continue;
+            }
+            try {
+                if (key.isReadable()) {
+                    connection.onReadable();
+                }
+                if (key.isValid() && key.isWritable()) {
+                    connection.onWritable();
+                }
+            } catch (RuntimeException e) {
+                logger.error("connection error", e);
+                connection.close();
+            }
+        }
+    }
+
+}
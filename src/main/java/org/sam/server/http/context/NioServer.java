@@ -0,0 +1,126 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * ServerSocketChannel 기반의 논블로킹 전송 계층입니다.
+ * 수락한 연결을 이벤트 루프에 골고루 분배하고, 이벤트 루프가 읽은 완성된 요청은 워커 쓰레드 풀에서 처리됩니다.
+ *
+ * @author hypernova1
+ * @see NioEventLoop
+ * @see NioConnection
+ */
+class NioServer {
+
+    private static final Logger logger = LoggerFactory.getLogger(NioServer.class);
+
+    private final ServerSocketChannel serverSocketChannel;
+
+    private final NioEventLoop[] eventLoops;
+
+    private final AtomicInteger nextEventLoop = new AtomicInteger();
+
+    private NioServer(ServerSocketChannel serverSocketChannel, NioEventLoop[] eventLoops) {
+        this.serverSocketChannel = serverSocketChannel;
+        this.eventLoops = eventLoops;
+    }
+
+    /**
+     * 서버 소켓 채널을 열고 이벤트 루프 쓰레드를 시작합니다.
+     *
+     * @param eventLoopThreads 이벤트 루프 쓰레드 수
+     * @param workerExecutor 요청을 처리할 워커 쓰레드 풀
+     * @return NioServer 인스턴스
+     * @throws IOException 서버 소켓 채널 생성시 오류가 발생하면
+     * */
+    static NioServer open(int eventLoopThreads, Executor workerExecutor) throws IOException {
+        ServerSocketChannel serverSocketChannel = ServerSocketFactory.createServerSocketChannel();
+        NioEventLoop[] eventLoops = new NioEventLoop[eventLoopThreads];
+        for (int i = 0; i < eventLoopThreads; i++) {
+            eventLoops[i] = new NioEventLoop("nio-event-loop-" + i, workerExecutor);
+            eventLoops[i].start();
+        }
+        return new NioServer(serverSocketChannel, eventLoops);
+    }
+
+    /**
+     * 서버가 종료될 때 까지 연결을 수락하여 이벤트 루프에 등록합니다. 호출한 쓰레드 외에 추가 수락 쓰레드를 시작합니다.
+     *
+     * @param acceptorThreads 연결을 수락할 쓰레드 수
+     * */
+    void acceptLoop(int acceptorThreads) {
+        for (int i = 1; i < acceptorThreads; i++) {
+            Thread acceptor = new Thread(this::acceptLoop, "nio-acceptor-" + i);
+            acceptor.start();
+        }
+        acceptLoop();
+    }
+
+    private void acceptLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                SocketChannel channel = serverSocketChannel.accept();
+                long acceptedAt = System.nanoTime();
+                ServerSocketFactory.configureSocket(channel.socket());
+                channel.configureBlocking(false);
+                nextEventLoop().register(channel);
+                ServerMetrics.recordAccept(System.nanoTime() - acceptedAt);
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                logger.error("accept error", e);
+            }
+        }
+    }
+
+    /**
+     * 연결 수락을 멈추고, 열린 연결이 응답을 마치고 닫힐 때 까지 기다립니다. 기한이 지나면 남은 연결을 강제로 닫습니다.
+     *
+     * @param deadline 종료 기한 (System.nanoTime 기준)
+     * @return 기한 내에 모든 연결이 닫혔는지 여부
+     * @throws InterruptedException 대기 중 인터럽트가 발생하면
+     * */
+    boolean shutdownGracefully(long deadline) throws InterruptedException {
+        try {
+            serverSocketChannel.close();
+        } catch (IOException e) {
+            logger.debug("server socket channel close error", e);
+        }
+        for (NioEventLoop eventLoop : eventLoops) {
+            eventLoop.shutdownGracefully();
+        }
+        boolean terminated = true;
+        for (NioEventLoop eventLoop : eventLoops) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (!eventLoop.awaitTermination(remainingMillis)) {
+                eventLoop.shutdownNow();
+                terminated = false;
+            }
+        }
+        return terminated;
+    }
+
+    /**
+     * 서버 소켓 채널의 포트 번호를 반환합니다.
+     *
+     * @return 포트 번호
+     * */
+    int getLocalPort() {
+        return serverSocketChannel.socket().getLocalPort();
+    }
+
+    private NioEventLoop nextEventLoop() {
+        return eventLoops[Math.floorMod(nextEventLoop.getAndIncrement(), eventLoops.length)];
+    }
+
+}
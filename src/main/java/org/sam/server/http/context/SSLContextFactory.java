@@ -0,0 +1,161 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSessionContext;
+import javax.net.ssl.SSLSocket;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 서버 전용 SSLContext를 생성하고 SSL 서버 소켓을 설정하는 클래스입니다.
+ * 키 저장소는 JVM 전역 시스템 속성이 아닌 서버의 SSLContext에만 적용하며, 디버그 출력은 설정한 경우에만 활성화합니다.
+ *
+ * @author hypernova1
+ * @see ServerSocketFactory
+ */
+class SSLContextFactory {
+
+    private static final Logger logger = LoggerFactory.getLogger(SSLContextFactory.class);
+
+    private static final String SESSION_TICKET_PROPERTY = "jdk.tls.server.enableSessionTicketExtension";
+
+    private SSLContextFactory() {}
+
+    /**
+     * 키 저장소를 읽어 SSLContext를 생성하고 서버 세션 캐시를 설정합니다.
+     * 세션 티켓은 JDK 13 이상에서만 적용되며, 이미 시스템 속성으로 지정되어 있다면 그 값을 따릅니다.
+     *
+     * @param keyStorePath 키 저장소 파일 경로
+     * @param password 키 저장소 비밀번호
+     * @return SSLContext
+     * @throws IOException 키 저장소를 읽지 못하거나 SSLContext를 초기화하지 못하면
+     * */
+    static SSLContext create(String keyStorePath, String password) throws IOException {
+        String debug = ServerProperties.get("server.ssl.debug");
+        if (debug != null && !debug.isEmpty()) {
+            System.setProperty("javax.net.debug", debug);
+        }
+        if (System.getProperty(SESSION_TICKET_PROPERTY) == null) {
+            System.setProperty(SESSION_TICKET_PROPERTY, String.valueOf(ServerProperties.getBoolean("server.ssl.session-tickets", true)));
+        }
+        char[] passwordChars = password != null ? password.toCharArray() : null;
+        try (InputStream in = new FileInputStream(keyStorePath)) {
+            KeyStore keyStore = KeyStore.getInstance(getKeyStoreType(keyStorePath));
+            keyStore.load(in, passwordChars);
+            KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+            keyManagerFactory.init(keyStore, passwordChars);
+
+            SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+            SSLSessionContext sessionContext = sslContext.getServerSessionContext();
+            sessionContext.setSessionCacheSize(ServerProperties.getInt("server.ssl.session-cache-size", 20480));
+            sessionContext.setSessionTimeout(ServerProperties.getInt("server.ssl.session-timeout", 86400));
+            return sslContext;
+        } catch (GeneralSecurityException e) {
+            throw new IOException("failed to initialize SSLContext", e);
+        }
+    }
+
+    /**
+     * 설정된 프로토콜과 암호화 스위트를 SSL 서버 소켓에 적용합니다. 지원하지 않는 값은 경고 후 무시합니다.
+     *
+     * @param serverSocket SSL 서버 소켓
+     * */
+    static void configure(SSLServerSocket serverSocket) {
+        SSLParameters parameters = serverSocket.getSSLParameters();
+        String[] protocols = select("server.ssl.protocols", serverSocket.getSupportedProtocols());
+        if (protocols != null) {
+            parameters.setProtocols(protocols);
+        }
+        String[] cipherSuites = select("server.ssl.ciphers", serverSocket.getSupportedCipherSuites());
+        if (cipherSuites != null) {
+            parameters.setCipherSuites(cipherSuites);
+        }
+        parameters.setUseCipherSuitesOrder(true);
+        if (Http2Connection.ENABLED) {
+            setApplicationProtocols(parameters, "h2", "http/1.1");
+        }
+        serverSocket.setSSLParameters(parameters);
+        logger.info("ssl protocols: " + Arrays.toString(parameters.getProtocols()));
+    }
+
+    /**
+     * 쉼표로 구분된 설정 값 중 지원하는 값만 설정 순서대로 반환합니다.
+     *
+     * @param key 설정 키
+     * @param supported 지원하는 값 목록
+     * @return 적용할 값 목록, 설정이 없다면 null
+     * */
+    private static String[] select(String key, String[] supported) {
+        String value = ServerProperties.get(key);
+        if (value == null || value.trim().isEmpty()) return null;
+        List<String> supportedList = Arrays.asList(supported);
+        List<String> selected = new ArrayList<>();
+        for (String item : value.split(",")) {
+            String name = item.trim();
+            if (name.isEmpty()) continue;
+            if (supportedList.contains(name)) {
+                selected.add(name);
+            } else {
+                logger.warn("unsupported " + key + " value ignored: " + name);
+            }
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("no supported value in " + key + ": " + value);
+        }
+        return selected.toArray(new String[0]);
+    }
+
+    /**
+     * ALPN으로 협상할 프로토콜을 설정합니다. Java 8 초기 버전과 같이 ALPN을 지원하지 않는 JDK에서는 경고 후 HTTP/1.1만 사용합니다.
+     *
+     * @param parameters SSL 파라미터
+     * @param protocols 선호 순서대로 나열한 프로토콜 목록
+     * */
+    private static void setApplicationProtocols(SSLParameters parameters, String... protocols) {
+        try {
+            Method method = SSLParameters.class.getMethod("setApplicationProtocols", String[].class);
+            method.invoke(parameters, (Object) protocols);
+        } catch (ReflectiveOperationException e) {
+            logger.warn("ALPN is not supported by this JDK, HTTP/2 over TLS is disabled");
+        }
+    }
+
+    /**
+     * 핸드셰이크에서 ALPN으로 협상된 프로토콜을 반환합니다.
+     *
+     * @param socket 핸드셰이크를 마친 SSL 소켓
+     * @return 협상된 프로토콜, 협상하지 않았거나 ALPN을 지원하지 않는다면 null
+     * */
+    static String getApplicationProtocol(SSLSocket socket) {
+        try {
+            Method method = SSLSocket.class.getMethod("getApplicationProtocol");
+            return (String) method.invoke(socket);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private static String getKeyStoreType(String keyStorePath) {
+        String type = ServerProperties.get("key-store.type");
+        if (type != null) return type;
+        String lowerCasePath = keyStorePath.toLowerCase();
+        if (lowerCasePath.endsWith(".p12") || lowerCasePath.endsWith(".pfx")) return "PKCS12";
+        return KeyStore.getDefaultType();
+    }
+
+}
@@ -2,12 +2,27 @@ package org.sam.server.http.context;
 
 import org.sam.server.common.ServerProperties;
 
-import javax.net.ssl.SSLServerSocketFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
 import java.io.IOException;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.channels.ServerSocketChannel;
 
 public class ServerSocketFactory {
 
+    private static final int BACKLOG = ServerProperties.getInt("server.backlog", 1024);
+
+    private static final boolean TCP_NO_DELAY = ServerProperties.getBoolean("server.socket.tcp-no-delay", true);
+
+    private static final boolean KEEP_ALIVE = ServerProperties.getBoolean("server.socket.keep-alive", false);
+
+    private static final int RECEIVE_BUFFER_SIZE = ServerProperties.getInt("server.socket.receive-buffer-size", 0);
+
+    private static final int SEND_BUFFER_SIZE = ServerProperties.getInt("server.socket.send-buffer-size", 0);
+
     /**
      * 서버 소켓을 생성합니다.
      *
@@ -18,32 +33,91 @@ public class ServerSocketFactory {
      * @see javax.net.ssl.SSLServerSocket
      * */
     protected static ServerSocket createServerSocket() throws IOException {
-        String keyStore = ServerProperties.get("key-store");
+        String keyStore = getKeyStore();
         String keyStorePassword = ServerProperties.get("key-store.password");
-        String propertiesPort = ServerProperties.get("server.port");
-        int port = (propertiesPort != null) ? Integer.parseInt(propertiesPort) : 8080;
-        if (System.getenv("PORT") != null) port = Integer.parseInt(System.getenv("PORT"));
-        return keyStore != null ? createSSLServerSocket(keyStore, keyStorePassword, port) : new ServerSocket(port);
+        int port = getPort();
+        ServerSocket serverSocket = keyStore != null ? createSSLServerSocket(keyStore, keyStorePassword) : new ServerSocket();
+        bind(serverSocket, port);
+        return serverSocket;
     }
 
     /**
-     * SSL 서버 소켓을 생성합니다.
+     * NIO 전송 계층에서 사용할 서버 소켓 채널을 생성합니다.
      *
-     * @param keyStore keyStore 이름
-     * @param password keyStore 비밀번호
+     * @return 서버 소켓 채널
+     * @throws IOException 서버 소켓 채널 생성시 오류가 발생하면
+     * @see java.nio.channels.ServerSocketChannel
+     * */
+    protected static ServerSocketChannel createServerSocketChannel() throws IOException {
+        ServerSocketChannel serverSocketChannel = ServerSocketChannel.open();
+        bind(serverSocketChannel.socket(), getPort());
+        return serverSocketChannel;
+    }
+
+    /**
+     * 서버 소켓에 옵션을 설정하고 포트에 바인딩합니다. 수신 버퍼 크기는 수락한 소켓에 상속되도록 바인딩 전에 설정합니다.
+     *
+     * @param serverSocket 서버 소켓
      * @param port 포트 번호
-     * @return SSL 서버 소켓
+     * @throws IOException 바인딩에 실패하면
+     * */
+    private static void bind(ServerSocket serverSocket, int port) throws IOException {
+        serverSocket.setReuseAddress(true);
+        if (RECEIVE_BUFFER_SIZE > 0) {
+            serverSocket.setReceiveBufferSize(RECEIVE_BUFFER_SIZE);
+        }
+        serverSocket.bind(new InetSocketAddress(port), BACKLOG);
+    }
+
+    /**
+     * 수락한 클라이언트 소켓에 옵션을 설정합니다.
+     *
+     * @param socket 클라이언트 소켓
+     * @throws SocketException 옵션 설정에 실패하면
+     * */
+    protected static void configureSocket(Socket socket) throws SocketException {
+        socket.setTcpNoDelay(TCP_NO_DELAY);
+        socket.setKeepAlive(KEEP_ALIVE);
+        if (SEND_BUFFER_SIZE > 0) {
+            socket.setSendBufferSize(SEND_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * SSL에 사용할 keyStore 경로를 반환합니다.
+     *
+     * @return keyStore 경로, SSL을 사용하지 않는다면 null
+     * */
+    protected static String getKeyStore() {
+        return ServerProperties.get("key-store");
+    }
+
+    /**
+     * 서버 포트 번호를 반환합니다. PORT 환경 변수가 설정 파일보다 우선합니다.
+     *
+     * @return 포트 번호
+     * */
+    protected static int getPort() {
+        if (System.getenv("PORT") != null) return Integer.parseInt(System.getenv("PORT"));
+        return ServerProperties.getInt("server.port", 8080);
+    }
+
+    /**
+     * SSL 서버 소켓을 생성합니다. 키 저장소를 시스템 속성으로 지정하지 않고 서버 전용 SSLContext를 사용합니다.
+     *
+     * @param keyStore keyStore 파일 경로
+     * @param password keyStore 비밀번호
+     * @return 바인딩 되지 않은 SSL 서버 소켓
      * @throws IOException SSL 소켓 생성시에 네트워크 오류가 발생시
      * @see javax.net.ssl.SSLServerSocket
+     * @see SSLContextFactory
      * */
-    protected static ServerSocket createSSLServerSocket(String keyStore, String password, int port) throws IOException {
+    protected static ServerSocket createSSLServerSocket(String keyStore, String password) throws IOException {
         ServerProperties.setSSL();
-        System.setProperty("javax.net.ssl.keyStore", keyStore);
-        System.setProperty("javax.net.ssl.keyStorePassword", password);
-        System.setProperty("javax.net.debug", "ssl");
-        SSLServerSocketFactory sslserversocketfactory = (SSLServerSocketFactory) SSLServerSocketFactory.getDefault();
-
-        return sslserversocketfactory.createServerSocket(port);
+        SSLContext sslContext = SSLContextFactory.create(keyStore, password);
+        SSLServerSocket serverSocket = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket();
+        SSLContextFactory.configure(serverSocket);
+        return serverSocket;
     }
 
 }
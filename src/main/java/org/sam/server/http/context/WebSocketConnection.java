@@ -0,0 +1,492 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerProperties;
+import org.sam.server.constant.HttpHeader;
+import org.sam.server.constant.HttpMethod;
+import org.sam.server.context.BeanContainer;
+import org.sam.server.http.WebSocketListener;
+import org.sam.server.http.WebSocketSession;
+import org.sam.server.http.web.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 하나의 웹소켓 연결을 처리합니다. (RFC 6455)
+ * 전송 계층이 읽은 바이트를 프레임으로 풀어 핑/퐁, 종료, 나누어진 메시지를 처리하고, 완성된 메시지는 WebSocketListener에 전달합니다.
+ * 리스너는 넘겨받은 Executor에서 연결마다 한 번에 하나씩 순서대로 호출되므로, 메시지를 기다리는 동안에는 쓰레드를 점유하지 않습니다.
+ *
+ * @author hypernova1
+ * @see WebSocketFrame
+ * @see WebSocketListener
+ */
+class WebSocketConnection implements WebSocketSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConnection.class);
+
+    static final int PROTOCOL_ERROR = 1002;
+    static final int NO_STATUS = 1005;
+    static final int ABNORMAL_CLOSURE = 1006;
+    static final int INVALID_PAYLOAD = 1007;
+    static final int MESSAGE_TOO_BIG = 1009;
+
+    private static final String ACCEPT_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private static final int MAX_MESSAGE_SIZE = ServerProperties.getInt("server.websocket.max-message-size", 1024 * 1024);
+
+    private static final int PING_INTERVAL = ServerProperties.getInt("server.websocket.ping-interval", 30);
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    private static final Set<WebSocketConnection> connections = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong idGenerator = new AtomicLong();
+
+    private static final AtomicLong readerCount = new AtomicLong();
+
+    private final String id = String.valueOf(idGenerator.incrementAndGet());
+
+    private final Request request;
+
+    private final WebSocketListener listener;
+
+    private final OutputStream out;
+
+    private final Executor executor;
+
+    private final Runnable closeTransport;
+
+    private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+    private final WebSocketFrame.Decoder decoder = new WebSocketFrame.Decoder(MAX_MESSAGE_SIZE);
+
+    private final Queue<Runnable> events = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean dispatching = new AtomicBoolean();
+
+    private final AtomicBoolean closeNotified = new AtomicBoolean();
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private ByteArrayOutputStream message;
+
+    private int messageOpcode;
+
+    private volatile boolean closeSent;
+
+    private volatile boolean closeReceived;
+
+    private volatile boolean receivedSincePing = true;
+
+    /**
+     * @param request 업그레이드 요청, 요청 URL에 매핑된 웹소켓 핸들러가 메시지를 받습니다.
+     * @param out 프레임을 쓸 스트림
+     * @param executor 리스너를 호출할 Executor
+     * @param closeTransport 남은 데이터를 쓴 후 소켓을 닫는 작업
+     * */
+    WebSocketConnection(Request request, OutputStream out, Executor executor, Runnable closeTransport) {
+        this.request = request;
+        this.listener = BeanContainer.getWebSocketHandler(request.getUrl());
+        this.out = out;
+        this.executor = executor;
+        this.closeTransport = closeTransport;
+    }
+
+    /**
+     * 웹소켓 업그레이드 요청인지 확인합니다. 요청 URL에 매핑된 웹소켓 핸들러가 없다면 일반 요청으로 처리합니다.
+     *
+     * @param request 요청 정보
+     * @return 업그레이드 요청 여부
+     * */
+    static boolean isUpgradeRequest(Request request) {
+        return request.getMethod() == HttpMethod.GET
+                && HttpLauncher.containsToken(request.getHeader(HttpHeader.UPGRADE), "websocket")
+                && HttpLauncher.containsToken(request.getHeader(HttpHeader.CONNECTION), "upgrade")
+                && BeanContainer.getWebSocketHandler(request.getUrl()) != null;
+    }
+
+    /**
+     * 업그레이드 요청의 핸드셰이크 응답을 만듭니다. 키나 버전이 잘못된 요청에는 400 응답을 만듭니다.
+     *
+     * @param request 업그레이드 요청
+     * @return 101 혹은 400 응답 메시지
+     * */
+    static byte[] createHandshakeResponse(Request request) {
+        String key = request.getHeader(HttpHeader.SEC_WEBSOCKET_KEY);
+        if (!"13".equals(request.getHeader(HttpHeader.SEC_WEBSOCKET_VERSION)) || !isValidKey(key)) {
+            return ("HTTP/1.1 400 Bad Request\r\n" +
+                    "Sec-WebSocket-Version: 13\r\n" +
+                    "Content-Length: 0\r\n" +
+                    "Connection: close\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+        }
+        return ("HTTP/1.1 101 Switching Protocols\r\n" +
+                "Upgrade: websocket\r\n" +
+                "Connection: Upgrade\r\n" +
+                "Sec-WebSocket-Accept: " + createAcceptKey(key.trim()) + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 핸드셰이크 응답이 연결을 전환하는 101 응답인지 확인합니다.
+     *
+     * @param response 핸드셰이크 응답
+     * @return 전환 여부
+     * */
+    static boolean isAccepted(byte[] response) {
+        return response[9] == '1' && response[10] == '0' && response[11] == '1';
+    }
+
+    private static boolean isValidKey(String key) {
+        if (key == null) return false;
+        try {
+            return Base64.getDecoder().decode(key.trim()).length == 16;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String createAcceptKey(String key) {
+        try {
+            MessageDigest sha1 = MessageDigest.getInstance("SHA-1");
+            return Base64.getEncoder().encodeToString(sha1.digest((key + ACCEPT_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 열려 있는 모든 웹소켓 연결에 1001 종료 프레임을 보냅니다. 서버 종료 시 사용됩니다.
+     * */
+    static void closeAll() {
+        for (WebSocketConnection connection : connections) {
+            connection.close(GOING_AWAY, "server shutting down");
+        }
+    }
+
+    /**
+     * 연결을 시작합니다. 핸드셰이크 응답을 보낸 후 호출되어야 합니다.
+     * */
+    void start() {
+        connections.add(this);
+        dispatch(() -> listener.onOpen(this));
+        schedulePing();
+    }
+
+    /**
+     * 블로킹 소켓의 연결을 전용 쓰레드에서 읽기 시작합니다. 연결이 끝날 때 까지 워커 쓰레드를 차지하지 않도록 워커 쓰레드 풀을 사용하지 않습니다.
+     *
+     * @param in 소켓의 입력 스트림
+     * */
+    void startReader(InputStream in) {
+        Thread reader = new Thread(() -> {
+            start();
+            byte[] buffer = new byte[8192];
+            try {
+                int read;
+                while ((read = in.read(buffer)) != -1) {
+                    onData(buffer, 0, read);
+                }
+            } catch (IOException e) {
+                logger.debug("websocket connection closed: " + e.getMessage());
+            } finally {
+                closeTransport.run();
+                onTransportClosed();
+            }
+        }, "websocket-connection-" + readerCount.incrementAndGet());
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    /**
+     * 소켓에서 읽은 바이트를 처리합니다. 하나의 쓰레드에서 읽은 순서대로 호출되어야 합니다.
+     * 프로토콜 위반이 발견되면 종료 프레임을 보내고 연결을 닫습니다.
+     *
+     * @param data 읽은 데이터
+     * @param offset 시작 위치
+     * @param length 길이
+     * */
+    void onData(byte[] data, int offset, int length) {
+        if (closeReceived) return;
+        receivedSincePing = true;
+        try {
+            decoder.decode(data, offset, length, this::onFrame);
+        } catch (WebSocketFrame.ProtocolException e) {
+            logger.debug("websocket protocol error: " + e.getMessage());
+            failConnection(e.getCloseCode(), e.getMessage());
+        } catch (IOException e) {
+            logger.debug("websocket write error: " + e.getMessage());
+            closeTransport.run();
+        }
+    }
+
+    /**
+     * 소켓이 닫혔을 때 호출됩니다. 종료 프레임을 주고받지 않았다면 1006 코드로 리스너에 알립니다.
+     * */
+    void onTransportClosed() {
+        notifyClose(ABNORMAL_CLOSURE, "");
+    }
+
+    private void onFrame(WebSocketFrame frame) throws IOException {
+        switch (frame.getOpcode()) {
+            case WebSocketFrame.PING:
+                if (!closeSent) {
+                    writeFrame(WebSocketFrame.PONG, frame.getPayload());
+                }
+                return;
+            case WebSocketFrame.PONG:
+                return;
+            case WebSocketFrame.CLOSE:
+                onCloseFrame(frame.getPayload());
+                return;
+            case WebSocketFrame.CONTINUATION:
+                if (message == null) throw new WebSocketFrame.ProtocolException(PROTOCOL_ERROR, "unexpected continuation frame");
+                break;
+            default:
+                if (message != null) throw new WebSocketFrame.ProtocolException(PROTOCOL_ERROR, "expected continuation frame");
+                messageOpcode = frame.getOpcode();
+                message = new ByteArrayOutputStream();
+        }
+        if (message.size() + frame.getPayload().length > MAX_MESSAGE_SIZE) {
+            throw new WebSocketFrame.ProtocolException(MESSAGE_TOO_BIG, "message too large");
+        }
+        message.write(frame.getPayload());
+        if (!frame.isFin()) return;
+        byte[] payload = message.toByteArray();
+        message = null;
+        if (messageOpcode == WebSocketFrame.TEXT) {
+            String text = decodeText(payload);
+            dispatch(() -> listener.onMessage(this, text));
+        } else {
+            dispatch(() -> listener.onMessage(this, payload));
+        }
+    }
+
+    /**
+     * 상대방의 종료 프레임을 처리합니다. 먼저 받은 경우라면 같은 코드로 응답한 후 소켓을 닫습니다.
+     * */
+    private void onCloseFrame(byte[] payload) throws IOException {
+        int code = NO_STATUS;
+        String reason = "";
+        if (payload.length == 1) throw new WebSocketFrame.ProtocolException(PROTOCOL_ERROR, "invalid close frame");
+        if (payload.length >= 2) {
+            code = (payload[0] & 0xFF) << 8 | payload[1] & 0xFF;
+            if (!isValidCloseCode(code)) throw new WebSocketFrame.ProtocolException(PROTOCOL_ERROR, "invalid close code: " + code);
+            reason = decodeText(Arrays.copyOfRange(payload, 2, payload.length));
+        }
+        closeReceived = true;
+        if (!closeSent) {
+            sendClose(code == NO_STATUS ? NORMAL_CLOSURE : code, "");
+        }
+        closeTransport.run();
+        notifyClose(code, reason);
+    }
+
+    private static boolean isValidCloseCode(int code) {
+        if (code >= 3000 && code <= 4999) return true;
+        return code >= 1000 && code <= 1011 && code != 1004 && code != NO_STATUS && code != ABNORMAL_CLOSURE;
+    }
+
+    private static String decodeText(byte[] payload) throws WebSocketFrame.ProtocolException {
+        try {
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(payload))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            throw new WebSocketFrame.ProtocolException(INVALID_PAYLOAD, "invalid utf-8 payload");
+        }
+    }
+
+    /**
+     * 종료 프레임을 보내고 응답을 기다리지 않고 소켓을 닫습니다.
+     * */
+    private void failConnection(int code, String reason) {
+        closeReceived = true;
+        try {
+            sendClose(code, "");
+        } catch (IOException e) {
+            logger.debug("websocket write error: " + e.getMessage());
+        }
+        closeTransport.run();
+        notifyClose(code, reason);
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public Request getHandshakeRequest() {
+        return request;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        return attributes;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return !closeSent && !closeReceived;
+    }
+
+    @Override
+    public void sendText(String message) throws IOException {
+        sendMessage(WebSocketFrame.TEXT, message.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void sendBinary(byte[] message) throws IOException {
+        sendMessage(WebSocketFrame.BINARY, message);
+    }
+
+    @Override
+    public void close() {
+        close(NORMAL_CLOSURE, "");
+    }
+
+    /**
+     * 종료 프레임을 보냅니다. 상대방이 기한 안에 종료 프레임으로 응답하지 않으면 소켓을 닫습니다.
+     *
+     * @param code 종료 코드
+     * @param reason 종료 사유
+     * */
+    @Override
+    public void close(int code, String reason) {
+        try {
+            if (!sendClose(code, reason)) return;
+        } catch (IOException e) {
+            logger.debug("websocket write error: " + e.getMessage());
+            closeTransport.run();
+            return;
+        }
+        HashedWheelTimer.shared().newTimeout(closeTransport, CLOSE_TIMEOUT_MILLIS);
+    }
+
+    private void sendMessage(int opcode, byte[] payload) throws IOException {
+        if (closeSent || closeReceived) throw new IOException("websocket closed");
+        writeFrame(opcode, payload);
+    }
+
+    /**
+     * 종료 프레임을 한 번만 보냅니다.
+     *
+     * @return 이번에 보냈는지 여부
+     * */
+    private boolean sendClose(int code, String reason) throws IOException {
+        writeLock.lock();
+        try {
+            if (closeSent) return false;
+            closeSent = true;
+            byte[] reasonBytes = reason.getBytes(StandardCharsets.UTF_8);
+            int reasonLength = Math.min(reasonBytes.length, WebSocketFrame.MAX_CONTROL_PAYLOAD_LENGTH - 2);
+            byte[] payload = new byte[2 + reasonLength];
+            payload[0] = (byte) (code >>> 8);
+            payload[1] = (byte) code;
+            System.arraycopy(reasonBytes, 0, payload, 2, reasonLength);
+            out.write(WebSocketFrame.encode(WebSocketFrame.CLOSE, payload));
+            out.flush();
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void writeFrame(int opcode, byte[] payload) throws IOException {
+        byte[] frame = WebSocketFrame.encode(opcode, payload);
+        writeLock.lock();
+        try {
+            if (closeSent) throw new IOException("websocket closed");
+            out.write(frame);
+            out.flush();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 주기적으로 핑을 보냅니다. 이전 핑 이후로 아무 프레임도 받지 못했다면 끊어진 연결로 보고 소켓을 닫습니다.
+     * 핑은 소켓에 쓰는 작업이므로 타이머 쓰레드가 아닌 워커 쓰레드에서 보냅니다.
+     * */
+    private void schedulePing() {
+        if (PING_INTERVAL <= 0) return;
+        HashedWheelTimer.shared().newTimeout(() -> WorkerExecutors.executeFromTimer(() -> {
+            if (closeNotified.get() || closeSent) return;
+            if (!receivedSincePing) {
+                logger.debug("websocket ping timed out: " + id);
+                closeTransport.run();
+                return;
+            }
+            receivedSincePing = false;
+            try {
+                writeFrame(WebSocketFrame.PING, new byte[0]);
+                schedulePing();
+            } catch (IOException e) {
+                closeTransport.run();
+            }
+        }), PING_INTERVAL * 1000L);
+    }
+
+    private void notifyClose(int code, String reason) {
+        if (!closeNotified.compareAndSet(false, true)) return;
+        connections.remove(this);
+        dispatch(() -> listener.onClose(this, code, reason));
+    }
+
+    /**
+     * 리스너 호출을 연결의 이벤트 큐에 넣고, 실행 중인 작업이 없다면 Executor에서 큐를 비우기 시작합니다.
+     * */
+    private void dispatch(Runnable event) {
+        events.add(event);
+        if (!dispatching.compareAndSet(false, true)) return;
+        try {
+            executor.execute(this::drainEvents);
+        } catch (RejectedExecutionException e) {
+            drainEvents();
+        }
+    }
+
+    private void drainEvents() {
+        while (true) {
+            Runnable event;
+            while ((event = events.poll()) != null) {
+                try {
+                    event.run();
+                } catch (RuntimeException e) {
+                    logger.error("websocket handler error", e);
+                    try {
+                        listener.onError(this, e);
+                    } catch (RuntimeException handlerError) {
+                        logger.error("websocket error handler error", handlerError);
+                    }
+                }
+            }
+            dispatching.set(false);
+            if (events.isEmpty() || !dispatching.compareAndSet(false, true)) return;
+        }
+    }
+
+}
@@ -0,0 +1,205 @@
+package org.sam.server.http.context;
+
+import java.io.IOException;
+
+/**
+ * 웹소켓 프레임을 나타내며 프레임을 만들고 읽는 기능을 제공합니다. (RFC 6455 Section 5)
+ * 서버가 보내는 프레임은 마스킹하지 않고, 클라이언트가 보낸 프레임은 반드시 마스킹되어 있어야 합니다.
+ *
+ * @author hypernova1
+ * @see WebSocketConnection
+ */
+class WebSocketFrame {
+
+    static final int CONTINUATION = 0x0;
+    static final int TEXT = 0x1;
+    static final int BINARY = 0x2;
+    static final int CLOSE = 0x8;
+    static final int PING = 0x9;
+    static final int PONG = 0xA;
+
+    static final int MAX_CONTROL_PAYLOAD_LENGTH = 125;
+
+    private final boolean fin;
+
+    private final int opcode;
+
+    private final byte[] payload;
+
+    private WebSocketFrame(boolean fin, int opcode, byte[] payload) {
+        this.fin = fin;
+        this.opcode = opcode;
+        this.payload = payload;
+    }
+
+    /**
+     * 마스킹하지 않은 하나의 완전한(FIN) 프레임을 만듭니다.
+     *
+     * @param opcode 프레임 종류
+     * @param payload 페이로드
+     * @return 프레임 바이트
+     * */
+    static byte[] encode(int opcode, byte[] payload) {
+        int length = payload.length;
+        int headerLength = length <= 125 ? 2 : length <= 0xFFFF ? 4 : 10;
+        byte[] frame = new byte[headerLength + length];
+        frame[0] = (byte) (0x80 | opcode);
+        if (length <= 125) {
+            frame[1] = (byte) length;
+        } else if (length <= 0xFFFF) {
+            frame[1] = 126;
+            frame[2] = (byte) (length >>> 8);
+            frame[3] = (byte) length;
+        } else {
+            frame[1] = 127;
+            for (int i = 0; i < 8; i++) {
+                frame[2 + i] = (byte) ((long) length >>> (56 - i * 8));
+            }
+        }
+        System.arraycopy(payload, 0, frame, headerLength, length);
+        return frame;
+    }
+
+    static boolean isControl(int opcode) {
+        return (opcode & 0x8) != 0;
+    }
+
+    boolean isFin() {
+        return fin;
+    }
+
+    int getOpcode() {
+        return opcode;
+    }
+
+    byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * 나누어 도착하는 바이트를 받아 프레임을 만드는 디코더입니다. 프레임 경계가 여러 번의 읽기에 걸쳐 있어도 됩니다.
+     * */
+    static class Decoder {
+
+        private final long maxPayloadLength;
+
+        private final byte[] header = new byte[14];
+
+        private int headerRead;
+
+        private byte[] payload;
+
+        private int payloadRead;
+
+        /**
+         * @param maxPayloadLength 허용하는 최대 페이로드 길이
+         * */
+        Decoder(long maxPayloadLength) {
+            this.maxPayloadLength = maxPayloadLength;
+        }
+
+        /**
+         * 읽은 바이트를 넘겨 완성된 프레임을 순서대로 전달합니다.
+         *
+         * @param data 읽은 데이터
+         * @param offset 시작 위치
+         * @param length 길이
+         * @param consumer 완성된 프레임을 받을 대상
+         * @throws ProtocolException 프레임 형식이 잘못되었거나 페이로드가 너무 크면
+         * */
+        void decode(byte[] data, int offset, int length, FrameConsumer consumer) throws IOException {
+            int end = offset + length;
+            int i = offset;
+            while (i < end) {
+                if (payload == null) {
+                    header[headerRead++] = data[i++];
+                    if (headerRead >= 2 && headerRead == headerLength()) {
+                        payload = new byte[checkHeader()];
+                        payloadRead = 0;
+                    }
+                }
+                if (payload == null) continue;
+                int size = Math.min(end - i, payload.length - payloadRead);
+                System.arraycopy(data, i, payload, payloadRead, size);
+                payloadRead += size;
+                i += size;
+                if (payloadRead == payload.length) {
+                    consumer.accept(complete());
+                }
+            }
+        }
+
+        private int headerLength() {
+            int length = header[1] & 0x7F;
+            int extended = length == 126 ? 2 : length == 127 ? 8 : 0;
+            return 2 + extended + ((header[1] & 0x80) != 0 ? 4 : 0);
+        }
+
+        /**
+         * 완성된 헤더를 검사하고 페이로드 길이를 반환합니다.
+         * */
+        private int checkHeader() throws ProtocolException {
+            int opcode = header[0] & 0x0F;
+            if ((header[0] & 0x70) != 0) throw new ProtocolException(WebSocketConnection.PROTOCOL_ERROR, "reserved bits set");
+            if ((header[1] & 0x80) == 0) throw new ProtocolException(WebSocketConnection.PROTOCOL_ERROR, "unmasked client frame");
+            if (opcode > BINARY && opcode < CLOSE || opcode > PONG) {
+                throw new ProtocolException(WebSocketConnection.PROTOCOL_ERROR, "unknown opcode: " + opcode);
+            }
+            long length = header[1] & 0x7F;
+            if (length == 126) {
+                length = (header[2] & 0xFF) << 8 | header[3] & 0xFF;
+            } else if (length == 127) {
+                length = 0;
+                for (int i = 2; i < 10; i++) {
+                    length = length << 8 | header[i] & 0xFF;
+                }
+            }
+            if (isControl(opcode) && ((header[0] & 0x80) == 0 || length > MAX_CONTROL_PAYLOAD_LENGTH)) {
+                throw new ProtocolException(WebSocketConnection.PROTOCOL_ERROR, "invalid control frame");
+            }
+            if (length < 0 || length > maxPayloadLength) {
+                throw new ProtocolException(WebSocketConnection.MESSAGE_TOO_BIG, "frame too large");
+            }
+            return (int) length;
+        }
+
+        private WebSocketFrame complete() {
+            int maskOffset = headerRead - 4;
+            for (int i = 0; i < payload.length; i++) {
+                payload[i] ^= header[maskOffset + (i & 3)];
+            }
+            WebSocketFrame frame = new WebSocketFrame((header[0] & 0x80) != 0, header[0] & 0x0F, payload);
+            headerRead = 0;
+            payload = null;
+            return frame;
+        }
+    }
+
+    /**
+     * 디코더가 완성한 프레임을 받는 인터페이스입니다.
+     * */
+    interface FrameConsumer {
+
+        void accept(WebSocketFrame frame) throws IOException;
+    }
+
+    /**
+     * 프로토콜 위반으로 연결을 닫아야 할 때 발생합니다. 상대방에게 보낼 종료 코드를 가집니다.
+     * */
+    static class ProtocolException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int closeCode;
+
+        ProtocolException(int closeCode, String message) {
+            super(message);
+            this.closeCode = closeCode;
+        }
+
+        int getCloseCode() {
+            return closeCode;
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+package org.sam.server.http.context;
+
+import org.sam.server.common.ServerProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청을 처리할 워커 쓰레드 풀을 생성하는 클래스입니다.
+ * 설정에 따라 가상 쓰레드를 사용하며, 실행 중인 JVM이 가상 쓰레드를 지원하지 않으면 플랫폼 쓰레드 풀을 사용합니다.
+ *
+ * @author hypernova1
+ * @see HttpServer
+ */
+class WorkerExecutors {
+
+    private static final Logger logger = LoggerFactory.getLogger(WorkerExecutors.class);
+
+    /**
+     * 워커 쓰레드 풀이 가득 찼을 때 타이머 작업을 다시 시도하기 까지의 시간입니다.
+     * */
+    private static final long TIMER_RETRY_DELAY_MILLIS = 100;
+
+    private WorkerExecutors() {}
+
+    /**
+     * 타이머가 실행한 작업 중 소켓에 쓰는 작업을 서버의 워커 쓰레드 풀에서 실행합니다.
+     * 워커 쓰레드 풀이 가득 찼다면 타이머 쓰레드를 막지 않도록 잠시 후 다시 시도하고, 서버가 종료 중이거나 시작되지 않았다면 바로 실행합니다.
+     *
+     * @param task 실행할 작업
+     * */
+    static void executeFromTimer(Runnable task) {
+        ExecutorService workerExecutor = HttpServer.getWorkerExecutor();
+        if (workerExecutor == null || workerExecutor.isShutdown()) {
+            task.run();
+            return;
+        }
+        try {
+            workerExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            HashedWheelTimer.shared().newTimeout(() -> executeFromTimer(task), TIMER_RETRY_DELAY_MILLIS);
+        }
+    }
+
+    /**
+     * 설정에 맞는 워커 쓰레드 풀을 생성합니다.
+     *
+     * @return 워커 쓰레드 풀
+     * */
+    static ExecutorService create() {
+        if (ServerProperties.getBoolean("server.worker.virtual-threads", false)) {
+            ExecutorService virtualThreadExecutor = createVirtualThreadExecutor();
+            if (virtualThreadExecutor != null) {
+                int maxConcurrency = ServerProperties.getInt("server.worker.max-virtual-threads", 10000);
+                logger.info("worker: virtual thread per task (max concurrency: " + maxConcurrency + ")");
+                return new ConcurrencyLimitedExecutor(virtualThreadExecutor, maxConcurrency);
+            }
+            logger.warn("virtual threads are not supported on this JVM, falling back to platform thread pool");
+        }
+        return createThreadPoolExecutor();
+    }
+
+    /**
+     * 대기열의 크기가 제한된 플랫폼 쓰레드 풀을 생성합니다. 대기열이 가득 차고 최대 쓰레드 수에 도달하면 작업을 거절합니다.
+     *
+     * @return 워커 쓰레드 풀
+     * */
+    private static ExecutorService createThreadPoolExecutor() {
+        int coreThreads = ServerProperties.getInt("server.worker.core-threads", Runtime.getRuntime().availableProcessors());
+        int maxThreads = ServerProperties.getInt("server.worker.max-threads", 200);
+        int queueSize = ServerProperties.getInt("server.worker.queue-size", 1000);
+        return new ThreadPoolExecutor(
+                coreThreads,
+                Math.max(coreThreads, maxThreads),
+                150L,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize)
+        );
+    }
+
+    /**
+     * 작업마다 가상 쓰레드를 생성하는 Executor를 런타임에 찾아 생성합니다.
+     *
+     * @return 가상 쓰레드 Executor, 지원하지 않는 JVM이라면 null
+     * */
+    private static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            return null;
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            logger.warn("failed to create virtual thread executor", e);
+            return null;
+        }
+    }
+
+    /**
+     * 동시에 실행 중인 작업 수를 제한하는 ExecutorService입니다. 제한을 넘는 작업은 거절합니다.
+     * 대기열이 없는 가상 쓰레드 Executor에서도 과부하 시 503 응답을 보낼 수 있도록 합니다.
+     * */
+    private static class ConcurrencyLimitedExecutor extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+
+        private final Semaphore permits;
+
+        private ConcurrencyLimitedExecutor(ExecutorService delegate, int maxConcurrency) {
+            this.delegate = delegate;
+            this.permits = new Semaphore(maxConcurrency);
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            if (!permits.tryAcquire()) {
+                throw new RejectedExecutionException("too many concurrent tasks");
+            }
+            try {
+                delegate.execute(() -> {
+                    try {
+                        command.run();
+                    } finally {
+                        permits.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                permits.release();
+                throw e;
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package org.sam.server.http.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Transfer-Encoding: chunked 형식의 요청 바디를 원래의 바디로 풀어서 읽는 스트림입니다.
+ * 마지막 청크와 트레일러까지만 읽으므로 하나의 연결에서 다음 요청의 데이터를 침범하지 않습니다.
+ *
+ * @author hypernova1
+ * @see HttpRequest
+ */
+class ChunkedInputStream extends InputStream {
+
+    private static final int MAX_CHUNK_LINE_LENGTH = 4096;
+
+    /**
+     * 청크 크기에 허용하는 16진수 자릿수입니다. long 범위를 넘지 않도록 합니다.
+     * */
+    private static final int MAX_CHUNK_SIZE_DIGITS = 15;
+
+    private final InputStream in;
+
+    /**
+     * 한 바이트씩 읽을 때 사용하는 버퍼입니다.
+     * */
+    private final byte[] single = new byte[1];
+
+    private long chunkRemaining;
+
+    private boolean eof;
+
+    ChunkedInputStream(InputStream in) {
+        this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+        return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (chunkRemaining == 0 && !nextChunk()) return -1;
+        int read = in.read(b, off, (int) Math.min(len, chunkRemaining));
+        if (read == -1) throw new IOException("unexpected end of chunked body");
+        chunkRemaining -= read;
+        if (chunkRemaining == 0 && !readLine().isEmpty()) {
+            throw new IOException("invalid chunk terminator");
+        }
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), chunkRemaining);
+    }
+
+    /**
+     * 읽지 않고 남은 바디를 모두 버립니다. 원본 스트림은 닫지 않습니다.
+     *
+     * @throws IOException 스트림을 읽다가 오류 발생시
+     * */
+    @Override
+    public void close() throws IOException {
+        byte[] buffer = new byte[1024];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // 남은 바디를 버립니다.
+        }
+    }
+
+    /**
+     * 다음 청크의 크기를 읽습니다. 마지막 청크라면 트레일러를 버리고 바디를 끝냅니다.
+     *
+     * @return 읽을 청크가 있는지 여부
+     * @throws IOException 청크 형식이 잘못되었거나 스트림을 읽다가 오류 발생시
+     * */
+    private boolean nextChunk() throws IOException {
+        if (eof) return false;
+        String line = readLine();
+        int extension = line.indexOf(';');
+        String size = (extension == -1 ? line : line.substring(0, extension)).trim();
+        if (size.length() > MAX_CHUNK_SIZE_DIGITS) throw new IOException("invalid chunk size: " + size);
+        try {
+            chunkRemaining = Long.parseLong(size, 16);
+        } catch (NumberFormatException e) {
+            throw new IOException("invalid chunk size: " + size);
+        }
+        if (chunkRemaining < 0) throw new IOException("invalid chunk size: " + size);
+        if (chunkRemaining > 0) return true;
+        while (!readLine().isEmpty()) {
+            // 트레일러는 사용하지 않습니다.
+        }
+        eof = true;
+        return false;
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                int length = line.length();
+                if (length > 0 && line.charAt(length - 1) == '\r') {
+                    line.setLength(length - 1);
+                }
+                return line.toString();
+            }
+            if (line.length() >= MAX_CHUNK_LINE_LENGTH) throw new IOException("chunk line too long");
+            line.append((char) b);
+        }
+        throw new IOException("unexpected end of chunked body");
+    }
+
+}
@@ -0,0 +1,127 @@
+package org.sam.server.http.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 응답 바디를 Transfer-Encoding: chunked 형식으로 쓰는 스트림입니다.
+ * 버퍼가 가득 차거나 flush가 호출될 때마다 하나의 청크를 보내며, 스트림을 닫으면 마지막 청크를 보내 응답을 마칩니다.
+ * 청크 형식을 해석하지 못하는 HTTP/1.0 클라이언트에게는 청크 형식 없이 바디를 그대로 쓰며, 응답의 끝은 연결을 닫아 알립니다.
+ *
+ * @author hypernova1
+ * @see Response#openStream(org.sam.server.constant.HttpStatus)
+ */
+class ChunkedOutputStream extends OutputStream {
+
+    private static final byte[] CRLF = { '\r', '\n' };
+
+    private static final byte[] LAST_CHUNK = { '0', '\r', '\n', '\r', '\n' };
+
+    private final OutputStream out;
+
+    private final byte[] buffer;
+
+    private final boolean discardBody;
+
+    private final boolean chunked;
+
+    private int count;
+
+    private boolean closed;
+
+    /**
+     * @param out 응답을 쓸 스트림
+     * @param bufferSize 하나의 청크로 모아서 보낼 최대 크기
+     * @param discardBody HEAD 요청처럼 바디를 보내지 않아야 하는지 여부
+     * @param chunked 청크 형식으로 쓸지 여부, false라면 바디를 그대로 씁니다.
+     * */
+    ChunkedOutputStream(OutputStream out, int bufferSize, boolean discardBody, boolean chunked) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+        this.discardBody = discardBody;
+        this.chunked = chunked;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (count == buffer.length) {
+            writeChunk();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        if (len >= buffer.length) {
+            writeChunk();
+            writeChunk(b, off, len);
+            return;
+        }
+        if (len > buffer.length - count) {
+            writeChunk();
+        }
+        System.arraycopy(b, off, buffer, count, len);
+        count += len;
+    }
+
+    /**
+     * 모아둔 데이터를 하나의 청크로 보내고 소켓으로 내보냅니다.
+     * */
+    @Override
+    public void flush() throws IOException {
+        ensureOpen();
+        writeChunk();
+        out.flush();
+    }
+
+    /**
+     * 남은 데이터와 마지막 청크를 보내 응답을 마칩니다. 하위 스트림은 연결이 유지될 수 있으므로 닫지 않습니다.
+     * */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        try {
+            writeChunk();
+            if (!discardBody && chunked) {
+                out.write(LAST_CHUNK);
+            }
+            out.flush();
+        } finally {
+            closed = true;
+        }
+    }
+
+    /**
+     * 청크 형식으로 쓰는지 여부를 반환합니다.
+     *
+     * @return 청크 형식 여부
+     * */
+    boolean isChunked() {
+        return chunked;
+    }
+
+    private void writeChunk() throws IOException {
+        writeChunk(buffer, 0, count);
+        count = 0;
+    }
+
+    private void writeChunk(byte[] b, int off, int len) throws IOException {
+        if (len == 0 || discardBody) return;
+        if (!chunked) {
+            out.write(b, off, len);
+            return;
+        }
+        out.write(Integer.toHexString(len).getBytes(StandardCharsets.US_ASCII));
+        out.write(CRLF);
+        out.write(b, off, len);
+        out.write(CRLF);
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) throw new IOException("stream closed");
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.sam.server.http.web;
+
+import org.sam.server.common.ServerProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 응답 바디의 압축(Content-Encoding)을 결정하고 수행하는 클래스입니다.
+ * 설정된 미디어 타입이면서 최소 크기 이상인 응답만 압축하며, 클라이언트가 받을 수 있는 gzip 혹은 deflate 중 하나를 고릅니다.
+ *
+ * @author hypernova1
+ * @see HttpResponse
+ */
+class Compression {
+
+    static final String GZIP = "gzip";
+
+    static final String DEFLATE = "deflate";
+
+    private static final boolean ENABLED = ServerProperties.getBoolean("server.compression.enabled", true);
+
+    private static final long MIN_SIZE = ServerProperties.getLong("server.compression.min-size", 1024);
+
+    private static final Set<String> MIME_TYPES = new HashSet<>(Arrays.asList(ServerProperties.get("server.compression.mime-types") != null
+            ? ServerProperties.get("server.compression.mime-types").split("\\s*,\\s*")
+            : new String[] { "text/html", "text/css", "text/plain", "text/xml", "application/javascript", "application/json", "application/xml", "image/svg+xml" }));
+
+    private Compression() {}
+
+    /**
+     * 응답이 압축 대상인지 확인합니다.
+     *
+     * @param contentType 응답의 미디어 타입
+     * @param length 압축하기 전의 바디 길이
+     * @return 압축 대상인지 여부
+     * */
+    static boolean isCompressible(String contentType, long length) {
+        if (!ENABLED || length < MIN_SIZE || contentType == null) return false;
+        int index = contentType.indexOf(';');
+        String mediaType = (index == -1 ? contentType : contentType.substring(0, index)).trim().toLowerCase();
+        return MIME_TYPES.contains(mediaType);
+    }
+
+    /**
+     * Accept-Encoding 헤더를 보고 사용할 압축 방식을 고릅니다. 둘 다 받을 수 있다면 gzip을 우선합니다.
+     *
+     * @param acceptEncoding Accept-Encoding 헤더 값
+     * @return 압축 방식, 압축하지 않는다면 null
+     * */
+    static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null) return null;
+        double gzip = -1;
+        double deflate = -1;
+        double any = 0;
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(param.substring(2));
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            if (coding.equals(GZIP) || coding.equals("x-gzip")) {
+                gzip = quality;
+            } else if (coding.equals(DEFLATE)) {
+                deflate = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+        if (gzip < 0) gzip = any;
+        if (deflate < 0) deflate = any;
+        if (gzip > 0 && gzip >= deflate) return GZIP;
+        if (deflate > 0) return DEFLATE;
+        return null;
+    }
+
+    /**
+     * 바디를 압축합니다.
+     *
+     * @param body 압축할 바디
+     * @param encoding 압축 방식
+     * @return 압축한 바디
+     * */
+    static byte[] compress(byte[] body, String encoding) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(body.length / 4, 64));
+        try (OutputStream out = encoding.equals(GZIP) ? new GZIPOutputStream(buffer) : new DeflaterOutputStream(buffer)) {
+            out.write(body);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+}
@@ -0,0 +1,66 @@
+package org.sam.server.http.web;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Content-Length 만큼만 읽을 수 있도록 제한한 요청 바디 스트림입니다.
+ * 하나의 연결에서 여러 요청을 읽을 때 다음 요청의 데이터를 침범하지 않도록 합니다.
+ *
+ * @author hypernova1
+ * @see HttpRequest
+ */
+class ContentLengthInputStream extends InputStream {
+
+    private final InputStream in;
+
+    private long remaining;
+
+    ContentLengthInputStream(InputStream in, long contentLength) {
+        this.in = in;
+        this.remaining = contentLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (remaining <= 0) return -1;
+        int b = in.read();
+        if (b == -1) {
+            remaining = 0;
+            return -1;
+        }
+        remaining--;
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (remaining <= 0) return -1;
+        int read = in.read(b, off, (int) Math.min(len, remaining));
+        if (read == -1) {
+            remaining = 0;
+            return -1;
+        }
+        remaining -= read;
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(in.available(), remaining);
+    }
+
+    /**
+     * 읽지 않고 남은 바디를 모두 버립니다. 원본 스트림은 닫지 않습니다.
+     *
+     * @throws IOException 스트림을 읽다가 오류 발생시
+     * */
+    @Override
+    public void close() throws IOException {
+        byte[] buffer = new byte[1024];
+        while (read(buffer, 0, buffer.length) != -1) {
+            // 남은 바디를 버립니다.
+        }
+    }
+
+}
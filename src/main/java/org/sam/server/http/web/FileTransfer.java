@@ -0,0 +1,25 @@
+package org.sam.server.http.web;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 파일의 내용을 힙에 읽지 않고 소켓으로 바로 보낼 수 있는 응답 스트림이 구현하는 인터페이스입니다.
+ * 구현하지 않은 스트림에는 정적 파일을 버퍼를 통해 복사하여 씁니다.
+ *
+ * @author hypernova1
+ * @see HttpResponse
+ */
+public interface FileTransfer {
+
+    /**
+     * 지금까지 쓴 데이터 뒤에 파일의 일부를 보냅니다.
+     *
+     * @param path 파일 경로
+     * @param position 보낼 영역의 시작 위치
+     * @param count 보낼 바이트 수
+     * @throws IOException 파일을 열거나 쓰다가 오류 발생시
+     * */
+    void transferFile(Path path, long position, long count) throws IOException;
+
+}
@@ -0,0 +1,80 @@
+package org.sam.server.http.web;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * application/x-www-form-urlencoded 형식의 쿼리 스트링과 폼 바디를 해석하는 클래스입니다.
+ * 바이트를 한 번만 훑으며 &로 파라미터를, 첫 번째 =로 이름과 값을 나누고, 동시에 %XX와 +를 쓰레드마다 재사용하는 버퍼에 풀어 씁니다.
+ * 풀어 쓴 바이트는 UTF-8 문자열로 만듭니다.
+ *
+ * @author hypernova1
+ * @see FormParameters
+ */
+class FormDecoder {
+
+    /**
+     * 쓰레드마다 재사용하는 버퍼의 최대 크기입니다. 이보다 큰 입력은 한 번만 쓰는 버퍼에 풀어 씁니다.
+     * */
+    private static final int MAX_POOLED_BUFFER_SIZE = 8192;
+
+    private static final ThreadLocal<byte[]> BUFFERS = ThreadLocal.withInitial(() -> new byte[512]);
+
+    private FormDecoder() {}
+
+    /**
+     * 바이트를 해석하여 파라미터를 추가합니다.
+     *
+     * @param data 해석할 데이터
+     * @param start 시작 위치
+     * @param end 끝 위치
+     * @param parameters 파라미터를 추가할 목록
+     * */
+    static void decode(byte[] data, int start, int end, FormParameters parameters) {
+        byte[] buffer = BUFFERS.get();
+        if (buffer.length < end - start) {
+            buffer = new byte[end - start];
+            if (buffer.length <= MAX_POOLED_BUFFER_SIZE) {
+                BUFFERS.set(buffer);
+            }
+        }
+        int length = 0;
+        int nameLength = -1;
+        for (int i = start; i < end; i++) {
+            byte b = data[i];
+            if (b == '&') {
+                addParameter(buffer, length, nameLength, parameters);
+                length = 0;
+                nameLength = -1;
+            } else if (b == '=' && nameLength == -1) {
+                nameLength = length;
+            } else if (b == '+') {
+                buffer[length++] = ' ';
+            } else if (b == '%' && i + 2 < end && hexValue(data[i + 1]) != -1 && hexValue(data[i + 2]) != -1) {
+                buffer[length++] = (byte) ((hexValue(data[i + 1]) << 4) | hexValue(data[i + 2]));
+                i += 2;
+            } else {
+                buffer[length++] = b;
+            }
+        }
+        addParameter(buffer, length, nameLength, parameters);
+    }
+
+    /**
+     * 풀어 쓴 파라미터 하나를 추가합니다. 이름이 없는 파라미터는 버립니다.
+     * */
+    private static void addParameter(byte[] buffer, int length, int nameLength, FormParameters parameters) {
+        int nameEnd = nameLength == -1 ? length : nameLength;
+        if (nameEnd == 0) return;
+        String name = new String(buffer, 0, nameEnd, StandardCharsets.UTF_8);
+        String value = nameLength == -1 ? "" : new String(buffer, nameEnd, length - nameEnd, StandardCharsets.UTF_8);
+        parameters.add(name, value);
+    }
+
+    private static int hexValue(byte b) {
+        if (b >= '0' && b <= '9') return b - '0';
+        if (b >= 'a' && b <= 'f') return b - 'a' + 10;
+        if (b >= 'A' && b <= 'F') return b - 'A' + 10;
+        return -1;
+    }
+
+}
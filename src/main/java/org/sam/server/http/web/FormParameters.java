@@ -0,0 +1,80 @@
+package org.sam.server.http.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 쿼리 스트링과 폼 바디에서 읽은 파라미터를 들어온 순서대로 보관합니다.
+ * 이름과 값을 두 배열에 나란히 담아 같은 이름의 값이 여러 개여도 모두 보관합니다.
+ *
+ * @author hypernova1
+ * @see FormDecoder
+ */
+class FormParameters {
+
+    private String[] names = new String[8];
+
+    private String[] values = new String[8];
+
+    private int size;
+
+    void add(String name, String value) {
+        if (size == names.length) {
+            String[] newNames = new String[size * 2];
+            String[] newValues = new String[size * 2];
+            System.arraycopy(names, 0, newNames, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            names = newNames;
+            values = newValues;
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * 이름에 해당하는 첫 번째 값을 반환합니다.
+     *
+     * @param name 파라미터 이름
+     * @return 파라미터 값, 없다면 null
+     * */
+    String getFirst(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) return values[i];
+        }
+        return null;
+    }
+
+    /**
+     * 이름에 해당하는 모든 값을 들어온 순서대로 반환합니다.
+     *
+     * @param name 파라미터 이름
+     * @return 파라미터 값 목록, 없다면 빈 목록
+     * */
+    List<String> getAll(String name) {
+        List<String> result = null;
+        for (int i = 0; i < size; i++) {
+            if (!names[i].equals(name)) continue;
+            if (result == null) result = new ArrayList<>(2);
+            result.add(values[i]);
+        }
+        return result != null ? result : Collections.emptyList();
+    }
+
+    /**
+     * 이름마다 첫 번째 값을 담은 Map을 만듭니다.
+     *
+     * @return 파라미터 목록
+     * */
+    Map<String, String> toMap() {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.putIfAbsent(names[i], values[i]);
+        }
+        return map;
+    }
+
+}
@@ -0,0 +1,254 @@
+package org.sam.server.http.web;
+
+import org.sam.server.constant.HttpHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 요청과 응답의 헤더 목록입니다. 이름과 값을 두 배열에 나란히 담아 들어온 순서대로 보관하며, 같은 이름의 값이 여러 개여도 모두 보관합니다.
+ * 이름은 대소문자를 구분하지 않고 찾으며 소문자로 바꾼 복사본을 만들지 않습니다.
+ * 잘 알려진 헤더 이름은 HttpHeader 상수와 같은 인스턴스로 바꾸어 보관하므로, 바이트에서 읽은 이름도 새 문자열을 만들지 않습니다.
+ *
+ * @author hypernova1
+ * @see HttpHeader
+ */
+public class HttpHeaders {
+
+    private static final String[] KNOWN_NAMES = new String[128];
+
+    static {
+        for (String name : HttpHeader.values()) {
+            int index = hash(name) & (KNOWN_NAMES.length - 1);
+            while (KNOWN_NAMES[index] != null) {
+                index = (index + 1) & (KNOWN_NAMES.length - 1);
+            }
+            KNOWN_NAMES[index] = name;
+        }
+    }
+
+    private String[] names;
+
+    private String[] values;
+
+    private int size;
+
+    public HttpHeaders() {
+        this(8);
+    }
+
+    public HttpHeaders(int capacity) {
+        this.names = new String[Math.max(capacity, 1)];
+        this.values = new String[Math.max(capacity, 1)];
+    }
+
+    /**
+     * 이름에 해당하는 첫 번째 값을 반환합니다.
+     *
+     * @param name 헤더 이름
+     * @return 헤더 값, 없다면 null
+     * */
+    public String get(String name) {
+        int index = indexOf(name, 0);
+        return index == -1 ? null : values[index];
+    }
+
+    /**
+     * 이름에 해당하는 모든 값을 들어온 순서대로 반환합니다.
+     *
+     * @param name 헤더 이름
+     * @return 헤더 값 목록, 없다면 빈 목록
+     * */
+    public List<String> getAll(String name) {
+        List<String> result = null;
+        for (int index = indexOf(name, 0); index != -1; index = indexOf(name, index + 1)) {
+            if (result == null) result = new ArrayList<>(2);
+            result.add(values[index]);
+        }
+        return result != null ? result : Collections.emptyList();
+    }
+
+    public boolean contains(String name) {
+        return indexOf(name, 0) != -1;
+    }
+
+    /**
+     * 값을 추가합니다. 같은 이름의 값이 있어도 지우지 않습니다.
+     *
+     * @param name 헤더 이름
+     * @param value 헤더 값
+     * */
+    public void add(String name, String value) {
+        append(intern(name), value);
+    }
+
+    /**
+     * 이미 HttpHeader 상수로 바꾼 이름의 값을 추가합니다.
+     * */
+    void append(String name, String value) {
+        if (size == names.length) {
+            String[] newNames = new String[size * 2];
+            String[] newValues = new String[size * 2];
+            System.arraycopy(names, 0, newNames, 0, size);
+            System.arraycopy(values, 0, newValues, 0, size);
+            names = newNames;
+            values = newValues;
+        }
+        names[size] = name;
+        values[size] = value;
+        size++;
+    }
+
+    /**
+     * 값을 설정합니다. 같은 이름의 값이 있다면 첫 번째 값을 바꾸고 나머지는 지웁니다.
+     *
+     * @param name 헤더 이름
+     * @param value 헤더 값
+     * */
+    public void set(String name, String value) {
+        int index = indexOf(name, 0);
+        if (index == -1) {
+            add(name, value);
+            return;
+        }
+        values[index] = value;
+        removeFrom(name, index + 1);
+    }
+
+    /**
+     * 같은 이름의 값이 없을 때만 값을 추가합니다.
+     *
+     * @param name 헤더 이름
+     * @param value 헤더 값
+     * */
+    public void setIfAbsent(String name, String value) {
+        if (indexOf(name, 0) == -1) {
+            add(name, value);
+        }
+    }
+
+    /**
+     * 이름에 해당하는 값을 모두 지웁니다.
+     *
+     * @param name 헤더 이름
+     * */
+    public void remove(String name) {
+        removeFrom(name, 0);
+    }
+
+    private void removeFrom(String name, int from) {
+        int target = from;
+        for (int i = from; i < size; i++) {
+            if (isName(i, name)) continue;
+            names[target] = names[i];
+            values[target] = values[i];
+            target++;
+        }
+        for (int i = target; i < size; i++) {
+            names[i] = null;
+            values[i] = null;
+        }
+        size = target;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getName(int index) {
+        return names[index];
+    }
+
+    public String getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * 헤더 이름을 중복 없이 들어온 순서대로 반환합니다.
+     *
+     * @return 헤더 이름 목록
+     * */
+    public Set<String> names() {
+        Set<String> result = new LinkedHashSet<>();
+        for (int i = 0; i < size; i++) {
+            result.add(names[i]);
+        }
+        return result;
+    }
+
+    private int indexOf(String name, int from) {
+        for (int i = from; i < size; i++) {
+            if (isName(i, name)) return i;
+        }
+        return -1;
+    }
+
+    private boolean isName(int index, String name) {
+        String stored = names[index];
+        return stored == name || stored.equalsIgnoreCase(name);
+    }
+
+    /**
+     * 잘 알려진 헤더 이름이라면 HttpHeader 상수를 반환합니다.
+     *
+     * @param name 헤더 이름
+     * @return HttpHeader 상수, 잘 알려진 이름이 아니라면 전달받은 이름
+     * */
+    public static String intern(String name) {
+        int index = hash(name) & (KNOWN_NAMES.length - 1);
+        for (String known = KNOWN_NAMES[index]; known != null; known = KNOWN_NAMES[index]) {
+            if (known == name || known.equalsIgnoreCase(name)) return known;
+            index = (index + 1) & (KNOWN_NAMES.length - 1);
+        }
+        return name;
+    }
+
+    /**
+     * 바이트로 된 헤더 이름을 문자열로 만듭니다. 잘 알려진 이름이라면 새 문자열을 만들지 않고 HttpHeader 상수를 반환합니다.
+     *
+     * @param data 읽은 데이터
+     * @param start 이름의 시작 위치
+     * @param end 이름의 끝 위치
+     * @return 헤더 이름
+     * */
+    static String intern(byte[] data, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + toLowerCase(data[i]);
+        }
+        int index = hash & (KNOWN_NAMES.length - 1);
+        for (String known = KNOWN_NAMES[index]; known != null; known = KNOWN_NAMES[index]) {
+            if (matches(known, data, start, end)) return known;
+            index = (index + 1) & (KNOWN_NAMES.length - 1);
+        }
+        return new String(data, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean matches(String known, byte[] data, int start, int end) {
+        if (known.length() != end - start) return false;
+        for (int i = 0; i < known.length(); i++) {
+            if (toLowerCase(known.charAt(i)) != toLowerCase(data[start + i])) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 대소문자를 구분하지 않는 해시 값을 계산합니다. 바이트로 계산한 값과 같습니다.
+     * */
+    private static int hash(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            hash = 31 * hash + toLowerCase(name.charAt(i));
+        }
+        return hash;
+    }
+
+    private static int toLowerCase(int c) {
+        return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+    }
+
+}
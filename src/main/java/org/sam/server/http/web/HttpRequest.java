@@ -1,16 +1,19 @@
 package org.sam.server.http.web;
 
 import org.sam.server.constant.ContentType;
+import org.sam.server.constant.HttpHeader;
 import org.sam.server.constant.HttpMethod;
 import org.sam.server.http.Cookie;
 import org.sam.server.http.CookieStore;
 import org.sam.server.http.SessionManager;
 import org.sam.server.http.Session;
-import org.sam.server.util.StringUtils;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
@@ -22,28 +25,38 @@ import java.util.*;
  */
 public class HttpRequest implements Request {
 
-    private final String protocol;
-
     private final String path;
 
     private final HttpMethod method;
 
-    private final Map<String, String> headers;
+    private final RequestHeadParser head;
+
+    private final byte[] bufferedBody;
+
+    private final boolean jsonBody;
+
+    private final InputStream body;
 
-    private final Map<String, String> parameterMap;
+    private String protocol;
 
-    private final String json;
+    private HttpHeaders headers;
 
-    private final Set<Cookie> cookies;
+    private FormParameters formParameters;
+
+    private Map<String, String> parameterMap;
+
+    private String json;
+
+    private Set<Cookie> cookies;
 
     protected HttpRequest(RequestParser requestParser) {
-        this.protocol = requestParser.protocol;
         this.path = requestParser.url;
         this.method = requestParser.httpMethod;
-        this.headers = requestParser.headers;
-        this.parameterMap = requestParser.parameters;
-        this.json = requestParser.json;
-        this.cookies = requestParser.cookies;
+        this.head = requestParser.head;
+        this.bufferedBody = requestParser.bufferedBody;
+        this.jsonBody = requestParser.jsonBody;
+        this.formParameters = requestParser.formParameters;
+        this.body = requestParser.body;
     }
 
     /**
@@ -60,6 +73,9 @@ public class HttpRequest implements Request {
 
     @Override
     public String getProtocol() {
+        if (this.protocol == null) {
+            this.protocol = head.getProtocol().toUpperCase();
+        }
         return this.protocol;
     }
 
@@ -73,50 +89,133 @@ public class HttpRequest implements Request {
         return this.method;
     }
 
+    /**
+     * 이름에 해당하는 첫 번째 파라미터 값을 반환합니다. 파라미터 목록을 만들지 않았다면 해석한 파라미터에서 바로 찾습니다.
+     *
+     * @param key 파라미터 이름
+     * @return 파라미터 값
+     * */
     @Override
     public String getParameter(String key) {
-        return this.parameterMap.get(key);
+        if (this.parameterMap != null) {
+            return this.parameterMap.get(key);
+        }
+        return getFormParameters().getFirst(key);
+    }
+
+    @Override
+    public List<String> getParameterValues(String key) {
+        List<String> values = getFormParameters().getAll(key);
+        if (values.isEmpty() && this.parameterMap != null && this.parameterMap.containsKey(key)) {
+            return Collections.singletonList(this.parameterMap.get(key));
+        }
+        return values;
     }
 
+    /**
+     * 파라미터 목록을 반환합니다. 이름마다 첫 번째 값을 담으며, 처음 호출될 때 만듭니다.
+     *
+     * @return 파라미터 목록
+     * */
     @Override
     public Map<String, String> getParameters() {
+        if (this.parameterMap == null) {
+            this.parameterMap = getFormParameters().toMap();
+        }
         return this.parameterMap;
     }
 
     @Override
     public Set<String> getParameterNames() {
-        return this.parameterMap.keySet();
+        return getParameters().keySet();
     }
 
     @Override
     public Set<String> getHeaderNames() {
-        return headers.keySet();
+        return getHeaders().names();
     }
 
     @Override
     public String getHeader(String key) {
-        return headers.get(key);
+        return getHeaders().get(key);
     }
 
+    /**
+     * 헤더 목록을 반환합니다. 처음 호출될 때 읽어둔 헤더 바이트로 만듭니다.
+     *
+     * @return 헤더 목록
+     * */
+    @Override
+    public HttpHeaders getHeaders() {
+        if (this.headers == null) {
+            HttpHeaders headers = new HttpHeaders(head.getHeaderCount());
+            for (int i = 0; i < head.getHeaderCount(); i++) {
+                headers.append(head.getHeaderName(i), head.getHeaderValue(i));
+            }
+            this.headers = headers;
+        }
+        return this.headers;
+    }
+
+    /**
+     * JSON 바디를 반환합니다. 처음 호출될 때 읽어둔 바이트를 문자열로 만듭니다.
+     *
+     * @return JSON 바디
+     * */
     @Override
     public String getJson() {
-        return json;
+        if (this.json == null && this.jsonBody) {
+            this.json = new String(bufferedBody, StandardCharsets.UTF_8);
+        }
+        return this.json;
+    }
+
+    @Override
+    public InputStream getBody() {
+        return body;
     }
 
+    /**
+     * 쿠키 목록을 반환합니다. 처음 호출될 때 Cookie 헤더를 해석합니다.
+     *
+     * @return 쿠키 목록
+     * */
     @Override
     public Set<Cookie> getCookies() {
+        if (this.cookies == null) {
+            String cookie = getHeader(HttpHeader.COOKIE);
+            this.cookies = cookie != null ? CookieStore.parseCookie(cookie) : new HashSet<>();
+        }
         return this.cookies;
     }
 
     @Override
     public Session getSession() {
-        for (Cookie cookie : cookies) {
+        for (Cookie cookie : getCookies()) {
             if (!cookie.getName().equals("sessionId")) continue;
             return SessionManager.getSession(cookie.getValue());
         }
         return new Session();
     }
 
+    /**
+     * 쿼리 스트링과 폼 바디의 파라미터를 반환합니다. 처음 호출될 때 쿼리 스트링, 폼 바디 순서로 해석합니다.
+     *
+     * @return 파라미터 목록
+     * @see FormDecoder
+     * */
+    private FormParameters getFormParameters() {
+        if (this.formParameters == null) {
+            FormParameters parameters = new FormParameters();
+            head.decodeQuery(parameters);
+            if (bufferedBody != null && !jsonBody) {
+                FormDecoder.decode(bufferedBody, 0, bufferedBody.length, parameters);
+            }
+            this.formParameters = parameters;
+        }
+        return this.formParameters;
+    }
+
     /**
      * 소켓으로 부터 받은 InputStream을 읽어 Request 인스턴스를 생성하는 클래스입니다.
      *
@@ -127,60 +226,111 @@ public class HttpRequest implements Request {
      * */
     protected static class RequestParser {
 
-        protected String protocol;
+        private static final InputStream EMPTY_BODY = new ByteArrayInputStream(new byte[0]);
+
+        /**
+         * 헤더를 읽을 때 쓰레드마다 재사용하는 버퍼입니다. 큰 헤더를 읽느라 늘린 버퍼는 재사용하지 않습니다.
+         * */
+        private static final ThreadLocal<byte[]> HEAD_BUFFERS = ThreadLocal.withInitial(() -> new byte[8192]);
+
+        /**
+         * multipart 본문에서 파일이 아닌 한 줄에 허용하는 최대 바이트 수입니다.
+         * */
+        private static final int MAX_MULTIPART_LINE_LENGTH = 1024 * 1024;
+
+        private static final Set<String> BUFFERED_MEDIA_TYPES = new HashSet<>(Arrays.asList(
+                ContentType.APPLICATION_JSON.getValue(),
+                ContentType.MULTIPART_FORM_DATA.getValue(),
+                "application/x-www-form-urlencoded"));
+
+        protected RequestHeadParser head;
 
         protected String url;
 
         protected HttpMethod httpMethod;
 
-        protected Map<String, String> headers = new HashMap<>();
-
         protected ContentType contentType;
 
         protected String boundary;
 
-        protected Map<String, String> parameters = new HashMap<>();
+        protected FormParameters formParameters;
 
-        protected String json;
+        protected byte[] bufferedBody;
 
-        protected Set<Cookie> cookies = new HashSet<>();
+        protected boolean jsonBody;
 
         protected Map<String, Object> files = new HashMap<>();
 
+        protected InputStream body = EMPTY_BODY;
+
         /**
          * InputStream에서 HTTP 본문을 읽은 후 파싱합니다.
+         * 헤더, 쿼리 스트링, 쿠키, 바디는 읽어두기만 하고 요청 인스턴스에서 처음 사용할 때 해석합니다.
          *
          * @param in 소켓의 InputStream
          * */
         private void parse(InputStream in) {
-            BufferedInputStream inputStream = new BufferedInputStream(in);
-            String headersPart = parseHeaderPart(inputStream);
+            InputStream inputStream = in.markSupported() ? in : new BufferedInputStream(in);
+            RequestHeadParser head = parseHeaderPart(inputStream);
 
-            if (isNonHttpRequest(headersPart)) return;
+            if (head == null) return;
 
-            String[] headers = headersPart.split("\r\n");
-            StringTokenizer tokenizer = new StringTokenizer(headers[0]);
-            String httpMethodPart = tokenizer.nextToken().toUpperCase();
-            String requestUrl = tokenizer.nextToken().toLowerCase();
-
-            this.protocol = tokenizer.nextToken().toUpperCase();
-            this.headers = parseHeaders(headers);
-            this.httpMethod = HttpMethod.valueOf(httpMethodPart);
+            this.head = head;
+            this.httpMethod = head.getMethod();
+            this.url = head.getPath().toLowerCase();
             this.contentType = parseContentType();
 
-            String query = parseRequestUrl(requestUrl);
-
-            if (StringUtils.isNotEmpty(query)) {
-                this.parameters = parseQuery(query);
+            InputStream bodyStream = openBodyStream(inputStream);
+            if (bodyStream == null) return;
+            if (!isBufferedBody()) {
+                this.body = bodyStream;
+                return;
             }
+            try (InputStream requestBody = bodyStream) {
+                if (isExistsHttpBody()) {
+                    parseBody(requestBody);
+                }
+            } catch (SocketTimeoutException e) {
+                return;
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
 
-            if (isExistsHttpBody()) {
-                parseBody(inputStream);
+        /**
+         * Transfer-Encoding, Content-Length 헤더에 따라 바디만 읽을 수 있는 스트림을 엽니다.
+         *
+         * @param inputStream 소켓의 InputStream
+         * @return 바디 스트림, 바디가 없다면 null
+         * */
+        private InputStream openBodyStream(InputStream inputStream) {
+            if (head.isChunked()) {
+                return new ChunkedInputStream(inputStream);
             }
+            long contentLength = head.getContentLength();
+            if (contentLength <= 0) return null;
+            return new ContentLengthInputStream(inputStream, contentLength);
+        }
+
+        /**
+         * 바디를 미리 읽어 파라미터, JSON, 파일로 변환해야 하는 요청인지 확인합니다.
+         * 그 외의 바디는 읽지 않고 두어 핸들러가 InputStream으로 소켓에서 바로 읽을 수 있도록 합니다.
+         *
+         * @return 바디를 미리 읽을지 여부
+         * */
+        private boolean isBufferedBody() {
+            String contentType = head.getHeader(HttpHeader.CONTENT_TYPE);
+            if (contentType == null) return true;
+            int index = contentType.indexOf(';');
+            String mediaType = (index == -1 ? contentType : contentType.substring(0, index)).trim().toLowerCase();
+            return BUFFERED_MEDIA_TYPES.contains(mediaType);
         }
 
         private ContentType parseContentType() {
-            String contentType = this.headers.getOrDefault("content-type", "text/plain");
+            String contentType = head.getHeader(HttpHeader.CONTENT_TYPE);
+            if (contentType == null) {
+                contentType = "text/plain";
+            }
             ContentType result = ContentType.get(contentType);
             if (contentType.startsWith(ContentType.MULTIPART_FORM_DATA.getValue())) {
                 this.boundary = "--" + contentType.split("; ")[1].split("=")[1];
@@ -192,10 +342,12 @@ public class HttpRequest implements Request {
         /**
          * HTTP 바디에 있는 데이터를 파싱합니다.
          *
-         * @param inputStream 인풋 스트림
+         * @param inputStream 바디 스트림
          * */
-        private void parseBody(BufferedInputStream inputStream) {
+        private void parseBody(InputStream inputStream) {
             if (this.boundary != null) {
+                this.formParameters = new FormParameters();
+                head.decodeQuery(this.formParameters);
                 parseMultipartBody(inputStream);
                 return;
             }
@@ -203,28 +355,40 @@ public class HttpRequest implements Request {
         }
 
         /**
-         * HTTP 헤더를 읽어 반환합니다.
+         * HTTP 시작줄과 헤더를 읽습니다. 스트림에서 한 번에 여러 바이트를 읽어 쓰레드마다 재사용하는 버퍼에 담고,
+         * 헤더를 모두 읽으면 헤더 다음 위치로 스트림을 되돌려 바디와 다음 요청은 그대로 남겨둡니다.
          *
-         * @param inputStream 인풋 스트림
-         * @return HTTP 헤더 내용
+         * @param inputStream mark, reset을 지원하는 인풋 스트림
+         * @return 헤더를 읽은 파서, HTTP 요청이 아니거나 헤더를 모두 읽지 못했다면 null
+         * @see RequestHeadParser
          * */
-        private String parseHeaderPart(BufferedInputStream inputStream) {
-            int i;
-            String headersPart = "";
-            StringBuilder sb = new StringBuilder();
+        private RequestHeadParser parseHeaderPart(InputStream inputStream) {
+            RequestHeadParser parser = new RequestHeadParser();
+            byte[] buffer = HEAD_BUFFERS.get();
+            int length = 0;
             try {
-                while ((i = inputStream.read()) != -1) {
-                    char c = (char) i;
-                    sb.append(c);
-                    if (isEndOfHeader(sb.toString())) {
-                        headersPart = sb.toString().replace("\r\n\r\n", "");
-                        break;
+                inputStream.mark(RequestHeadParser.MAX_HEAD_SIZE);
+                while (!parser.parse(buffer, 0, length)) {
+                    if (length == buffer.length) {
+                        buffer = getDoubleArray(buffer);
                     }
+                    int read = inputStream.read(buffer, length, Math.min(buffer.length, RequestHeadParser.MAX_HEAD_SIZE) - length);
+                    if (read == -1) return null;
+                    length += read;
                 }
+                inputStream.reset();
+                parser.detach();
+                long remaining = parser.getHeadLength();
+                while (remaining > 0) {
+                    remaining -= inputStream.skip(remaining);
+                }
+            } catch (RequestHeadParser.MalformedRequestException | SocketTimeoutException e) {
+                return null;
             } catch (IOException e) {
                 e.printStackTrace();
+                return null;
             }
-            return headersPart;
+            return parser;
         }
 
         /**
@@ -233,92 +397,28 @@ public class HttpRequest implements Request {
          * @param inputStream 소켓의 InputSteam
          * */
         private void parseRequestBody(InputStream inputStream) {
-            StringBuilder sb = new StringBuilder();
             try {
-                int binary;
-                int inputStreamLength = inputStream.available();
-                byte[] data = new byte[inputStreamLength];
-                int i = 0;
-                while ((binary = inputStream.read()) != -1) {
-                    data[i] = (byte) binary;
-                    if (isEndOfLine(data, i) || inputStream.available() == 0) {
-                        data = Arrays.copyOfRange(data, 0, i + 1);
-                        String line = new String(data, StandardCharsets.UTF_8);
-                        sb.append(line);
-                        data = new byte[inputStreamLength];
-                        i = 0;
-                    }
-                    if (inputStream.available() == 0) break;
-                    i++;
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int len;
+                while ((len = inputStream.read(buffer)) != -1) {
+                    body.write(buffer, 0, len);
                 }
                 if (isJsonRequest()) {
-                    this.json = sb.toString();
+                    this.bufferedBody = body.toByteArray();
+                    this.jsonBody = true;
                     return;
                 }
-                this.parameters = parseQuery(sb.toString());
+                if (body.size() == 0) return;
+                this.bufferedBody = body.toByteArray();
+            } catch (SocketTimeoutException e) {
+                return;
             } catch (IOException e) {
                 e.printStackTrace();
             }
 
         }
 
-        /**
-         * HTTP 헤더를 파싱합니다.
-         *  @param headers 헤더 본문
-         *  @return 헤더 목록
-         * */
-        private Map<String, String> parseHeaders(String[] headers) {
-            Map<String, String> result = new HashMap<>();
-            for (int i = 1; i < headers.length; i++) {
-                int index = headers[i].indexOf(": ");
-                String key = headers[i].substring(0, index).toLowerCase();
-                String value = headers[i].substring(index + 2);
-                if ("cookie".equals(key)) {
-                    this.cookies = CookieStore.parseCookie(value);
-                    continue;
-                }
-                result.put(key, value);
-            }
-            return result;
-        }
-
-        /**
-         * 요청 URL을 파싱하여 저장하고 쿼리 스트링을 반환합니다.
-         *
-         * @param url 요청 URL
-         * @return 쿼리 스트링
-         * */
-        private String parseRequestUrl(String url) {
-            int index = url.indexOf("?");
-            if (index == -1) {
-                this.url = url;
-                return "";
-            }
-            this.url = url.substring(0, index);
-            return url.substring(index + 1);
-        }
-
-        /**
-         * 쿼리 스트링을 파싱합니다.
-         *
-         * @param  parameters 쿼리 스트링
-         * @return 파라미터 목록
-         * */
-        private Map<String, String> parseQuery(String parameters) {
-            Map<String, String> map = new HashMap<>();
-            String[] rawParameters = parameters.split("&");
-            for (String rawParameter : rawParameters) {
-                String[] parameterPair = rawParameter.split("=");
-                String name = parameterPair[0];
-                String value = "";
-                if (isExistsParameterValue(parameterPair)) {
-                    value = parameterPair[1];
-                }
-                map.put(name, value);
-            }
-            return map;
-        }
-
         /**
          * multipart/form-data 요청을 파싱합니다.
          *
@@ -335,6 +435,8 @@ public class HttpRequest implements Request {
                         return;
                     }
                 }
+            } catch (SocketTimeoutException e) {
+                return;
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -347,7 +449,6 @@ public class HttpRequest implements Request {
          * @throws IOException InputStream을 읽다가 오류 발생시
          * */
         private void parseMultipartLine(InputStream inputStream) throws IOException {
-            int i = 0;
             int loopCnt = 0;
             String name = "";
             String value = "";
@@ -355,16 +456,14 @@ public class HttpRequest implements Request {
             String mimeType = "";
             byte[] fileData = null;
             boolean isFile = false;
-            int inputStreamLength = inputStream.available();
-            byte[] data = new byte[inputStreamLength];
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            int previous = -1;
             int binary;
             while ((binary = inputStream.read()) != -1) {
-                data[i] = (byte) binary;
-                if (isEndOfLine(data, i)) {
-                    data = Arrays.copyOfRange(data, 0, i);
-                    String line = new String(data, StandardCharsets.UTF_8);
-                    data = new byte[inputStreamLength];
-                    i = 0;
+                if (binary == '\n' && previous == '\r') {
+                    String line = new String(data.toByteArray(), StandardCharsets.UTF_8);
+                    data.reset();
+                    previous = -1;
                     if (loopCnt == 0) {
                         loopCnt++;
                         int index = line.indexOf("\"");
@@ -393,7 +492,7 @@ public class HttpRequest implements Request {
                         if (!filename.isEmpty()) {
                             createMultipartFile(name, filename, mimeType, fileData);
                         } else {
-                            this.parameters.put(name, value);
+                            this.formParameters.add(name, value);
                         }
 
                         name = "";
@@ -403,9 +502,11 @@ public class HttpRequest implements Request {
                         fileData = null;
                         loopCnt = 0;
                     }
-                    if (inputStream.available() == 0) return;
+                    continue;
                 }
-                i++;
+                if (data.size() >= MAX_MULTIPART_LINE_LENGTH) throw new IOException("multipart line too long");
+                data.write(binary);
+                previous = binary;
             }
         }
 
@@ -471,6 +572,8 @@ public class HttpRequest implements Request {
                     }
                     fileLength++;
                 }
+            } catch (SocketTimeoutException e) {
+                return null;
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -485,7 +588,7 @@ public class HttpRequest implements Request {
          * @see org.sam.server.http.web.HttpMultipartRequest
          * */
         public Request createRequest() {
-            if (headers.isEmpty()) return null;
+            if (httpMethod == null) return null;
             if (contentType == ContentType.MULTIPART_FORM_DATA) {
                 return new HttpMultipartRequest(this);
             }
@@ -503,37 +606,6 @@ public class HttpRequest implements Request {
             return index != 0 && data[index - 1] == '\r' && data[index] == '\n';
         }
 
-        /**
-         *  헤더의 끝 부분인지 확인합니다.
-         *
-         * @param data 데이터
-         * @return 헤더의 끝인지 여부
-         * */
-        private static boolean isEndOfHeader(String data) {
-            String CR = "\r";
-            return data.endsWith(CR + "\n\r\n");
-        }
-
-        /**
-         * 파라미터에 값이 있는지 확인합니다.
-         *
-         * @param parameterPair 파라미터 쌍
-         * @return 파라미터 값 존재 여부
-         * */
-        private boolean isExistsParameterValue(String[] parameterPair) {
-            return parameterPair.length == 2;
-        }
-
-        /**
-         * HTTP 요청이 아닌지 확인합니다.
-         *
-         * @param headersPart 헤더
-         * @return HTTP 요청이 아닌지에 대한 여부
-         * */
-        private boolean isNonHttpRequest(String headersPart) {
-            return headersPart.trim().isEmpty();
-        }
-
         /**
          * HTTP 바디에 메시지가 존재하는 지 확인합니다.
          *
@@ -549,7 +621,7 @@ public class HttpRequest implements Request {
          * HTTP 요청 본문이 JSON인지 확인합니다.
          * */
         private boolean isJsonRequest() {
-            return this.contentType == ContentType.APPLICATION_JSON && this.parameters.isEmpty();
+            return this.contentType == ContentType.APPLICATION_JSON && !head.hasQuery();
         }
 
         /**
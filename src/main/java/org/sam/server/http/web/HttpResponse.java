@@ -1,7 +1,9 @@
 package org.sam.server.http.web;
 
 import org.sam.server.common.ServerProperties;
+import org.sam.server.common.ServerStatus;
 import org.sam.server.constant.ContentType;
+import org.sam.server.constant.HttpHeader;
 import org.sam.server.constant.HttpMethod;
 import org.sam.server.constant.HttpStatus;
 import org.sam.server.exception.ResourcesNotFoundException;
@@ -11,9 +13,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
-import java.time.LocalDateTime;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 요청을 해석하고 응답하는 클래스입니다. 정적 자원을 반환합니다.
@@ -25,14 +38,36 @@ public class HttpResponse implements Response {
 
     private static final Logger logger = LoggerFactory.getLogger(HttpResponse.class);
 
-    private final PrintWriter writer;
+    private static final int TRANSFER_BUFFER_SIZE = ServerProperties.getInt("server.static.buffer-size", 64 * 1024);
+
+    /**
+     * 정적 자원을 복사할 때 재사용하는 버퍼입니다. 요청마다 파일 크기만큼 할당하지 않도록 쓰레드 수와 관계없이 일정 개수만 보관합니다.
+     * */
+    private static final BlockingQueue<byte[]> transferBuffers = new ArrayBlockingQueue<>(64);
+
+    private static volatile String cachedDate;
+
+    private static volatile long cachedDateSecond;
+
+    private static final String[] ENTITY_HEADERS = { HttpHeader.CONTENT_TYPE, HttpHeader.CONTENT_LENGTH, HttpHeader.CACHE_CONTROL };
+
+    /**
+     * 한 요청에서 받는 최대 범위 수입니다. 더 많다면 Range 헤더를 무시하고 전체를 보냅니다.
+     * */
+    private static final int MAX_RANGES = 16;
+
+    private static final byte[] CRLF = "\r\n".getBytes(StandardCharsets.UTF_8);
+
+    private final OutputStream rawOutputStream;
 
     private final BufferedOutputStream outputStream;
 
-    private final Map<String, Object> headers = new HashMap<>();
+    private final HttpHeaders headers = new HttpHeaders();
 
     private final Set<Cookie> cookies = CookieStore.getCookies();
 
+    private final Request request;
+
     private final String requestPath;
 
     private final HttpMethod requestMethod;
@@ -47,12 +82,19 @@ public class HttpResponse implements Response {
 
     private long fileLength;
 
-    private HttpResponse(OutputStream os, String path, HttpMethod requestMethod) {
-        int bufferSize = BUFFER_SIZE_PROPERTY != null ? Integer.parseInt(BUFFER_SIZE_PROPERTY) : 8192;
-        this.writer = new PrintWriter(os);
+    private boolean committed;
+
+    private final int bufferSize;
+
+    private ChunkedOutputStream bodyStream;
+
+    private HttpResponse(OutputStream os, String path, HttpMethod requestMethod, Request request) {
+        this.bufferSize = BUFFER_SIZE_PROPERTY != null ? Integer.parseInt(BUFFER_SIZE_PROPERTY) : 8192;
+        this.rawOutputStream = os;
         this.outputStream = new BufferedOutputStream(os, bufferSize);
         this.requestPath = path;
         this.requestMethod = requestMethod;
+        this.request = request;
     }
 
     /**
@@ -65,169 +107,539 @@ public class HttpResponse implements Response {
      * @return HttpResponse 인스턴스
      * */
     public static Response of(OutputStream os, String requestPath, HttpMethod requestMethod) {
-        return new HttpResponse(os, requestPath, requestMethod);
+        return new HttpResponse(os, requestPath, requestMethod, null);
+    }
+
+    /**
+     * 요청에 대한 인스턴스를 생성합니다. 정적 자원을 응답할 때 요청의 조건부 헤더를 확인합니다.
+     *
+     * @param os 응답을 출력할 스트림
+     * @param request 요청 인스턴스
+     * @return HttpResponse 인스턴스
+     * */
+    public static Response of(OutputStream os, Request request) {
+        return new HttpResponse(os, request.getUrl(), request.getMethod(), request);
     }
 
     @Override
     public void execute(String pathOrJson, HttpStatus status) {
+        if (committed) {
+            closeBodyStream();
+            return;
+        }
         this.httpStatus = status;
         try {
             if (getContentMimeType().equals(ContentType.APPLICATION_JSON) && !requestMethod.equals(HttpMethod.OPTIONS)) {
-                this.fileLength = readJson(pathOrJson);
+                byte[] json = encodeBody(readJson(pathOrJson));
+                this.fileLength = json.length;
+                printHeaders();
+                printBody(json);
             } else if (allowedMethods.isEmpty()) {
-                this.fileLength = readStaticResource(pathOrJson);
+                readStaticResource(pathOrJson);
+            } else {
+                printHeaders();
             }
-            setHeaders();
-            printHeaders();
             CookieStore.vacateList();
         } catch (IOException e) {
             e.printStackTrace();
         } finally {
-            writer.flush();
             try {
                 outputStream.flush();
-                outputStream.close();
             } catch (IOException e) {
                 e.printStackTrace();
             }
-            writer.close();
+        }
+    }
+
+    @Override
+    public OutputStream openStream(HttpStatus status) throws IOException {
+        if (committed) throw new IllegalStateException("response already committed");
+        this.httpStatus = status;
+        boolean chunked = request == null || !"HTTP/1.0".equals(request.getProtocol());
+        this.bodyStream = new ChunkedOutputStream(outputStream, bufferSize, requestMethod.equals(HttpMethod.HEAD), chunked);
+        printHeaders();
+        CookieStore.vacateList();
+        outputStream.flush();
+        return bodyStream;
+    }
+
+    /**
+     * 핸들러가 닫지 않은 스트리밍 응답을 마칩니다.
+     * */
+    private void closeBodyStream() {
+        if (bodyStream == null) return;
+        try {
+            bodyStream.close();
+        } catch (IOException e) {
+            logger.debug("failed to finish chunked response: " + e.getMessage());
         }
     }
 
     /**
-     * 정적 자원의 경로를 받아 파일을 읽습니다. 파일이 존재하지 않으면 notFound 메서드를 호출합니다.
+     * 정적 자원의 경로를 받아 파일을 읽고 응답합니다. 파일이 존재하지 않으면 notFound 메서드를 호출합니다.
+     * 캐시에 바이트가 있다면 미리 만들어 둔 헤더와 함께 바로 쓰고, 큰 파일은 파일 채널이나 매핑한 버퍼로 보내며, jar 안의 큰 자원만 스트림으로 복사합니다.
      *
      * @param filePath 파일 경로
-     * @return 파일의 길이
+     * @throws IOException 파일을 읽거나 쓰다가 오류 발생시
      * @see #notFound()
-     * @see #readFileData(File)
-     * @see #readStaticResources(InputStream)
+     * @see StaticResourceCache
      * */
-    private long readStaticResource(String filePath) {
-        InputStream fis = Thread.currentThread().getContextClassLoader().getResourceAsStream(filePath);
-        File staticFile = new File("src/main" + filePath);
-        if (fis == null && !staticFile.exists()) {
+    private void readStaticResource(String filePath) throws IOException {
+        StaticResource identity = StaticResourceCache.get(filePath);
+        if (identity == null) {
             notFound();
-            return 0;
+            return;
         }
         if (!filePath.equals(NOT_FOUND_PAGE) && requestMethod.equals(HttpMethod.OPTIONS)) {
             allowedMethods.add(HttpMethod.GET);
-            return 0;
+            printHeaders();
+            return;
         }
-        long fileLength = 0;
+        StaticResource resource = selectEncoding(filePath, identity);
+        if (isNotModified(resource)) {
+            this.httpStatus = HttpStatus.NOT_MODIFIED;
+            printHeaders(resource.getNotModifiedBlock(getCacheControl()));
+            return;
+        }
+        List<long[]> ranges = getRanges(resource);
+        if (ranges != null) {
+            printRanges(resource, ranges);
+            return;
+        }
+        this.fileLength = resource.getLength();
+        printHeaders(resource.getHeaderBlock(getContentMimeType().getValue(), getCacheControl()));
+        if (this.requestMethod.equals(HttpMethod.HEAD)) return;
+        writeResource(resource, 0, fileLength);
+    }
+
+    /**
+     * 클라이언트가 받을 수 있는 압축 방식에 맞는 정적 자원을 고릅니다. gzip이라면 미리 압축해 둔 .gz 파일을 먼저 사용하고,
+     * 없다면 캐시에 보관한 바디를 한 번만 압축하여 사용합니다. 압축할 수 있는 자원이라면 Vary 헤더를 추가합니다.
+     *
+     * @param filePath 파일 경로
+     * @param resource 압축하지 않은 정적 자원
+     * @return 응답할 정적 자원
+     * @throws IOException .gz 파일을 읽다가 오류 발생시
+     * @see Compression
+     * */
+    private StaticResource selectEncoding(String filePath, StaticResource resource) throws IOException {
+        if (!Compression.isCompressible(getContentMimeType().getValue(), resource.getLength())) return resource;
+        headers.set(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+        String encoding = Compression.negotiate(request != null ? request.getHeader(HttpHeader.ACCEPT_ENCODING) : null);
+        if (encoding == null) return resource;
+        StaticResource encoded = null;
+        if (encoding.equals(Compression.GZIP) && resource.isPrecompressed()) {
+            StaticResource precompressed = StaticResourceCache.get(filePath + ".gz");
+            if (precompressed != null && precompressed.getLastModified() >= resource.getLastModified()) {
+                encoded = precompressed;
+            }
+        }
+        if (encoded == null) {
+            encoded = StaticResourceCache.getEncoded(resource, encoding);
+        }
+        if (encoded != resource) {
+            headers.set(HttpHeader.CONTENT_ENCODING, encoding);
+        }
+        return encoded;
+    }
+
+    /**
+     * 압축할 수 있는 응답 바디라면 클라이언트가 받을 수 있는 방식으로 압축하고 Content-Encoding, Vary 헤더를 추가합니다.
+     *
+     * @param body 응답 바디
+     * @return 압축한 바디, 압축하지 않는다면 원래 바디
+     * @see Compression
+     * */
+    private byte[] encodeBody(byte[] body) {
+        if (!Compression.isCompressible(getContentMimeType().getValue(), body.length)) return body;
+        headers.set(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING);
+        String encoding = Compression.negotiate(request != null ? request.getHeader(HttpHeader.ACCEPT_ENCODING) : null);
+        if (encoding == null) return body;
+        byte[] encoded = Compression.compress(body, encoding);
+        if (encoded.length >= body.length) return body;
+        headers.set(HttpHeader.CONTENT_ENCODING, encoding);
+        return encoded;
+    }
+
+    /**
+     * 정적 자원의 일부를 응답 바디로 씁니다. jar 안의 큰 자원은 처음부터 끝까지만 쓸 수 있습니다.
+     *
+     * @param resource 정적 자원
+     * @param position 시작 위치
+     * @param count 쓸 바이트 수
+     * @throws IOException 파일을 읽거나 쓰다가 오류 발생시
+     * */
+    private void writeResource(StaticResource resource, long position, long count) throws IOException {
+        if (resource.getBody() != null) {
+            outputStream.write(resource.getBody(), (int) position, (int) count);
+        } else if (resource.getFile() != null) {
+            transferResource(resource, position, count);
+        } else {
+            try (InputStream in = resource.getUrl().openStream()) {
+                copy(in, outputStream);
+            }
+        }
+    }
+
+    /**
+     * Range 헤더를 해석하여 보낼 범위를 반환합니다. 형식이 잘못되었거나, If-Range가 현재 자원과 맞지 않거나,
+     * 요청한 범위가 너무 많거나 합이 자원보다 크다면 Range 헤더를 무시하고 전체를 보냅니다.
+     *
+     * @param resource 정적 자원
+     * @return 처음과 끝 위치(끝 포함)의 리스트, 범위를 무시한다면 null, 만족하는 범위가 없다면 빈 리스트
+     * */
+    private List<long[]> getRanges(StaticResource resource) {
+        if (request == null || !httpStatus.equals(HttpStatus.OK) || !requestMethod.equals(HttpMethod.GET)) return null;
+        String range = request.getHeader(HttpHeader.RANGE);
+        if (range == null || resource.getBody() == null && resource.getFile() == null) return null;
+        String ifRange = request.getHeader(HttpHeader.IF_RANGE);
+        if (ifRange != null && !isCurrentVersion(ifRange.trim(), resource)) return null;
+        if (!range.regionMatches(true, 0, "bytes=", 0, 6)) return null;
+        String[] specs = range.substring(6).split(",");
+        if (specs.length > MAX_RANGES) return null;
+        long length = resource.getLength();
+        long total = 0;
+        List<long[]> ranges = new ArrayList<>();
         try {
-            if (staticFile.exists()) {
-                fileLength = readFileData(staticFile);
-            } else {
-                assert fis != null;
-                fileLength = readStaticResources(fis);
+            for (String spec : specs) {
+                spec = spec.trim();
+                int dash = spec.indexOf('-');
+                if (dash == -1) return null;
+                long start;
+                long end;
+                if (dash == 0) {
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix < 0) return null;
+                    start = Math.max(0, length - suffix);
+                    end = length - 1;
+                    if (suffix == 0 || length == 0) continue;
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    end = dash == spec.length() - 1 ? Long.MAX_VALUE : Long.parseLong(spec.substring(dash + 1));
+                    if (start < 0 || end < start) return null;
+                    if (start >= length) continue;
+                    end = Math.min(end, length - 1);
+                }
+                total += end - start + 1;
+                ranges.add(new long[] { start, end });
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        return total > length ? null : ranges;
+    }
+
+    /**
+     * If-Range 값이 현재 자원의 ETag 혹은 Last-Modified와 같은지 확인합니다. ETag는 강한 비교를 합니다.
+     * */
+    private static boolean isCurrentVersion(String ifRange, StaticResource resource) {
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(resource.getETag());
+        if (resource.getLastModified() <= 0) return false;
+        try {
+            long date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return resource.getLastModified() / 1000 == date;
+        } catch (DateTimeParseException e) {
+            return false;
         }
-        return fileLength;
     }
 
     /**
-     * 정적 파일을 읽은 후 OutputStream에 쓰고 파일의 길이를 반환합니다.
+     * 요청한 범위를 응답합니다. 범위가 하나라면 그 부분만 206으로, 여러 개라면 multipart/byteranges로 보내고,
+     * 만족하는 범위가 없다면 416으로 응답합니다.
      *
-     * @param fis 파일을 읽은 스트림
-     * @return 파일의 길이
-     * @throws IOException 파일을 읽다가 오류 발생시
+     * @param resource 정적 자원
+     * @param ranges 처음과 끝 위치(끝 포함)의 리스트
+     * @throws IOException 파일을 읽거나 쓰다가 오류 발생시
      * */
-    private long readStaticResources(InputStream fis) throws IOException {
-        long fileLength = 0;
-        int i;
-        while ((i = fis.read()) != -1) {
-            if (!this.requestMethod.equals(HttpMethod.HEAD)) {
-                outputStream.write(i);
+    private void printRanges(StaticResource resource, List<long[]> ranges) throws IOException {
+        long length = resource.getLength();
+        if (ranges.isEmpty()) {
+            this.httpStatus = HttpStatus.RANGE_NOT_SATISFIABLE;
+            this.fileLength = 0;
+            headers.remove(HttpHeader.CONTENT_ENCODING);
+            headers.set(HttpHeader.CONTENT_RANGE, "bytes */" + length);
+            printHeaders();
+            return;
+        }
+        this.httpStatus = HttpStatus.PARTIAL_CONTENT;
+        String contentType = getContentMimeType().getValue();
+        if (ranges.size() == 1) {
+            long[] range = ranges.get(0);
+            this.fileLength = range[1] - range[0] + 1;
+            String contentRange = "bytes " + range[0] + "-" + range[1] + "/" + length;
+            printHeaders(resource.getRangeBlock(contentType, getCacheControl(), contentRange, fileLength));
+            writeResource(resource, range[0], fileLength);
+            return;
+        }
+        String boundary = Long.toHexString(ThreadLocalRandom.current().nextLong());
+        List<byte[]> partHeaders = new ArrayList<>();
+        long total = 0;
+        for (long[] range : ranges) {
+            String partHeader = (partHeaders.isEmpty() ? "" : "\r\n") + "--" + boundary + "\r\n" +
+                    "Content-Type: " + contentType + "\r\n" +
+                    "Content-Range: bytes " + range[0] + "-" + range[1] + "/" + length + "\r\n\r\n";
+            byte[] bytes = partHeader.getBytes(StandardCharsets.UTF_8);
+            partHeaders.add(bytes);
+            total += bytes.length + range[1] - range[0] + 1;
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8);
+        this.fileLength = total + closing.length;
+        printHeaders(resource.getRangeBlock("multipart/byteranges; boundary=" + boundary, getCacheControl(), null, fileLength));
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            outputStream.write(partHeaders.get(i));
+            writeResource(resource, range[0], range[1] - range[0] + 1);
+        }
+        outputStream.write(closing);
+    }
+
+    /**
+     * 클라이언트가 가진 자원이 그대로인지 조건부 헤더로 확인합니다. If-None-Match가 있다면 If-Modified-Since는 보지 않습니다.
+     * 바디를 읽기 전에 확인하므로, 변경되지 않았다면 파일을 읽지 않고 304로 응답할 수 있습니다.
+     *
+     * @param resource 정적 자원
+     * @return 변경되지 않았는지 여부
+     * */
+    private boolean isNotModified(StaticResource resource) {
+        if (request == null || !httpStatus.equals(HttpStatus.OK)) return false;
+        if (!requestMethod.equals(HttpMethod.GET) && !requestMethod.equals(HttpMethod.HEAD)) return false;
+        String ifNoneMatch = request.getHeader(HttpHeader.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if (tag.startsWith("W/")) {
+                    tag = tag.substring(2);
+                }
+                if (tag.equals("*") || tag.equals(resource.getETag())) return true;
+            }
+            return false;
+        }
+        String ifModifiedSince = request.getHeader(HttpHeader.IF_MODIFIED_SINCE);
+        if (ifModifiedSince == null || resource.getLastModified() <= 0) return false;
+        try {
+            long since = ZonedDateTime.parse(ifModifiedSince.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toEpochSecond();
+            return resource.getLastModified() / 1000 <= since;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 파일 시스템에 있는 정적 자원의 일부를 응답 바디로 보냅니다. 응답 스트림이 파일을 소켓으로 바로 보낼 수 없다면
+     * 여러 요청이 함께 사용하는 매핑한 버퍼에서 복사하고, 매핑 대상이 아닌 파일은 파일 채널로 읽습니다.
+     *
+     * @param resource 정적 자원
+     * @param position 시작 위치
+     * @param count 보낼 바이트 수
+     * @throws IOException 파일을 읽거나 쓰다가 오류 발생시
+     * @see StaticResourceCache#acquireMapping(StaticResource)
+     * */
+    private void transferResource(StaticResource resource, long position, long count) throws IOException {
+        ByteBuffer mapping = rawOutputStream instanceof FileTransfer ? null : StaticResourceCache.acquireMapping(resource);
+        if (mapping == null) {
+            transferFile(resource.getFile(), position, count);
+            return;
+        }
+        byte[] buffer = acquireTransferBuffer();
+        try {
+            ((Buffer) mapping).position((int) position);
+            long remaining = count;
+            while (remaining > 0) {
+                int size = (int) Math.min(buffer.length, remaining);
+                mapping.get(buffer, 0, size);
+                outputStream.write(buffer, 0, size);
+                remaining -= size;
             }
-            fileLength++;
+        } finally {
+            releaseTransferBuffer(buffer);
+            resource.releaseMapping();
         }
-        return fileLength;
     }
 
     /**
-     * 정적 파일을 읽은 후 OutputStream에 쓰고 파일의 길이를 반환합니.
+     * 파일의 일부를 응답 바디로 보냅니다. 응답 스트림이 FileTransfer를 구현한다면 힙을 거치지 않고 소켓으로 바로 보내고,
+     * 아니라면 재사용하는 버퍼로 필요한 만큼만 읽어서 씁니다.
      *
-     * @param file 정적 파일
-     * @return 파일의 길이
-     * @throws IOException 파일을 읽다가 문제 발생시
+     * @param file 파일
+     * @param position 시작 위치
+     * @param count 보낼 바이트 수
+     * @throws IOException 파일을 읽거나 쓰다가 오류 발생시
+     * @see FileTransfer
      * */
-    private long readFileData(File file) throws IOException {
-        FileInputStream fis = new FileInputStream(file);
-        if (!this.requestMethod.equals(HttpMethod.HEAD)) {
+    private void transferFile(Path file, long position, long count) throws IOException {
+        if (rawOutputStream instanceof FileTransfer) {
+            outputStream.flush();
+            ((FileTransfer) rawOutputStream).transferFile(file, position, count);
+            return;
+        }
+        byte[] buffer = acquireTransferBuffer();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+            long end = position + count;
+            while (position < end) {
+                ((Buffer) byteBuffer).clear();
+                ((Buffer) byteBuffer).limit((int) Math.min(buffer.length, end - position));
+                int read = channel.read(byteBuffer, position);
+                if (read == -1) throw new EOFException("file truncated: " + file);
+                outputStream.write(buffer, 0, read);
+                position += read;
+            }
+        } finally {
+            releaseTransferBuffer(buffer);
+        }
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = acquireTransferBuffer();
+        try {
             int len;
-            byte[] buf = new byte[fis.available()];
-            while ((len = fis.read(buf)) > 0) {
-                outputStream.write(buf, 0, len);
+            while ((len = in.read(buffer)) != -1) {
+                out.write(buffer, 0, len);
             }
+        } finally {
+            releaseTransferBuffer(buffer);
         }
-        fis.close();
+    }
 
-        return file.length();
+    private static byte[] acquireTransferBuffer() {
+        byte[] buffer = transferBuffers.poll();
+        return buffer != null ? buffer : new byte[TRANSFER_BUFFER_SIZE];
+    }
+
+    private static void releaseTransferBuffer(byte[] buffer) {
+        transferBuffers.offer(buffer);
     }
 
     /**
-     * JSON 문자열을 OutputStream에 쓰고 바이트 길이를 반환합니다.
+     * JSON 문자열을 바이트 배열로 변환합니다.
      *
      * @param json JSON 문자열
-     * @return JSON 문자열의 바이트 길이
-     * @throws IOException 문자열을 읽다가 오류 발생시
+     * @return JSON 문자열의 바이트 배열
      * */
-    private int readJson(String json) throws IOException {
+    private byte[] readJson(String json) {
         if (httpStatus.equals(HttpStatus.NOT_FOUND) || httpStatus.equals(HttpStatus.BAD_REQUEST)) {
-            return 0;
-        }
-
-        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
-
-        if (!this.requestMethod.equals(HttpMethod.HEAD)) {
-            outputStream.write(bytes);
+            return new byte[0];
         }
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
 
-        return bytes.length;
+    /**
+     * 응답 바디를 OutputStream에 씁니다. HEAD 요청에는 바디를 쓰지 않습니다.
+     *
+     * @param body 응답 바디
+     * @throws IOException 바디를 쓰다가 오류 발생시
+     * */
+    private void printBody(byte[] body) throws IOException {
+        if (this.requestMethod.equals(HttpMethod.HEAD)) return;
+        outputStream.write(body);
     }
 
     /**
      * 응답 헤더를 OutputStream에 씁니다.
+     *
+     * @throws IOException 헤더를 쓰다가 오류 발생시
      * */
-    private void printHeaders() {
-
+    private void printHeaders() throws IOException {
+        printHeaders(null);
+    }
 
-        writer.print("HTTP/1.1 " + httpStatus.getCode() + " " + httpStatus.getMessage() + "\r\n");
-        for (String key : headers.keySet()) {
-            writer.print(key + ": " + headers.get(key) + "\r\n");
+    /**
+     * 응답 헤더를 OutputStream에 씁니다. 정적 자원이라면 엔티티 헤더는 자원이 미리 만들어 둔 바이트를 씁니다.
+     *
+     * @param entityHeaders 미리 만들어 둔 엔티티 헤더(Content-Type, Content-length, Cache-Control 등), 없다면 null
+     * @throws IOException 헤더를 쓰다가 오류 발생시
+     * @see StaticResource#getHeaderBlock(String, String)
+     * */
+    private void printHeaders(byte[] entityHeaders) throws IOException {
+        setHeaders();
+        this.committed = true;
+        StringBuilder sb = new StringBuilder();
+        sb.append("HTTP/1.1 ").append(httpStatus.getCode()).append(" ").append(httpStatus.getMessage()).append("\r\n");
+        for (int i = 0; i < headers.size(); i++) {
+            String name = headers.getName(i);
+            if (entityHeaders != null && isEntityHeader(name)) continue;
+            sb.append(name).append(": ").append(headers.getValue(i)).append("\r\n");
         }
-        printCookies();
-        writer.print("\r\n");
+        printCookies(sb);
+        if (entityHeaders == null) {
+            sb.append("\r\n");
+            outputStream.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return;
+        }
+        outputStream.write(sb.toString().getBytes(StandardCharsets.UTF_8));
+        outputStream.write(entityHeaders);
+        outputStream.write(CRLF);
     }
 
     /**
      * 응답할 헤더 리스트를 세팅합니다.
      * */
     private void setHeaders() {
-        headers.put("Server", "Java HTTP Server from sam : 1.0");
-        headers.put("Date", LocalDateTime.now());
-        headers.put("Content-Type", getContentMimeType().getValue());
-        headers.put("Content-length", this.fileLength);
-        headers.put("Accept-Ranges", "bytes");
-        headers.put("Connection", "Keep-Alive");
-        headers.put("Keep-Alive", "timeout=60");
-
-        if (requestPath.startsWith("/resources")) {
-            headers.put("Cache-Control", "max-age=86400");
+        headers.set(HttpHeader.SERVER, "Java HTTP Server from sam : 1.0");
+        headers.set(HttpHeader.DATE, getDate());
+        headers.set(HttpHeader.CONTENT_TYPE, getContentMimeType().getValue());
+        if (bodyStream != null && bodyStream.isChunked()) {
+            headers.set(HttpHeader.TRANSFER_ENCODING, "chunked");
+        } else if (bodyStream != null) {
+            headers.set(HttpHeader.CONNECTION, "close");
+        } else {
+            headers.set(HttpHeader.CONTENT_LENGTH, Long.toString(this.fileLength));
+        }
+        headers.set(HttpHeader.ACCEPT_RANGES, "bytes");
+        if (ServerStatus.isShuttingDown()) {
+            headers.set(HttpHeader.CONNECTION, "close");
+        }
+        headers.setIfAbsent(HttpHeader.CONNECTION, "Keep-Alive");
+        if ("close".equalsIgnoreCase(headers.get(HttpHeader.CONNECTION))) {
+            headers.remove(HttpHeader.KEEP_ALIVE);
         } else {
-            headers.put("Cache-Control", "no-cache, no-store, must-revalidate");
+            headers.setIfAbsent(HttpHeader.KEEP_ALIVE, "timeout=60");
         }
 
+        headers.set(HttpHeader.CACHE_CONTROL, getCacheControl());
+
         if (requestMethod.equals(HttpMethod.OPTIONS) && allowedMethods.size() > 0) {
             StringJoiner stringJoiner = new StringJoiner(", ");
             for (HttpMethod allowedMethod : allowedMethods) {
                 stringJoiner.add(allowedMethod.toString());
             }
-            headers.put("Allow", stringJoiner.toString());
+            headers.set(HttpHeader.ALLOW, stringJoiner.toString());
+        }
+    }
+
+    private static boolean isEntityHeader(String name) {
+        for (String entityHeader : ENTITY_HEADERS) {
+            if (entityHeader == name || entityHeader.equalsIgnoreCase(name)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Date 헤더 값을 반환합니다. 초가 바뀔 때만 새로 만들고 같은 초 안의 응답은 만들어 둔 값을 씁니다.
+     *
+     * @return HTTP 날짜 형식의 현재 시각
+     * */
+    private static String getDate() {
+        long second = System.currentTimeMillis() / 1000;
+        String date = cachedDate;
+        if (second != cachedDateSecond || date == null) {
+            date = StaticResource.HTTP_DATE_FORMAT.format(Instant.ofEpochSecond(second));
+            cachedDate = date;
+            cachedDateSecond = second;
+        }
+        return date;
+    }
+
+    /**
+     * 요청 경로에 따라 Cache-Control 헤더 값을 반환합니다. 정적 자원은 하루 동안 캐시하도록 하고, 범위를 만족하지 못한 응답은 캐시하지 않도록 합니다.
+     *
+     * @return Cache-Control 헤더 값
+     * */
+    private String getCacheControl() {
+        if (requestPath.startsWith("/resources") && !httpStatus.equals(HttpStatus.RANGE_NOT_SATISFIABLE)) {
+            return "max-age=86400";
         }
+        return "no-cache, no-store, must-revalidate";
     }
 
     /**
@@ -247,11 +659,12 @@ public class HttpResponse implements Response {
     }
 
     /**
-     * 쿠키에 대한 정보를 OutputStream에 씁니다.
+     * 쿠키에 대한 정보를 응답 헤더에 추가합니다.
      *
+     * @param sb 응답 헤더
      * @see org.sam.server.http.Cookie
      * */
-    private void printCookies() {
+    private void printCookies(StringBuilder sb) {
         for (Cookie cookie : cookies) {
             StringBuilder line = new StringBuilder();
             line.append("Set-Cookie: ");
@@ -267,7 +680,7 @@ public class HttpResponse implements Response {
                 line.append("; HttpOnly");
             }
             line.append("; Path=").append(cookie.getPath());
-            writer.print(line.toString() + "\r\n");
+            sb.append(line).append("\r\n");
         }
     }
 
@@ -283,17 +696,32 @@ public class HttpResponse implements Response {
 
     @Override
     public void setHeader(String key, String value) {
-        this.headers.put(key, value);
+        this.headers.set(key, value);
     }
 
     @Override
-    public Object getHeader(String key) {
+    public void addHeader(String key, String value) {
+        this.headers.add(key, value);
+    }
+
+    @Override
+    public String getHeader(String key) {
         return headers.get(key);
     }
 
     @Override
     public Set<String> getHeaderNames() {
-        return headers.keySet();
+        return headers.names();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    @Override
+    public boolean isCommitted() {
+        return committed;
     }
 
     @Override
@@ -51,6 +51,14 @@ public interface Request {
      * */
     String getParameter(String key);
 
+    /**
+     * 이름에 해당하는 파라미터의 값을 모두 반환합니다.
+     *
+     * @param key 파라미터 이름
+     * @return 파라미터 값 목록, 없다면 빈 목록
+     * */
+    List<String> getParameterValues(String key);
+
     /**
      * 모든 파라미터를 반환합니다.
      * 
@@ -80,6 +88,14 @@ public interface Request {
      * */
     String getHeader(String key);
 
+    /**
+     * 헤더 목록을 반환합니다. 같은 이름의 헤더 값을 모두 가지며 이름의 대소문자는 구분하지 않습니다.
+     *
+     * @return 헤더 목록
+     * @see HttpHeaders
+     * */
+    HttpHeaders getHeaders();
+
     /**
      * JSON을 반환합니다.
      * 
@@ -87,6 +103,15 @@ public interface Request {
      * */
     String getJson();
 
+    /**
+     * 요청 바디를 읽는 스트림을 반환합니다. Content-Length와 Transfer-Encoding: chunked에 따라 바디만 읽을 수 있습니다.
+     * JSON, form, multipart 요청은 파싱 과정에서 바디를 이미 읽었으므로 빈 스트림을 반환합니다.
+     * 그 외의 요청은 바디를 메모리에 모으지 않고 소켓에서 바로 읽으므로 큰 업로드도 일정한 메모리로 처리할 수 있습니다.
+     *
+     * @return 요청 바디 스트림
+     * */
+    InputStream getBody();
+
     /**
      * 쿠키 목록을 반환합니다.
      * 
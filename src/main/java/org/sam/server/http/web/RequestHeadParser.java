@@ -0,0 +1,493 @@
+package org.sam.server.http.web;
+
+import org.sam.server.constant.HttpMethod;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * HTTP 요청의 시작줄과 헤더를 바이트 단위로 읽는 상태 기계입니다.
+ * 읽은 데이터를 한 번만 훑으며 시작줄과 각 헤더의 위치를 기록하므로, 데이터가 여러 번에 나누어 도착해도 이미 읽은 부분은 다시 읽지 않습니다.
+ * 문자열은 값을 요청할 때 기록한 위치에서 만들며, 바디의 끝을 찾는 데 필요한 Content-Length, Transfer-Encoding 헤더는 읽는 중에 해석합니다.
+ * 기록하는 위치는 요청의 시작 위치를 기준으로 하므로, 이어서 읽는 사이에 데이터가 버퍼 안에서 옮겨져도 됩니다.
+ *
+ * @author hypernova1
+ * @see HttpRequest
+ */
+public class RequestHeadParser {
+
+    /**
+     * 시작줄과 헤더를 합친 최대 크기입니다.
+     * */
+    public static final int MAX_HEAD_SIZE = 64 * 1024;
+
+    private static final int MAX_HEADER_COUNT = 100;
+
+    private static final int REQUEST_START = 0;
+
+    private static final int METHOD = 1;
+
+    private static final int TARGET = 2;
+
+    private static final int VERSION = 3;
+
+    private static final int REQUEST_LINE_LF = 4;
+
+    private static final int LINE_START = 5;
+
+    private static final int NAME = 6;
+
+    private static final int VALUE_START = 7;
+
+    private static final int VALUE = 8;
+
+    private static final int HEADER_LF = 9;
+
+    private static final int END_LF = 10;
+
+    private static final int DONE = 11;
+
+    private static final int FAILED = 12;
+
+    private static final HttpMethod[] METHODS = HttpMethod.values();
+
+    private static final byte[][] METHOD_NAMES = new byte[METHODS.length][];
+
+    private static final byte[] CONTENT_LENGTH = "content-length".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding".getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte[] CHUNKED = "chunked".getBytes(StandardCharsets.US_ASCII);
+
+    private static final boolean[] TOKEN_CHARS = new boolean[128];
+
+    static {
+        for (int i = 0; i < METHODS.length; i++) {
+            METHOD_NAMES[i] = METHODS[i].name().getBytes(StandardCharsets.US_ASCII);
+        }
+        for (char c = '0'; c <= '9'; c++) TOKEN_CHARS[c] = true;
+        for (char c = 'a'; c <= 'z'; c++) TOKEN_CHARS[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++) TOKEN_CHARS[c] = true;
+        for (char c : "!#$%&'*+-.^_`|~".toCharArray()) TOKEN_CHARS[c] = true;
+    }
+
+    private byte[] data;
+
+    private int begin;
+
+    private int state = REQUEST_START;
+
+    private int position;
+
+    private int tokenStart;
+
+    private String failure;
+
+    private HttpMethod method;
+
+    private int targetStart;
+
+    private int targetEnd;
+
+    private int versionStart;
+
+    private int versionEnd;
+
+    private int[] headerOffsets = new int[16 * 4];
+
+    private int headerCount;
+
+    private long contentLength = -1;
+
+    private boolean chunked;
+
+    /**
+     * 데이터를 이어서 읽습니다. 이전에 읽은 위치부터 읽으며, 헤더의 끝(빈 줄)을 만나면 멈춥니다.
+     *
+     * @param data 읽은 데이터
+     * @param begin 요청의 시작 위치
+     * @param end 읽은 데이터의 끝 위치
+     * @return 헤더를 모두 읽었는지 여부
+     * @throws MalformedRequestException 형식에 맞지 않는 요청이거나 헤더가 너무 클 시
+     * */
+    public boolean parse(byte[] data, int begin, int end) throws MalformedRequestException {
+        this.data = data;
+        this.begin = begin;
+        if (state == DONE) return true;
+        if (state == FAILED) throw new MalformedRequestException(failure);
+        int limit = Math.min(end, begin + MAX_HEAD_SIZE);
+        int i = begin + position;
+        try {
+            for (; i < limit; i++) {
+                if (advance(data[i], i - begin)) {
+                    position = i + 1 - begin;
+                    state = DONE;
+                    return true;
+                }
+            }
+            position = i - begin;
+            if (end - begin >= MAX_HEAD_SIZE) {
+                throw new MalformedRequestException("request header too large");
+            }
+            return false;
+        } catch (MalformedRequestException e) {
+            state = FAILED;
+            failure = e.getMessage();
+            throw e;
+        }
+    }
+
+    /**
+     * 한 바이트를 읽고 상태를 바꿉니다.
+     *
+     * @param b 읽은 바이트
+     * @param index 요청의 시작 위치를 기준으로 한 바이트의 위치
+     * @return 헤더의 끝인지 여부
+     * @throws MalformedRequestException 형식에 맞지 않는 바이트일 시
+     * */
+    private boolean advance(byte b, int index) throws MalformedRequestException {
+        switch (state) {
+            case REQUEST_START:
+                if (b == '\r' || b == '\n') return false;
+                if (!isToken(b)) throw new MalformedRequestException("invalid method");
+                tokenStart = index;
+                state = METHOD;
+                return false;
+            case METHOD:
+                if (b == ' ') {
+                    method = matchMethod(tokenStart, index);
+                    targetStart = index + 1;
+                    state = TARGET;
+                } else if (!isToken(b)) {
+                    throw new MalformedRequestException("invalid method");
+                }
+                return false;
+            case TARGET:
+                if (b == ' ') {
+                    if (index == targetStart) throw new MalformedRequestException("empty request target");
+                    targetEnd = index;
+                    versionStart = index + 1;
+                    state = VERSION;
+                } else if (isControl(b) || b == '\t') {
+                    throw new MalformedRequestException("invalid request target");
+                }
+                return false;
+            case VERSION:
+                if (b == '\r' || b == '\n') {
+                    versionEnd = index;
+                    checkVersion();
+                    state = b == '\r' ? REQUEST_LINE_LF : LINE_START;
+                } else if (isControl(b) || b == ' ' || b == '\t') {
+                    throw new MalformedRequestException("invalid protocol");
+                }
+                return false;
+            case REQUEST_LINE_LF:
+            case HEADER_LF:
+                if (b != '\n') throw new MalformedRequestException("expected LF after CR");
+                state = LINE_START;
+                return false;
+            case LINE_START:
+                if (b == '\r') {
+                    state = END_LF;
+                    return false;
+                }
+                if (b == '\n') return true;
+                if (b == ' ' || b == '\t') throw new MalformedRequestException("obsolete line folding");
+                if (!isToken(b)) throw new MalformedRequestException("invalid header name");
+                if (headerCount == MAX_HEADER_COUNT) throw new MalformedRequestException("too many headers");
+                tokenStart = index;
+                state = NAME;
+                return false;
+            case NAME:
+                if (b == ':') {
+                    if (headerOffsets.length == headerCount * 4) {
+                        int[] offsets = new int[headerOffsets.length * 2];
+                        System.arraycopy(headerOffsets, 0, offsets, 0, headerOffsets.length);
+                        headerOffsets = offsets;
+                    }
+                    int offset = headerCount * 4;
+                    headerOffsets[offset] = tokenStart;
+                    headerOffsets[offset + 1] = index;
+                    state = VALUE_START;
+                } else if (!isToken(b)) {
+                    throw new MalformedRequestException("invalid header name");
+                }
+                return false;
+            case VALUE_START:
+                if (b == ' ' || b == '\t') return false;
+                headerOffsets[headerCount * 4 + 2] = index;
+                headerOffsets[headerCount * 4 + 3] = index;
+                state = VALUE;
+                return advance(b, index);
+            case VALUE:
+                if (b == '\r' || b == '\n') {
+                    endHeader();
+                    state = b == '\r' ? HEADER_LF : LINE_START;
+                } else if (b != ' ' && b != '\t') {
+                    if (isControl(b)) throw new MalformedRequestException("invalid header value");
+                    headerOffsets[headerCount * 4 + 3] = index + 1;
+                }
+                return false;
+            case END_LF:
+                if (b != '\n') throw new MalformedRequestException("expected LF after CR");
+                return true;
+            default:
+                throw new IllegalStateException("unexpected parser state: " + state);
+        }
+    }
+
+    /**
+     * 메서드 이름을 문자열로 만들지 않고 상수와 바이트를 비교하여 찾습니다. 대소문자는 구분하지 않습니다.
+     * */
+    private HttpMethod matchMethod(int start, int end) throws MalformedRequestException {
+        int length = end - start;
+        for (int i = 0; i < METHODS.length; i++) {
+            byte[] name = METHOD_NAMES[i];
+            if (name.length != length) continue;
+            int j = 0;
+            while (j < length && toUpperCase(data[begin + start + j]) == name[j]) {
+                j++;
+            }
+            if (j == length) return METHODS[i];
+        }
+        throw new MalformedRequestException("unsupported method");
+    }
+
+    private void checkVersion() throws MalformedRequestException {
+        int start = begin + versionStart;
+        if (versionEnd - versionStart != 8
+                || toUpperCase(data[start]) != 'H' || toUpperCase(data[start + 1]) != 'T'
+                || toUpperCase(data[start + 2]) != 'T' || toUpperCase(data[start + 3]) != 'P'
+                || data[start + 4] != '/' || !isDigit(data[start + 5]) || data[start + 6] != '.' || !isDigit(data[start + 7])) {
+            throw new MalformedRequestException("invalid protocol");
+        }
+    }
+
+    /**
+     * 헤더 한 줄을 마칩니다. 바디의 끝을 찾는 데 필요한 헤더라면 값을 해석합니다.
+     * */
+    private void endHeader() throws MalformedRequestException {
+        int offset = headerCount * 4;
+        headerCount++;
+        int nameStart = headerOffsets[offset];
+        int nameEnd = headerOffsets[offset + 1];
+        int valueStart = headerOffsets[offset + 2];
+        int valueEnd = headerOffsets[offset + 3];
+        if (equalsIgnoreCase(nameStart, nameEnd, CONTENT_LENGTH)) {
+            long value = parseContentLength(valueStart, valueEnd);
+            if (contentLength != -1 && contentLength != value) {
+                throw new MalformedRequestException("conflicting content-length");
+            }
+            contentLength = value;
+        } else if (equalsIgnoreCase(nameStart, nameEnd, TRANSFER_ENCODING)) {
+            chunked |= containsIgnoreCase(valueStart, valueEnd, CHUNKED);
+        }
+    }
+
+    private long parseContentLength(int start, int end) throws MalformedRequestException {
+        if (start == end) throw new MalformedRequestException("invalid content-length");
+        long value = 0;
+        for (int i = begin + start; i < begin + end; i++) {
+            if (!isDigit(data[i]) || value > (Long.MAX_VALUE - 9) / 10) {
+                throw new MalformedRequestException("invalid content-length");
+            }
+            value = value * 10 + (data[i] - '0');
+        }
+        return value;
+    }
+
+    private boolean equalsIgnoreCase(int start, int end, byte[] lowerCase) {
+        if (end - start != lowerCase.length) return false;
+        for (int i = 0; i < lowerCase.length; i++) {
+            if (toLowerCase(data[begin + start + i]) != lowerCase[i]) return false;
+        }
+        return true;
+    }
+
+    private boolean containsIgnoreCase(int start, int end, byte[] lowerCase) {
+        for (int i = start; i + lowerCase.length <= end; i++) {
+            if (equalsIgnoreCase(i, i + lowerCase.length, lowerCase)) return true;
+        }
+        return false;
+    }
+
+    private boolean isHeaderName(int index, String name) {
+        int start = begin + headerOffsets[index * 4];
+        if (headerOffsets[index * 4 + 1] - headerOffsets[index * 4] != name.length()) return false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (toLowerCase(data[start + i]) != (c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c)) return false;
+        }
+        return true;
+    }
+
+    private int indexOfQuery() {
+        for (int i = targetStart; i < targetEnd; i++) {
+            if (data[begin + i] == '?') return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 읽은 헤더를 새 배열에 복사합니다. 읽을 때 사용한 버퍼를 다른 요청에 재사용해도 이 파서에서 값을 꺼낼 수 있도록 합니다.
+     * */
+    public void detach() {
+        data = Arrays.copyOfRange(data, begin, begin + position);
+        begin = 0;
+    }
+
+    /**
+     * 다음 요청을 읽을 수 있도록 상태를 처음으로 되돌립니다.
+     * */
+    public void reset() {
+        data = null;
+        state = REQUEST_START;
+        position = 0;
+        failure = null;
+        method = null;
+        headerCount = 0;
+        contentLength = -1;
+        chunked = false;
+    }
+
+    public boolean isComplete() {
+        return state == DONE;
+    }
+
+    /**
+     * 시작줄부터 헤더 끝의 빈 줄까지의 길이를 반환합니다.
+     *
+     * @return 헤더의 길이
+     * */
+    public int getHeadLength() {
+        return position;
+    }
+
+    public HttpMethod getMethod() {
+        return method;
+    }
+
+    /**
+     * 요청 대상에서 쿼리 스트링을 뺀 경로를 반환합니다.
+     *
+     * @return 요청 경로
+     * */
+    public String getPath() {
+        int queryStart = indexOfQuery();
+        return toString(targetStart, queryStart == -1 ? targetEnd : queryStart);
+    }
+
+    /**
+     * 요청 대상에 쿼리 스트링이 있는지 확인합니다.
+     *
+     * @return 쿼리 스트링이 있는지 여부
+     * */
+    public boolean hasQuery() {
+        int queryStart = indexOfQuery();
+        return queryStart != -1 && queryStart + 1 < targetEnd;
+    }
+
+    /**
+     * 쿼리 스트링을 문자열로 만들지 않고 기록한 위치에서 바로 해석하여 파라미터를 추가합니다.
+     *
+     * @param parameters 파라미터를 추가할 목록
+     * @see FormDecoder
+     * */
+    void decodeQuery(FormParameters parameters) {
+        int queryStart = indexOfQuery();
+        if (queryStart == -1) return;
+        FormDecoder.decode(data, begin + queryStart + 1, begin + targetEnd, parameters);
+    }
+
+    public String getProtocol() {
+        return toString(versionStart, versionEnd);
+    }
+
+    public int getHeaderCount() {
+        return headerCount;
+    }
+
+    /**
+     * 헤더 이름을 반환합니다. 잘 알려진 이름이라면 새 문자열을 만들지 않고 HttpHeader 상수를 반환합니다.
+     *
+     * @param index 헤더의 순서
+     * @return 헤더 이름
+     * @see HttpHeaders#intern(String)
+     * */
+    public String getHeaderName(int index) {
+        return HttpHeaders.intern(data, begin + headerOffsets[index * 4], begin + headerOffsets[index * 4 + 1]);
+    }
+
+    public String getHeaderValue(int index) {
+        return toString(headerOffsets[index * 4 + 2], headerOffsets[index * 4 + 3]);
+    }
+
+    /**
+     * 헤더 목록을 만들지 않고 기록한 위치에서 이름이 같은 헤더를 찾아 값을 반환합니다. 이름의 대소문자는 구분하지 않습니다.
+     *
+     * @param name 헤더 이름
+     * @return 헤더 값, 같은 이름의 헤더가 여러 개라면 {@link HttpHeaders#get(String)}과 같이 첫 번째 값, 없다면 null
+     * */
+    public String getHeader(String name) {
+        for (int i = 0; i < headerCount; i++) {
+            if (isHeaderName(i, name)) return getHeaderValue(i);
+        }
+        return null;
+    }
+
+    /**
+     * Content-Length 헤더의 값을 반환합니다.
+     *
+     * @return 바디의 길이, 헤더가 없다면 -1
+     * */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Transfer-Encoding 헤더에 chunked가 있는지 확인합니다.
+     *
+     * @return chunked 요청인지 여부
+     * */
+    public boolean isChunked() {
+        return chunked;
+    }
+
+    private String toString(int start, int end) {
+        return new String(data, begin + start, end - start, StandardCharsets.ISO_8859_1);
+    }
+
+    private static boolean isToken(byte b) {
+        return b > 0 && TOKEN_CHARS[b];
+    }
+
+    private static boolean isControl(byte b) {
+        return (b >= 0 && b < ' ') || b == 0x7F;
+    }
+
+    private static boolean isDigit(byte b) {
+        return b >= '0' && b <= '9';
+    }
+
+    private static int toUpperCase(byte b) {
+        return b >= 'a' && b <= 'z' ? b - ('a' - 'A') : b;
+    }
+
+    private static int toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b;
+    }
+
+    /**
+     * 형식에 맞지 않는 요청을 읽었을 때 발생합니다.
+     * */
+    public static class MalformedRequestException extends IOException {
+
+        private static final long serialVersionUID = 1L;
+
+        MalformedRequestException(String message) {
+            super(message);
+        }
+    }
+
+}
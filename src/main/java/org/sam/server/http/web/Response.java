@@ -8,6 +8,8 @@ import org.sam.server.http.Cookie;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Set;
 
 /**
@@ -38,6 +40,19 @@ public interface Response {
      * */
     void execute(String pathOrJson, HttpStatus status);
 
+    /**
+     * 응답 헤더를 바로 보내고 바디를 Transfer-Encoding: chunked 형식으로 쓸 스트림을 엽니다.
+     * 응답 전체를 메모리에 만들지 않고 만들어지는 대로 보낼 수 있으므로, 크거나 오래 걸리는 응답에 사용합니다.
+     * 스트림을 닫으면 응답이 끝나며, 닫지 않았다면 핸들러가 반환된 후 서버가 닫습니다.
+     * HTTP/1.0 요청에는 청크 형식 없이 바디를 보내고 응답이 끝나면 연결을 닫습니다.
+     *
+     * @param status 응답 HttpStatus
+     * @return 응답 바디를 쓸 스트림
+     * @throws IOException 헤더를 쓰다가 오류 발생시
+     * @throws IllegalStateException 이미 응답 헤더가 전송되었다면
+     * */
+    OutputStream openStream(HttpStatus status) throws IOException;
+
     /**
      * 파비콘에 대한 요청을 처리 합니다.
      *
@@ -96,6 +111,15 @@ public interface Response {
      * */
     void setHeader(String key, String value);
 
+    /**
+     * 헤더 정보를 추가합니다. 같은 이름의 헤더가 있어도 지우지 않고 값을 하나 더 보냅니다.
+     *
+     * @param key 헤더명
+     * @param value 헤더값
+     * @see org.sam.server.constant.HttpHeader
+     * */
+    void addHeader(String key, String value);
+
     /**
      * 응답할 미디어 타입을 설정합니다.
      *
@@ -124,10 +148,10 @@ public interface Response {
      * 헤더 정보를 반환합니다.
      *
      * @param key 헤더명
-     * @return 헤더
+     * @return 헤더, 같은 이름의 헤더가 여러 개라면 첫 번째 값
      * @see org.sam.server.constant.HttpHeader
      * */
-    public Object getHeader(String key);
+    public String getHeader(String key);
 
     /**
      * 모든 헤더의 이름을 반환합니다.
@@ -137,4 +161,18 @@ public interface Response {
      * */
     public Set<String> getHeaderNames();
 
+    /**
+     * 응답할 헤더 목록을 반환합니다.
+     *
+     * @return 헤더 목록
+     * */
+    public HttpHeaders getHeaders();
+
+    /**
+     * 응답 헤더가 이미 전송되었는지 확인합니다. 전송된 후의 응답 요청은 무시됩니다.
+     *
+     * @return 응답 헤더 전송 여부
+     * */
+    boolean isCommitted();
+
 }
@@ -0,0 +1,218 @@
+package org.sam.server.http.web;
+
+import org.sam.server.util.Converter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events(text/event-stream) 응답을 보내는 클래스입니다. 핸들러에서 반환 값으로 사용할 수 있습니다.
+ * 핸들러가 반환한 후에도 연결은 열려 있으며, 다른 쓰레드에서 send 메서드로 이벤트를 보낼 수 있습니다.
+ * 이벤트를 기다리는 동안에는 워커 쓰레드를 점유하지 않고, 서버가 주기적으로 하트비트를 보내 끊어진 연결을 찾아냅니다.
+ *
+ * @author hypernova1
+ */
+public class SseEmitter {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseEmitter.class);
+
+    private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+    private final List<byte[]> earlyEvents = new ArrayList<>();
+
+    private final List<Runnable> completionCallbacks = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private OutputStream outputStream;
+
+    private boolean closed;
+
+    /**
+     * 이벤트를 보냅니다. 문자열이 아니라면 JSON으로 변환합니다.
+     *
+     * @param data 이벤트 데이터
+     * @return 보냈는지 여부, 이미 끝났거나 클라이언트의 연결이 끊어졌다면 false
+     * */
+    public boolean send(Object data) {
+        return send(null, data);
+    }
+
+    /**
+     * 이름이 있는 이벤트를 보냅니다. 문자열이 아니라면 JSON으로 변환합니다.
+     *
+     * @param event 이벤트 이름
+     * @param data 이벤트 데이터
+     * @return 보냈는지 여부, 이미 끝났거나 클라이언트의 연결이 끊어졌다면 false
+     * */
+    public boolean send(String event, Object data) {
+        return write(formatEvent(event, data));
+    }
+
+    /**
+     * 응답을 마칩니다. 이후의 send는 무시됩니다.
+     * */
+    public void complete() {
+        List<Runnable> callbacks;
+        lock.lock();
+        try {
+            if (closed) return;
+            closed = true;
+            if (outputStream != null) {
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    logger.debug("failed to finish event stream: " + e.getMessage());
+                }
+            }
+            callbacks = new ArrayList<>(completionCallbacks);
+        } finally {
+            lock.unlock();
+        }
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                logger.error("event stream callback error", e);
+            }
+        }
+        completion.complete(null);
+    }
+
+    /**
+     * 응답이 끝났을 때 실행할 작업을 등록합니다. complete를 호출했거나 클라이언트의 연결이 끊어졌을 때 실행됩니다.
+     *
+     * @param callback 실행할 작업
+     * */
+    public void onCompletion(Runnable callback) {
+        lock.lock();
+        try {
+            if (!closed) {
+                completionCallbacks.add(callback);
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        callback.run();
+    }
+
+    /**
+     * 응답이 끝났는지 확인합니다.
+     *
+     * @return 끝났는지 여부
+     * */
+    public boolean isClosed() {
+        lock.lock();
+        try {
+            return closed;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 응답 바디를 쓸 스트림을 연결하고, 연결되기 전에 보낸 이벤트를 씁니다. 서버가 핸들러의 반환 값을 처리할 때 호출합니다.
+     *
+     * @param outputStream 응답 바디를 쓸 스트림
+     * @return 응답이 끝났을 때 완료되는 Future
+     * */
+    public CompletableFuture<Void> attach(OutputStream outputStream) {
+        boolean disconnected = false;
+        lock.lock();
+        try {
+            if (this.outputStream != null) throw new IllegalStateException("event stream already attached");
+            this.outputStream = outputStream;
+            if (closed) {
+                earlyEvents.clear();
+                try {
+                    outputStream.close();
+                } catch (IOException e) {
+                    logger.debug("failed to finish event stream: " + e.getMessage());
+                }
+                return completion;
+            }
+            try {
+                for (byte[] event : earlyEvents) {
+                    outputStream.write(event);
+                }
+                outputStream.flush();
+            } catch (IOException e) {
+                disconnected = true;
+            }
+            earlyEvents.clear();
+        } finally {
+            lock.unlock();
+        }
+        if (disconnected) {
+            complete();
+        }
+        return completion;
+    }
+
+    /**
+     * 연결이 살아 있는지 확인하기 위해 주석 줄을 보냅니다. 서버가 주기적으로 호출합니다.
+     *
+     * @return 응답이 계속 열려 있는지 여부
+     * */
+    public boolean heartbeat() {
+        lock.lock();
+        try {
+            if (outputStream == null) return !closed;
+        } finally {
+            lock.unlock();
+        }
+        return write(HEARTBEAT);
+    }
+
+    /**
+     * 이벤트를 쓰고 바로 내보냅니다. 쓰다가 오류가 발생하면 클라이언트의 연결이 끊어진 것으로 보고 응답을 마칩니다.
+     * */
+    private boolean write(byte[] event) {
+        lock.lock();
+        try {
+            if (closed) return false;
+            if (outputStream == null) {
+                earlyEvents.add(event);
+                return true;
+            }
+            try {
+                outputStream.write(event);
+                outputStream.flush();
+                return true;
+            } catch (IOException e) {
+                logger.debug("event stream disconnected: " + e.getMessage());
+            }
+        } finally {
+            lock.unlock();
+        }
+        complete();
+        return false;
+    }
+
+    /**
+     * 이벤트를 text/event-stream 형식으로 만듭니다. 여러 줄의 데이터는 줄마다 data 필드로 나눕니다.
+     * */
+    private static byte[] formatEvent(String event, Object data) {
+        StringBuilder builder = new StringBuilder();
+        if (event != null) {
+            builder.append("event: ").append(event).append('\n');
+        }
+        String text = data instanceof String ? (String) data : Converter.objectToJson(data);
+        for (String line : text.split("\r\n|\r|\n", -1)) {
+            builder.append("data: ").append(line).append('\n');
+        }
+        builder.append('\n');
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,423 @@
+package org.sam.server.http.web;
+
+import org.sam.server.common.ServerMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 캐시에 보관하는 정적 자원입니다. 자원의 위치와 버전 정보, 작은 파일의 바이트, 미리 만들어 둔 응답 헤더를 가집니다.
+ * 압축한 바디는 압축 방식마다 한 번만 만들어 함께 보관합니다.
+ * 큰 파일은 메모리에 매핑하여 여러 요청이 함께 사용하며, 매핑을 사용하는 요청이 모두 끝난 후에만 해제합니다.
+ *
+ * @author hypernova1
+ * @see StaticResourceCache
+ */
+class StaticResource {
+
+    private static final Logger logger = LoggerFactory.getLogger(StaticResource.class);
+
+    static final DateTimeFormatter HTTP_DATE_FORMAT = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.US).withZone(ZoneOffset.UTC);
+
+    private final Path file;
+
+    private final URL url;
+
+    private final long length;
+
+    private final long lastModified;
+
+    private final byte[] body;
+
+    private final String eTag;
+
+    private final String lastModifiedDate;
+
+    private final Map<String, byte[]> headerBlocks = new ConcurrentHashMap<>();
+
+    private final Map<String, StaticResource> encodings = new ConcurrentHashMap<>();
+
+    private boolean precompressed;
+
+    private volatile long checkedAt;
+
+    /**
+     * 매핑 상태를 보호합니다. 캐시 전체의 락을 잡은 채로도 잡으므로 짧게만 잡습니다.
+     * */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * 파일을 매핑하는 동안 잡습니다. 같은 자원을 여러 요청이 동시에 매핑하지 않도록 합니다.
+     * */
+    private final ReentrantLock mappingLock = new ReentrantLock();
+
+    private MappedByteBuffer mapping;
+
+    private int mappingReferences;
+
+    private boolean mappingRetired;
+
+    private boolean mappingCounted;
+
+    private boolean discarded;
+
+    StaticResource(Path file, URL url, long length, long lastModified, byte[] body) {
+        this(file, url, length, lastModified, body, "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"");
+    }
+
+    private StaticResource(Path file, URL url, long length, long lastModified, byte[] body, String eTag) {
+        this.file = file;
+        this.url = url;
+        this.length = length;
+        this.lastModified = lastModified;
+        this.body = body;
+        this.eTag = eTag;
+        this.lastModifiedDate = lastModified > 0 ? HTTP_DATE_FORMAT.format(Instant.ofEpochMilli(lastModified)) : null;
+        this.checkedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * 바이트를 보관하지 않는 같은 자원을 반환합니다.
+     *
+     * @return 바디가 없는 자원
+     * */
+    StaticResource withoutBody() {
+        if (body == null) return this;
+        StaticResource resource = new StaticResource(file, url, length, lastModified, null);
+        resource.precompressed = precompressed;
+        return resource;
+    }
+
+    /**
+     * 압축한 바디로 같은 버전의 자원을 만듭니다. 표현이 다르므로 ETag에 압축 방식을 덧붙입니다.
+     *
+     * @param encoding 압축 방식
+     * @param encodedBody 압축한 바디
+     * @return 압축한 자원
+     * */
+    StaticResource encode(String encoding, byte[] encodedBody) {
+        String encodedETag = eTag.substring(0, eTag.length() - 1) + "-" + encoding + "\"";
+        return new StaticResource(null, null, encodedBody.length, lastModified, encodedBody, encodedETag);
+    }
+
+    /**
+     * 보관한 압축 방식의 자원을 반환합니다.
+     *
+     * @param encoding 압축 방식
+     * @return 압축한 자원, 압축해도 작아지지 않는다면 자기 자신, 아직 압축하지 않았다면 null
+     * */
+    StaticResource getEncoding(String encoding) {
+        return encodings.get(encoding);
+    }
+
+    void putEncoding(String encoding, StaticResource resource) {
+        encodings.put(encoding, resource);
+    }
+
+    /**
+     * 보관한 압축 바디의 바이트 수를 반환합니다.
+     *
+     * @return 압축 바디의 크기 합
+     * */
+    long getEncodedLength() {
+        long encodedLength = 0;
+        for (StaticResource encoded : encodings.values()) {
+            if (encoded != this) encodedLength += encoded.length;
+        }
+        return encodedLength;
+    }
+
+    /**
+     * 미리 압축해 둔 .gz 파일이 함께 있는지 확인합니다.
+     *
+     * @return .gz 파일이 있는지 여부
+     * */
+    boolean isPrecompressed() {
+        return precompressed;
+    }
+
+    void setPrecompressed(boolean precompressed) {
+        this.precompressed = precompressed;
+    }
+
+    boolean isDiscarded() {
+        lock.lock();
+        try {
+            return discarded;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 파일을 매핑한 버퍼를 빌립니다. 아직 매핑하지 않았다면 매핑합니다. 다 사용한 후에는 반드시 releaseMapping을 호출해야 합니다.
+     * 파일을 여는 동안에는 매핑 상태의 락을 잡지 않으므로, 캐시가 다른 자원을 찾거나 버리는 작업을 막지 않습니다.
+     *
+     * @return 매핑한 버퍼의 복제본, 캐시에서 버려졌거나 해제를 기다리는 중이라면 null
+     * @throws IOException 파일을 매핑하다가 오류 발생시
+     * @see #releaseMapping()
+     * */
+    ByteBuffer acquireMapping() throws IOException {
+        ByteBuffer buffer = borrowMapping();
+        if (buffer != null || !isMappable()) return buffer;
+        mappingLock.lock();
+        try {
+            buffer = borrowMapping();
+            if (buffer != null || !isMappable()) return buffer;
+            MappedByteBuffer created;
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                created = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            }
+            lock.lock();
+            try {
+                if (!discarded) {
+                    mapping = created;
+                    ServerMetrics.addStaticMappedBytes(length);
+                    mappingReferences++;
+                    return ((ByteBuffer) mapping).duplicate();
+                }
+            } finally {
+                lock.unlock();
+            }
+            clean(created);
+            return null;
+        } finally {
+            mappingLock.unlock();
+        }
+    }
+
+    /**
+     * 이미 매핑한 버퍼가 있다면 빌립니다.
+     * */
+    private ByteBuffer borrowMapping() {
+        lock.lock();
+        try {
+            if (mapping == null || mappingRetired) return null;
+            mappingReferences++;
+            return ((ByteBuffer) mapping).duplicate();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 새로 매핑할 수 있는지 확인합니다. 해제를 기다리는 매핑이 있다면 모두 돌려줄 때까지 다시 매핑하지 않습니다.
+     * */
+    private boolean isMappable() {
+        lock.lock();
+        try {
+            return !discarded && mapping == null && file != null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 빌린 버퍼를 돌려줍니다. 해제를 기다리던 매핑이라면 마지막으로 돌려줄 때 해제합니다.
+     * */
+    void releaseMapping() {
+        lock.lock();
+        try {
+            mappingReferences--;
+            if (mappingReferences == 0 && mappingRetired) {
+                unmap();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 매핑한 크기를 캐시가 아직 더하지 않았다면 더한 것으로 표시합니다.
+     *
+     * @return 캐시가 매핑한 크기를 더해야 하는지 여부
+     * */
+    boolean countMapping() {
+        lock.lock();
+        try {
+            if (mapping == null || mappingRetired || mappingCounted) return false;
+            mappingCounted = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 매핑을 해제합니다. 사용 중인 요청이 있다면 모두 돌려준 후에 해제합니다.
+     *
+     * @param discard 캐시에서 버려진 자원이라 다시 매핑하지 않을지 여부
+     * @return 캐시가 크기에 더한 매핑을 해제했는지 여부
+     * */
+    boolean retireMapping(boolean discard) {
+        lock.lock();
+        try {
+            if (discard) discarded = true;
+            if (mapping == null || mappingRetired) return false;
+            boolean counted = mappingCounted;
+            mappingRetired = true;
+            if (mappingReferences == 0) {
+                unmap();
+            }
+            return counted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void unmap() {
+        MappedByteBuffer buffer = mapping;
+        mapping = null;
+        mappingRetired = false;
+        mappingCounted = false;
+        ServerMetrics.addStaticMappedBytes(-length);
+        clean(buffer);
+    }
+
+    /**
+     * 매핑을 바로 해제합니다. 해제할 수 없는 JVM이라면 GC가 해제하도록 둡니다.
+     * */
+    private static void clean(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            try {
+                Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+                Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+                theUnsafe.setAccessible(true);
+                invokeCleaner.invoke(theUnsafe.get(null), buffer);
+            } catch (NoSuchMethodException e) {
+                Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+                cleanerMethod.setAccessible(true);
+                Object cleaner = cleanerMethod.invoke(buffer);
+                if (cleaner != null) {
+                    cleaner.getClass().getMethod("clean").invoke(cleaner);
+                }
+            }
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            logger.debug("failed to unmap static resource: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 미디어 타입과 캐시 정책에 맞는 엔티티 헤더(Content-Type, Content-length, Cache-Control, ETag, Last-Modified)를 반환합니다.
+     * 처음 요청될 때 한 번만 만들고 이후에는 만들어 둔 바이트를 그대로 씁니다.
+     *
+     * @param contentType 미디어 타입
+     * @param cacheControl Cache-Control 헤더 값
+     * @return 헤더 바이트
+     * */
+    byte[] getHeaderBlock(String contentType, String cacheControl) {
+        String key = contentType + '\n' + cacheControl;
+        byte[] block = headerBlocks.get(key);
+        if (block != null) return block;
+        String headers = "Content-Type: " + contentType + "\r\n" +
+                "Content-Length: " + length + "\r\n" +
+                validatorHeaders(cacheControl);
+        block = headers.getBytes(StandardCharsets.UTF_8);
+        headerBlocks.put(key, block);
+        return block;
+    }
+
+    /**
+     * 304 응답에 쓸 헤더(Cache-Control, ETag, Last-Modified)를 반환합니다.
+     *
+     * @param cacheControl Cache-Control 헤더 값
+     * @return 헤더 바이트
+     * */
+    byte[] getNotModifiedBlock(String cacheControl) {
+        String key = '\n' + cacheControl;
+        byte[] block = headerBlocks.get(key);
+        if (block != null) return block;
+        block = validatorHeaders(cacheControl).getBytes(StandardCharsets.UTF_8);
+        headerBlocks.put(key, block);
+        return block;
+    }
+
+    /**
+     * 범위 응답에 쓸 엔티티 헤더를 만듭니다. 범위마다 다르므로 캐시하지 않습니다.
+     *
+     * @param contentType 미디어 타입
+     * @param cacheControl Cache-Control 헤더 값
+     * @param contentRange Content-Range 헤더 값, multipart/byteranges라면 null
+     * @param contentLength 응답 바디의 길이
+     * @return 헤더 바이트
+     * */
+    byte[] getRangeBlock(String contentType, String cacheControl, String contentRange, long contentLength) {
+        String headers = "Content-Type: " + contentType + "\r\n" +
+                "Content-Length: " + contentLength + "\r\n";
+        if (contentRange != null) {
+            headers += "Content-Range: " + contentRange + "\r\n";
+        }
+        headers += validatorHeaders(cacheControl);
+        return headers.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String validatorHeaders(String cacheControl) {
+        String headers = "Cache-Control: " + cacheControl + "\r\n" +
+                "ETag: " + eTag + "\r\n";
+        if (lastModifiedDate != null) {
+            headers += "Last-Modified: " + lastModifiedDate + "\r\n";
+        }
+        return headers;
+    }
+
+    /**
+     * 파일 시스템에 있는 자원이라면 경로를 반환합니다.
+     *
+     * @return 파일 경로, jar 안의 자원이라면 null
+     * */
+    Path getFile() {
+        return file;
+    }
+
+    URL getUrl() {
+        return url;
+    }
+
+    long getLength() {
+        return length;
+    }
+
+    long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * 캐시에 보관한 파일의 바이트를 반환합니다.
+     *
+     * @return 파일의 바이트, 캐시하기에 크다면 null
+     * */
+    byte[] getBody() {
+        return body;
+    }
+
+    String getETag() {
+        return eTag;
+    }
+
+    long getCheckedAt() {
+        return checkedAt;
+    }
+
+    void setCheckedAt(long checkedAt) {
+        this.checkedAt = checkedAt;
+    }
+
+}
@@ -0,0 +1,284 @@
+package org.sam.server.http.web;
+
+import org.sam.server.common.ServerMetrics;
+import org.sam.server.common.ServerProperties;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 정적 자원을 메모리에 보관하는 캐시입니다. 보관한 바이트의 합이 정해진 크기를 넘으면 가장 오래 사용하지 않은 자원부터 버립니다.
+ * 파일 시스템에 있는 자원은 일정 간격으로 수정 시각과 크기를 확인하고, 바뀌었다면 다시 읽습니다.
+ * 압축한 바디도 함께 보관하며 캐시 크기에 포함합니다.
+ * 정해진 크기보다 큰 파일은 힙에 읽지 않고 메모리에 매핑하며, 매핑한 크기의 합은 힙과 따로 제한합니다.
+ *
+ * @author hypernova1
+ * @see StaticResource
+ */
+class StaticResourceCache {
+
+    private static final long MAX_SIZE = ServerProperties.getLong("server.static.cache-size", 32 * 1024 * 1024);
+
+    private static final long MAX_FILE_SIZE = ServerProperties.getLong("server.static.cache-max-file-size", 1024 * 1024);
+
+    private static final long MMAP_THRESHOLD = ServerProperties.getLong("server.static.mmap-threshold", 8 * 1024 * 1024);
+
+    private static final long MMAP_MAX_SIZE = ServerProperties.getLong("server.static.mmap-size", 1024L * 1024 * 1024);
+
+    /**
+     * 같은 자원의 수정 여부를 다시 확인하기까지의 간격입니다. 요청마다 파일 정보를 읽지 않도록 합니다.
+     * */
+    private static final long REVALIDATE_INTERVAL_MILLIS = 1000;
+
+    /**
+     * 자원의 위치와 헤더처럼 바이트 외에 보관하는 정보의 대략적인 크기입니다.
+     * */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private static final Map<String, StaticResource> resources = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static long size;
+
+    private static long mappedSize;
+
+    private StaticResourceCache() {}
+
+    /**
+     * 정적 자원을 찾습니다. 캐시에 없거나 파일이 바뀌었다면 다시 읽어서 보관합니다.
+     *
+     * @param filePath 파일 경로
+     * @return 정적 자원, 존재하지 않으면 null
+     * @throws IOException 파일을 읽다가 오류 발생시
+     * */
+    static StaticResource get(String filePath) throws IOException {
+        if (MAX_SIZE <= 0) return load(filePath);
+        StaticResource resource;
+        synchronized (StaticResourceCache.class) {
+            resource = resources.get(filePath);
+        }
+        if (resource != null && isValid(resource)) {
+            ServerMetrics.incrementStaticCacheHits();
+            return resource;
+        }
+        ServerMetrics.incrementStaticCacheMisses();
+        StaticResource loaded = load(filePath);
+        synchronized (StaticResourceCache.class) {
+            if (loaded == null) {
+                remove(filePath);
+                return null;
+            }
+            if (loaded.getBody() != null && loaded.getLength() > MAX_FILE_SIZE) {
+                loaded = loaded.withoutBody();
+            }
+            put(filePath, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * 압축한 자원을 반환합니다. 압축 방식마다 처음 요청될 때 한 번만 압축하여 자원과 함께 보관합니다.
+     *
+     * @param resource 정적 자원
+     * @param encoding 압축 방식
+     * @return 압축한 자원, 바이트를 보관하지 않는 큰 파일이거나 압축해도 작아지지 않는다면 원래 자원
+     * */
+    static StaticResource getEncoded(StaticResource resource, String encoding) {
+        StaticResource encoded = resource.getEncoding(encoding);
+        if (encoded != null) return encoded;
+        byte[] body = resource.getBody();
+        if (body == null || MAX_SIZE <= 0) return resource;
+        byte[] encodedBody = Compression.compress(body, encoding);
+        encoded = encodedBody.length < body.length ? resource.encode(encoding, encodedBody) : resource;
+        synchronized (StaticResourceCache.class) {
+            StaticResource previous = resource.getEncoding(encoding);
+            if (previous != null) return previous;
+            if (resource.isDiscarded()) return encoded;
+            resource.putEncoding(encoding, encoded);
+            if (encoded != resource) {
+                addSize(encoded.getLength());
+                evict(resource);
+            }
+        }
+        return encoded;
+    }
+
+    /**
+     * 큰 파일을 매핑한 버퍼를 빌립니다. 매핑한 크기의 합이 제한을 넘으면 가장 오래 사용하지 않은 자원의 매핑부터 해제합니다.
+     * 파일은 캐시의 락 밖에서 매핑하고, 캐시의 락은 매핑한 크기를 더하고 다른 매핑을 해제하는 동안에만 잡습니다.
+     * 다 사용한 후에는 StaticResource#releaseMapping을 호출해야 합니다.
+     *
+     * @param resource 정적 자원
+     * @return 매핑한 버퍼, 매핑 대상이 아니라면 null
+     * @throws IOException 파일을 매핑하다가 오류 발생시
+     * @see StaticResource#acquireMapping()
+     * */
+    static ByteBuffer acquireMapping(StaticResource resource) throws IOException {
+        long length = resource.getLength();
+        if (MAX_SIZE <= 0 || MMAP_MAX_SIZE <= 0 || resource.getFile() == null) return null;
+        if (length < MMAP_THRESHOLD || length > Math.min(MMAP_MAX_SIZE, Integer.MAX_VALUE)) return null;
+        ByteBuffer buffer = resource.acquireMapping();
+        if (buffer == null) return null;
+        synchronized (StaticResourceCache.class) {
+            if (!resource.countMapping()) return buffer;
+            mappedSize += length;
+            Iterator<StaticResource> iterator = resources.values().iterator();
+            while (mappedSize > MMAP_MAX_SIZE && iterator.hasNext()) {
+                StaticResource eldest = iterator.next();
+                if (eldest != resource && eldest.retireMapping(false)) {
+                    mappedSize -= eldest.getLength();
+                }
+            }
+            return buffer;
+        }
+    }
+
+    /**
+     * 수정 시각과 크기가 그대로인지 확인합니다. jar 안의 자원은 바뀌지 않으므로 확인하지 않습니다.
+     * */
+    private static boolean isValid(StaticResource resource) {
+        Path file = resource.getFile();
+        long now = System.currentTimeMillis();
+        if (file == null || now - resource.getCheckedAt() < REVALIDATE_INTERVAL_MILLIS) return true;
+        File target = file.toFile();
+        if (target.lastModified() != resource.getLastModified() || target.length() != resource.getLength()) return false;
+        resource.setCheckedAt(now);
+        return true;
+    }
+
+    private static void put(String filePath, StaticResource resource) {
+        StaticResource previous = resources.put(filePath, resource);
+        if (previous != null && previous != resource) {
+            discard(previous);
+        }
+        addSize(weight(resource));
+        evict(resource);
+    }
+
+    /**
+     * 캐시 크기가 제한을 넘었다면 가장 오래 사용하지 않은 자원부터 버립니다.
+     *
+     * @param keep 방금 사용하여 버리지 않을 자원
+     * */
+    private static void evict(StaticResource keep) {
+        Iterator<StaticResource> iterator = resources.values().iterator();
+        while (size > MAX_SIZE && iterator.hasNext()) {
+            StaticResource eldest = iterator.next();
+            if (eldest == keep) break;
+            iterator.remove();
+            discard(eldest);
+            ServerMetrics.incrementStaticCacheEvictions();
+        }
+    }
+
+    private static void remove(String filePath) {
+        StaticResource previous = resources.remove(filePath);
+        if (previous != null) {
+            discard(previous);
+        }
+    }
+
+    /**
+     * 캐시에서 뺀 자원의 크기를 빼고 매핑을 해제합니다.
+     * */
+    private static void discard(StaticResource resource) {
+        addSize(-weight(resource));
+        if (resource.retireMapping(true)) {
+            mappedSize -= resource.getLength();
+        }
+    }
+
+    private static void addSize(long delta) {
+        size += delta;
+        ServerMetrics.addStaticCacheBytes(delta);
+    }
+
+    private static long weight(StaticResource resource) {
+        byte[] body = resource.getBody();
+        return ENTRY_OVERHEAD + (body != null ? body.length : 0) + resource.getEncodedLength();
+    }
+
+    /**
+     * 정적 자원을 찾아서 읽습니다. src/main 아래의 파일을 먼저 찾고, 없으면 클래스패스에서 찾습니다.
+     * 캐시할 수 있는 크기의 파일만 바이트를 읽으며, 미리 압축해 둔 .gz 파일이 함께 있는지도 확인합니다.
+     *
+     * @param filePath 파일 경로
+     * @return 정적 자원, 존재하지 않으면 null
+     * @throws IOException 파일을 읽다가 오류 발생시
+     * */
+    private static StaticResource load(String filePath) throws IOException {
+        StaticResource resource = find(filePath);
+        if (resource != null && !filePath.endsWith(".gz")) {
+            resource.setPrecompressed(new File("src/main" + filePath + ".gz").exists()
+                    || Thread.currentThread().getContextClassLoader().getResource(filePath + ".gz") != null);
+        }
+        return resource;
+    }
+
+    private static StaticResource find(String filePath) throws IOException {
+        File staticFile = new File("src/main" + filePath);
+        if (staticFile.exists()) {
+            return loadFile(staticFile.toPath(), null);
+        }
+        URL url = Thread.currentThread().getContextClassLoader().getResource(filePath);
+        if (url == null) return null;
+        Path file = toFilePath(url);
+        if (file != null) {
+            return loadFile(file, url);
+        }
+        URLConnection connection = url.openConnection();
+        long length = connection.getContentLengthLong();
+        long lastModified = connection.getLastModified();
+        if (length >= 0 && (length > MAX_FILE_SIZE || MAX_SIZE <= 0)) {
+            connection.getInputStream().close();
+            return new StaticResource(null, url, length, lastModified, null);
+        }
+        try (InputStream in = connection.getInputStream()) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(length >= 0 ? (int) length : 8192);
+            byte[] chunk = new byte[8192];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            return new StaticResource(null, url, buffer.size(), lastModified, buffer.toByteArray());
+        }
+    }
+
+    private static StaticResource loadFile(Path file, URL url) throws IOException {
+        File target = file.toFile();
+        long lastModified = target.lastModified();
+        long length = target.length();
+        if (length > MAX_FILE_SIZE || MAX_SIZE <= 0) {
+            return new StaticResource(file, url, length, lastModified, null);
+        }
+        byte[] body = Files.readAllBytes(file);
+        return new StaticResource(file, url, body.length, lastModified, body);
+    }
+
+    /**
+     * 클래스패스 자원이 파일 시스템에 있다면 경로를 반환합니다.
+     *
+     * @param resource 클래스패스 자원
+     * @return 파일 경로, jar 안의 자원이라면 null
+     * */
+    private static Path toFilePath(URL resource) {
+        if (!"file".equals(resource.getProtocol())) return null;
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,170 @@
+package org.sam.server.http.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HpackTest {
+
+    private static byte[] hex(String value) {
+        String digits = value.replace(" ", "");
+        byte[] data = new byte[digits.length() / 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) Integer.parseInt(digits.substring(i * 2, i * 2 + 2), 16);
+        }
+        return data;
+    }
+
+    private static List<String[]> headers(String... namesAndValues) {
+        List<String[]> headers = new ArrayList<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            headers.add(new String[]{ namesAndValues[i], namesAndValues[i + 1] });
+        }
+        return headers;
+    }
+
+    private static void assertHeaders(List<String[]> expected, List<String[]> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertArrayEquals(expected.get(i), actual.get(i));
+        }
+    }
+
+    private static void assertCompressionError(byte[] block) {
+        HpackDecoder decoder = new HpackDecoder(4096, 8192);
+        Http2Exception e = assertThrows(Http2Exception.class, () -> decoder.decode(block));
+        assertEquals(Http2Frame.COMPRESSION_ERROR, e.getErrorCode());
+    }
+
+    /**
+     * RFC 7541 C.3, C.4의 요청 예시입니다. 같은 디코더로 이어서 디코딩하여 동적 테이블 참조를 확인합니다.
+     * */
+    @Test
+    void decodeRequestExamples() throws Http2Exception {
+        String[][] blocks = {
+                { "8286 8441 0f77 7777 2e65 7861 6d70 6c65 2e63 6f6d",
+                        "8286 84be 5808 6e6f 2d63 6163 6865",
+                        "8287 85bf 400a 6375 7374 6f6d 2d6b 6579 0c63 7573 746f 6d2d 7661 6c75 65" },
+                { "8286 8441 8cf1 e3c2 e5f2 3a6b a0ab 90f4 ff",
+                        "8286 84be 5886 a8eb 1064 9cbf",
+                        "8287 85bf 4088 25a8 49e9 5ba9 7d7f 8925 a849 e95b b8e8 b4bf" },
+        };
+        for (String[] requests : blocks) {
+            HpackDecoder decoder = new HpackDecoder(4096, 8192);
+            assertHeaders(headers(":method", "GET", ":scheme", "http", ":path", "/", ":authority", "www.example.com"),
+                    decoder.decode(hex(requests[0])));
+            assertHeaders(headers(":method", "GET", ":scheme", "http", ":path", "/", ":authority", "www.example.com",
+                    "cache-control", "no-cache"), decoder.decode(hex(requests[1])));
+            assertHeaders(headers(":method", "GET", ":scheme", "https", ":path", "/index.html", ":authority", "www.example.com",
+                    "custom-key", "custom-value"), decoder.decode(hex(requests[2])));
+        }
+    }
+
+    @Test
+    void encodeAndDecode() throws Http2Exception {
+        List<String[]> headers = headers(":status", "200", "content-type", "application/json",
+                "x-custom", "value with spaces", "x-binary", "ÿ\u0000\u007f", "content-length", "0");
+        byte[] block = HpackEncoder.encode(headers);
+        assertEquals((byte) 0x88, block[0]);
+        assertHeaders(headers, new HpackDecoder(4096, 8192).decode(block));
+    }
+
+    @Test
+    void huffmanRoundTrip() throws Http2Exception {
+        byte[] data = new byte[256];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) i;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HpackHuffman.encode(data, out);
+        byte[] encoded = out.toByteArray();
+        assertEquals(HpackHuffman.encodedLength(data), encoded.length);
+        assertArrayEquals(data, HpackHuffman.decode(encoded, 0, encoded.length));
+
+        byte[] text = "www.example.com".getBytes(StandardCharsets.ISO_8859_1);
+        out.reset();
+        HpackHuffman.encode(text, out);
+        assertArrayEquals(hex("f1e3 c2e5 f23a 6ba0 ab90 f4ff"), out.toByteArray());
+    }
+
+    @Test
+    void rejectInvalidHuffman() {
+        assertThrows(Http2Exception.class, () -> HpackHuffman.decode(hex("ffff ffff"), 0, 4));
+        assertThrows(Http2Exception.class, () -> HpackHuffman.decode(hex("ff"), 0, 1));
+        assertThrows(Http2Exception.class, () -> HpackHuffman.decode(hex("f1e3 c2e5 f23a 6ba0 ab90 f400"), 0, 12));
+    }
+
+    @Test
+    void evictOldestEntries() throws Http2Exception {
+        HpackHeaderTable table = new HpackHeaderTable(110);
+        int first = HpackHeaderTable.STATIC_TABLE.length + 1;
+        table.add("a", "1");
+        table.add("b", "2");
+        table.add("c", "3");
+        assertArrayEquals(new String[]{ "c", "3" }, table.get(first));
+        assertArrayEquals(new String[]{ "b", "2" }, table.get(first + 1));
+        assertArrayEquals(new String[]{ "a", "1" }, table.get(first + 2));
+
+        table.add("d", "4");
+        assertArrayEquals(new String[]{ "b", "2" }, table.get(first + 2));
+        assertThrows(Http2Exception.class, () -> table.get(first + 3));
+
+        table.setMaxSize(34);
+        assertArrayEquals(new String[]{ "d", "4" }, table.get(first));
+        assertThrows(Http2Exception.class, () -> table.get(first + 1));
+
+        table.add("too-large", "value");
+        assertThrows(Http2Exception.class, () -> table.get(first));
+        assertThrows(Http2Exception.class, () -> table.get(0));
+    }
+
+    @Test
+    void rejectInvalidIndex() {
+        assertCompressionError(hex("80"));
+        assertCompressionError(hex("be"));
+        assertCompressionError(hex("ff ff 7f"));
+    }
+
+    @Test
+    void rejectIntegerOverflow() {
+        assertCompressionError(hex("ff ff ff ff ff 0f"));
+        assertCompressionError(hex("ff ff"));
+    }
+
+    @Test
+    void rejectTruncatedLiteral() {
+        assertCompressionError(hex("40"));
+        assertCompressionError(hex("40 05 61 62"));
+        assertCompressionError(hex("44 7f ff ff ff 07"));
+    }
+
+    @Test
+    void limitTableSizeUpdate() throws Http2Exception {
+        assertCompressionError(hex("3f e2 1f"));
+        HpackDecoder decoder = new HpackDecoder(4096, 8192);
+        decoder.decode(hex("4001 6101 62"));
+        assertHeaders(headers("a", "b"), decoder.decode(hex("be")));
+        decoder.decode(hex("20"));
+        assertThrows(Http2Exception.class, () -> decoder.decode(hex("be")));
+    }
+
+    @Test
+    void limitHeaderListSize() {
+        byte[] value = new byte[100];
+        Arrays.fill(value, (byte) 'a');
+        List<String[]> headers = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            headers.add(new String[]{ "x-" + i, new String(value, StandardCharsets.ISO_8859_1) });
+        }
+        byte[] block = HpackEncoder.encode(headers);
+        Http2Exception e = assertThrows(Http2Exception.class, () -> new HpackDecoder(4096, 1000).decode(block));
+        assertEquals(Http2Frame.ENHANCE_YOUR_CALM, e.getErrorCode());
+    }
+
+}
@@ -0,0 +1,148 @@
+package org.sam.server.http.context;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebSocketFrameTest {
+
+    private static final byte[] MASK = { 0x37, (byte) 0xfa, 0x21, 0x3d };
+
+    /**
+     * 클라이언트가 보내는 것처럼 마스킹한 프레임을 만듭니다.
+     * */
+    private static byte[] clientFrame(boolean fin, int opcode, byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write((fin ? 0x80 : 0) | opcode);
+        if (payload.length <= 125) {
+            out.write(0x80 | payload.length);
+        } else if (payload.length <= 0xFFFF) {
+            out.write(0x80 | 126);
+            out.write(payload.length >>> 8);
+            out.write(payload.length);
+        } else {
+            out.write(0x80 | 127);
+            for (int i = 7; i >= 0; i--) {
+                out.write((int) ((long) payload.length >>> (i * 8)));
+            }
+        }
+        out.write(MASK, 0, MASK.length);
+        for (int i = 0; i < payload.length; i++) {
+            out.write(payload[i] ^ MASK[i & 3]);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... arrays) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] array : arrays) {
+            out.write(array, 0, array.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<WebSocketFrame> decode(WebSocketFrame.Decoder decoder, byte[] data) throws IOException {
+        List<WebSocketFrame> frames = new ArrayList<>();
+        decoder.decode(data, 0, data.length, frames::add);
+        return frames;
+    }
+
+    private static int closeCode(long maxPayloadLength, byte[] data) {
+        WebSocketFrame.ProtocolException e = assertThrows(WebSocketFrame.ProtocolException.class,
+                () -> decode(new WebSocketFrame.Decoder(maxPayloadLength), data));
+        return e.getCloseCode();
+    }
+
+    @Test
+    void unmaskPayload() throws IOException {
+        byte[] hello = "Hello".getBytes(StandardCharsets.UTF_8);
+        byte[] frame = clientFrame(true, WebSocketFrame.TEXT, hello);
+        assertArrayEquals(new byte[]{ (byte) 0x81, (byte) 0x85, 0x37, (byte) 0xfa, 0x21, 0x3d, 0x7f, (byte) 0x9f, 0x4d, 0x51, 0x58 }, frame);
+
+        List<WebSocketFrame> frames = decode(new WebSocketFrame.Decoder(1024), frame);
+        assertEquals(1, frames.size());
+        assertTrue(frames.get(0).isFin());
+        assertEquals(WebSocketFrame.TEXT, frames.get(0).getOpcode());
+        assertArrayEquals(hello, frames.get(0).getPayload());
+    }
+
+    @Test
+    void decodeExtendedLengths() throws IOException {
+        WebSocketFrame.Decoder decoder = new WebSocketFrame.Decoder(1 << 20);
+        for (int length : new int[]{ 0, 125, 126, 65535, 65536 }) {
+            byte[] payload = new byte[length];
+            for (int i = 0; i < length; i++) {
+                payload[i] = (byte) i;
+            }
+            List<WebSocketFrame> frames = decode(decoder, clientFrame(true, WebSocketFrame.BINARY, payload));
+            assertEquals(1, frames.size());
+            assertArrayEquals(payload, frames.get(0).getPayload());
+        }
+    }
+
+    @Test
+    void decodeAcrossReads() throws IOException {
+        byte[] data = concat(
+                clientFrame(false, WebSocketFrame.TEXT, "hel".getBytes(StandardCharsets.UTF_8)),
+                clientFrame(true, WebSocketFrame.PING, "p".getBytes(StandardCharsets.UTF_8)),
+                clientFrame(true, WebSocketFrame.CONTINUATION, "lo".getBytes(StandardCharsets.UTF_8)));
+        WebSocketFrame.Decoder decoder = new WebSocketFrame.Decoder(1024);
+        List<WebSocketFrame> frames = new ArrayList<>();
+        for (int i = 0; i < data.length; i++) {
+            decoder.decode(data, i, 1, frames::add);
+        }
+        assertEquals(3, frames.size());
+        assertFalse(frames.get(0).isFin());
+        assertEquals(WebSocketFrame.TEXT, frames.get(0).getOpcode());
+        assertEquals("hel", new String(frames.get(0).getPayload(), StandardCharsets.UTF_8));
+        assertEquals(WebSocketFrame.PING, frames.get(1).getOpcode());
+        assertTrue(frames.get(2).isFin());
+        assertEquals(WebSocketFrame.CONTINUATION, frames.get(2).getOpcode());
+        assertEquals("lo", new String(frames.get(2).getPayload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void rejectProtocolErrors() {
+        byte[] unmasked = WebSocketFrame.encode(WebSocketFrame.TEXT, new byte[]{ 'x' });
+        assertEquals(WebSocketConnection.PROTOCOL_ERROR, closeCode(1024, unmasked));
+
+        byte[] reserved = clientFrame(true, WebSocketFrame.TEXT, new byte[]{ 'x' });
+        reserved[0] |= 0x40;
+        assertEquals(WebSocketConnection.PROTOCOL_ERROR, closeCode(1024, reserved));
+
+        assertEquals(WebSocketConnection.PROTOCOL_ERROR, closeCode(1024, clientFrame(true, 0x3, new byte[0])));
+        assertEquals(WebSocketConnection.PROTOCOL_ERROR, closeCode(1024, clientFrame(true, 0xB, new byte[0])));
+        assertEquals(WebSocketConnection.PROTOCOL_ERROR, closeCode(1024, clientFrame(false, WebSocketFrame.PING, new byte[0])));
+        assertEquals(WebSocketConnection.PROTOCOL_ERROR, closeCode(1024, clientFrame(true, WebSocketFrame.CLOSE, new byte[126])));
+    }
+
+    @Test
+    void rejectTooLargeFrame() {
+        assertEquals(WebSocketConnection.MESSAGE_TOO_BIG, closeCode(100, clientFrame(true, WebSocketFrame.BINARY, new byte[101])));
+
+        byte[] negative = { (byte) 0x82, (byte) 0xff, (byte) 0x80, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 };
+        assertEquals(WebSocketConnection.MESSAGE_TOO_BIG, closeCode(Long.MAX_VALUE, negative));
+    }
+
+    @Test
+    void encodeServerFrame() {
+        assertArrayEquals(new byte[]{ (byte) 0x89, 0 }, WebSocketFrame.encode(WebSocketFrame.PING, new byte[0]));
+
+        byte[] medium = WebSocketFrame.encode(WebSocketFrame.BINARY, new byte[300]);
+        assertEquals(304, medium.length);
+        assertEquals(126, medium[1]);
+        assertEquals(300, (medium[2] & 0xFF) << 8 | medium[3] & 0xFF);
+
+        byte[] large = WebSocketFrame.encode(WebSocketFrame.BINARY, new byte[70000]);
+        assertEquals(70010, large.length);
+        assertEquals(127, large[1]);
+        assertEquals(1, large[7]);
+    }
+
+}
@@ -0,0 +1,83 @@
+package org.sam.server.http.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionTest {
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    void negotiate() {
+        assertNull(Compression.negotiate(null));
+        assertNull(Compression.negotiate(""));
+        assertNull(Compression.negotiate("identity, br"));
+        assertEquals(Compression.GZIP, Compression.negotiate("gzip"));
+        assertEquals(Compression.GZIP, Compression.negotiate("x-gzip"));
+        assertEquals(Compression.GZIP, Compression.negotiate("deflate, GZIP"));
+        assertEquals(Compression.DEFLATE, Compression.negotiate("deflate"));
+    }
+
+    @Test
+    void negotiateQuality() {
+        assertEquals(Compression.DEFLATE, Compression.negotiate("gzip;q=0.5, deflate;q=0.8"));
+        assertEquals(Compression.GZIP, Compression.negotiate("gzip;q=0.5, deflate;q=0.5"));
+        assertEquals(Compression.DEFLATE, Compression.negotiate("gzip;q=0, deflate"));
+        assertEquals(Compression.GZIP, Compression.negotiate("gzip ; q=1.0 , deflate ; q=0.9"));
+        assertNull(Compression.negotiate("gzip;q=0, deflate;q=0"));
+        assertEquals(Compression.DEFLATE, Compression.negotiate("gzip;q=abc, deflate"));
+    }
+
+    @Test
+    void negotiateWildcard() {
+        assertEquals(Compression.GZIP, Compression.negotiate("*"));
+        assertEquals(Compression.DEFLATE, Compression.negotiate("gzip;q=0, *"));
+        assertEquals(Compression.GZIP, Compression.negotiate("deflate;q=0.1, *;q=0.5"));
+        assertNull(Compression.negotiate("*;q=0"));
+        assertNull(Compression.negotiate("identity, *;q=0"));
+    }
+
+    @Test
+    void isCompressible() {
+        assertTrue(Compression.isCompressible("text/html; charset=UTF-8", 4096));
+        assertTrue(Compression.isCompressible("Application/JSON", 4096));
+        assertFalse(Compression.isCompressible("image/png", 4096));
+        assertFalse(Compression.isCompressible("text/html", 10));
+        assertFalse(Compression.isCompressible(null, 4096));
+    }
+
+    @Test
+    void compress() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            sb.append("{\"index\":").append(i).append("}");
+        }
+        byte[] body = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+        byte[] gzip = Compression.compress(body, Compression.GZIP);
+        assertTrue(gzip.length < body.length);
+        assertArrayEquals(body, readAll(new GZIPInputStream(new ByteArrayInputStream(gzip))));
+
+        byte[] deflate = Compression.compress(body, Compression.DEFLATE);
+        assertTrue(deflate.length < body.length);
+        assertArrayEquals(body, readAll(new InflaterInputStream(new ByteArrayInputStream(deflate))));
+    }
+
+}
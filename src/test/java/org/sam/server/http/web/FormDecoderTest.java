@@ -0,0 +1,83 @@
+package org.sam.server.http.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FormDecoderTest {
+
+    private static FormParameters decode(String value) {
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        FormParameters parameters = new FormParameters();
+        FormDecoder.decode(data, 0, data.length, parameters);
+        return parameters;
+    }
+
+    @Test
+    void decodePercentAndPlus() {
+        FormParameters parameters = decode("name=%ED%99%8D+%EA%B8%B8%EB%8F%99&q=a%2Bb%3Dc%26d&upper=%4a%4A");
+        assertEquals("홍 길동", parameters.getFirst("name"));
+        assertEquals("a+b=c&d", parameters.getFirst("q"));
+        assertEquals("JJ", parameters.getFirst("upper"));
+    }
+
+    @Test
+    void decodeEncodedName() {
+        assertEquals("v", decode("a%20b=v").getFirst("a b"));
+    }
+
+    @Test
+    void splitOnFirstEquals() {
+        assertEquals("b=c", decode("a=b=c").getFirst("a"));
+    }
+
+    @Test
+    void keepMultipleValuesInOrder() {
+        FormParameters parameters = decode("tag=a&tag=b&other=x&tag=c");
+        assertEquals(Arrays.asList("a", "b", "c"), parameters.getAll("tag"));
+        assertEquals("a", parameters.getFirst("tag"));
+        assertEquals("a", parameters.toMap().get("tag"));
+        assertEquals(Collections.emptyList(), parameters.getAll("none"));
+    }
+
+    @Test
+    void emptyValuesAndNames() {
+        FormParameters parameters = decode("&flag&empty=&=nameless&&");
+        assertEquals("", parameters.getFirst("flag"));
+        assertEquals("", parameters.getFirst("empty"));
+        assertEquals(2, parameters.toMap().size());
+    }
+
+    @Test
+    void keepMalformedEscapes() {
+        FormParameters parameters = decode("a=100%&b=%zz&c=%4&d=%%41");
+        assertEquals("100%", parameters.getFirst("a"));
+        assertEquals("%zz", parameters.getFirst("b"));
+        assertEquals("%4", parameters.getFirst("c"));
+        assertEquals("%A", parameters.getFirst("d"));
+    }
+
+    @Test
+    void decodeRange() {
+        byte[] data = "GET /?x=1&y=2 HTTP/1.1".getBytes(StandardCharsets.US_ASCII);
+        FormParameters parameters = new FormParameters();
+        FormDecoder.decode(data, 6, 13, parameters);
+        assertEquals("1", parameters.getFirst("x"));
+        assertEquals("2", parameters.getFirst("y"));
+    }
+
+    @Test
+    void decodeLargeInput() {
+        StringBuilder sb = new StringBuilder("big=");
+        for (int i = 0; i < 10000; i++) {
+            sb.append("%41");
+        }
+        assertEquals(10000, decode(sb.toString()).getFirst("big").length());
+        assertEquals("b", decode("a=b").getFirst("a"));
+    }
+
+}
@@ -0,0 +1,95 @@
+package org.sam.server.http.web;
+
+import org.junit.jupiter.api.Test;
+import org.sam.server.constant.HttpHeader;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpHeadersTest {
+
+    @Test
+    void getIgnoresCase() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("content-type", "text/plain");
+        headers.add("X-Custom", "a");
+        assertEquals("text/plain", headers.get(HttpHeader.CONTENT_TYPE));
+        assertEquals("text/plain", headers.get("CONTENT-TYPE"));
+        assertEquals("a", headers.get("x-custom"));
+        assertTrue(headers.contains("x-CUSTOM"));
+        assertNull(headers.get("missing"));
+        assertFalse(headers.contains("missing"));
+    }
+
+    @Test
+    void keepDuplicatesInOrder() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Accept", "a");
+        headers.add("X-Other", "x");
+        headers.add("accept", "b");
+        assertEquals("a", headers.get("Accept"));
+        assertEquals(Arrays.asList("a", "b"), headers.getAll("ACCEPT"));
+        assertEquals(Collections.emptyList(), headers.getAll("missing"));
+        assertEquals(Arrays.asList(HttpHeader.ACCEPT, "X-Other"), Arrays.asList(headers.names().toArray()));
+        assertEquals(3, headers.size());
+    }
+
+    @Test
+    void setReplacesFirstAndRemovesRest() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add("Set-Cookie", "a=1");
+        headers.add("Server", "x");
+        headers.add("Set-Cookie", "b=2");
+        headers.set("set-cookie", "c=3");
+        assertEquals(2, headers.size());
+        assertSame(HttpHeader.SET_COOKIE, headers.getName(0));
+        assertEquals("c=3", headers.getValue(0));
+        assertEquals("x", headers.getValue(1));
+
+        headers.set("New", "n");
+        assertEquals("n", headers.getValue(2));
+    }
+
+    @Test
+    void setIfAbsentAndRemove() {
+        HttpHeaders headers = new HttpHeaders(0);
+        headers.setIfAbsent("Connection", "keep-alive");
+        headers.setIfAbsent("connection", "close");
+        assertEquals("keep-alive", headers.get("Connection"));
+
+        headers.add("Vary", "a");
+        headers.add("Connection", "upgrade");
+        headers.remove("CONNECTION");
+        assertEquals(1, headers.size());
+        assertNull(headers.get("Connection"));
+        assertEquals("a", headers.get("Vary"));
+    }
+
+    @Test
+    void growBeyondCapacity() {
+        HttpHeaders headers = new HttpHeaders(1);
+        for (int i = 0; i < 50; i++) {
+            headers.add("X-" + i, Integer.toString(i));
+        }
+        assertEquals(50, headers.size());
+        assertEquals("49", headers.get("x-49"));
+    }
+
+    @Test
+    void internKnownNames() {
+        for (String name : HttpHeader.values()) {
+            assertSame(name, HttpHeaders.intern(name.toUpperCase()));
+            byte[] bytes = name.toLowerCase().getBytes(StandardCharsets.ISO_8859_1);
+            assertSame(name, HttpHeaders.intern(bytes, 0, bytes.length));
+        }
+        assertEquals("X-Unknown", HttpHeaders.intern("X-Unknown"));
+
+        byte[] line = "xx X-Unknown: v".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals("X-Unknown", HttpHeaders.intern(line, 3, 12));
+        assertSame(HttpHeader.HOST, HttpHeaders.intern("xxhOsTxx".getBytes(StandardCharsets.ISO_8859_1), 2, 6));
+    }
+
+}
@@ -0,0 +1,108 @@
+package org.sam.server.http.web;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestBodyStreamTest {
+
+    private static InputStream input(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    private static String readAll(InputStream in, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferSize];
+        int read;
+        while ((read = in.read(buffer, 0, buffer.length)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    private static String remaining(InputStream in) throws IOException {
+        return readAll(in, 64);
+    }
+
+    @Test
+    void readChunkedBody() throws IOException {
+        String body = "5\r\nhello\r\n1;name=value\r\n \r\nA\r\n0123456789\r\n0\r\n\r\n";
+        assertEquals("hello 0123456789", readAll(new ChunkedInputStream(input(body)), 64));
+        assertEquals("hello 0123456789", readAll(new ChunkedInputStream(input(body)), 1));
+    }
+
+    @Test
+    void stopAtLastChunk() throws IOException {
+        InputStream in = input("3\nabc\n0\r\nTrailer: x\r\n\r\nGET / HTTP/1.1");
+        ChunkedInputStream chunked = new ChunkedInputStream(in);
+        assertEquals('a', chunked.read());
+        chunked.close();
+        assertEquals(-1, chunked.read());
+        assertEquals("GET / HTTP/1.1", remaining(in));
+    }
+
+    @Test
+    void rejectInvalidChunkSize() {
+        String[] bodies = {
+                "zz\r\n",
+                "-1\r\nx\r\n",
+                "\r\n",
+                "8000000000000000\r\n",
+                "ffffffffffffffffff\r\n",
+                "5\r\nhel",
+                "5\r\nhello\r\n",
+                "3\r\nabcXYZ\r\n0\r\n\r\n",
+                "3\r\nabc0\r\n\r\n",
+        };
+        for (String body : bodies) {
+            assertTimeoutPreemptively(Duration.ofSeconds(5),
+                    () -> assertThrows(IOException.class, () -> readAll(new ChunkedInputStream(input(body)), 64), body));
+        }
+    }
+
+    @Test
+    void rejectTooLongChunkLine() {
+        StringBuilder sb = new StringBuilder("1;");
+        for (int i = 0; i < 5000; i++) {
+            sb.append('x');
+        }
+        sb.append("\r\na\r\n0\r\n\r\n");
+        assertThrows(IOException.class, () -> readAll(new ChunkedInputStream(input(sb.toString())), 64));
+    }
+
+    @Test
+    void readContentLengthBody() throws IOException {
+        InputStream in = input("helloGET / HTTP/1.1");
+        ContentLengthInputStream body = new ContentLengthInputStream(in, 5);
+        assertEquals('h', body.read());
+        assertEquals(4, body.available());
+        assertEquals("ello", readAll(body, 2));
+        assertEquals(-1, body.read());
+        assertEquals("GET / HTTP/1.1", remaining(in));
+    }
+
+    @Test
+    void discardUnreadContentLengthBody() throws IOException {
+        InputStream in = input("0123456789next");
+        ContentLengthInputStream body = new ContentLengthInputStream(in, 10);
+        body.close();
+        assertEquals(-1, body.read());
+        assertEquals("next", remaining(in));
+    }
+
+    @Test
+    void endContentLengthBodyAtEndOfStream() throws IOException {
+        ContentLengthInputStream body = new ContentLengthInputStream(input("abc"), 10);
+        assertEquals("abc", readAll(body, 64));
+        assertEquals(-1, body.read());
+        assertEquals(-1, new ContentLengthInputStream(input("abc"), 0).read());
+    }
+
+}
@@ -0,0 +1,152 @@
+package org.sam.server.http.web;
+
+import org.junit.jupiter.api.Test;
+import org.sam.server.constant.HttpMethod;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHeadParserTest {
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static RequestHeadParser parse(String head) throws RequestHeadParser.MalformedRequestException {
+        RequestHeadParser parser = new RequestHeadParser();
+        byte[] data = bytes(head);
+        assertTrue(parser.parse(data, 0, data.length));
+        return parser;
+    }
+
+    @Test
+    void parseRequestLineAndHeaders() throws Exception {
+        RequestHeadParser parser = parse("post /users?id=1 HTTP/1.1\r\nHost: localhost\r\nX-Name:  kim \r\n\r\n");
+        assertEquals(HttpMethod.POST, parser.getMethod());
+        assertEquals("/users", parser.getPath());
+        assertTrue(parser.hasQuery());
+        assertEquals("HTTP/1.1", parser.getProtocol());
+        assertEquals(2, parser.getHeaderCount());
+        assertEquals("kim", parser.getHeader("x-name"));
+        assertNull(parser.getHeader("Cookie"));
+        assertEquals(-1, parser.getContentLength());
+        assertFalse(parser.isChunked());
+    }
+
+    @Test
+    void parseOneByteAtATime() throws Exception {
+        byte[] data = bytes("GET / HTTP/1.0\r\nContent-Length: 5\r\n\r\nhello");
+        RequestHeadParser parser = new RequestHeadParser();
+        int end = 0;
+        while (!parser.parse(data, 0, ++end)) {
+            assertTrue(end < data.length);
+        }
+        assertEquals(data.length - 5, parser.getHeadLength());
+        assertEquals(5, parser.getContentLength());
+    }
+
+    @Test
+    void acceptBareLineFeeds() throws Exception {
+        RequestHeadParser parser = parse("\r\nGET / HTTP/1.1\nHost: a\n\n");
+        assertEquals("a", parser.getHeader("host"));
+    }
+
+    @Test
+    void duplicateHeaderResolvesToFirstValue() throws Exception {
+        RequestHeadParser parser = parse("GET / HTTP/1.1\r\nAccept: a\r\naccept: b\r\n\r\n");
+        assertEquals("a", parser.getHeader("Accept"));
+
+        HttpHeaders headers = new HttpHeaders(parser.getHeaderCount());
+        for (int i = 0; i < parser.getHeaderCount(); i++) {
+            headers.append(parser.getHeaderName(i), parser.getHeaderValue(i));
+        }
+        assertEquals(parser.getHeader("Accept"), headers.get("Accept"));
+    }
+
+    @Test
+    void contentLength() throws Exception {
+        assertEquals(10, parse("POST / HTTP/1.1\r\nContent-Length: 10\r\nContent-Length: 10\r\n\r\n").getContentLength());
+        assertThrows(RequestHeadParser.MalformedRequestException.class,
+                () -> parse("POST / HTTP/1.1\r\nContent-Length: 10\r\nContent-Length: 11\r\n\r\n"));
+        assertThrows(RequestHeadParser.MalformedRequestException.class,
+                () -> parse("POST / HTTP/1.1\r\nContent-Length: 1a\r\n\r\n"));
+        assertThrows(RequestHeadParser.MalformedRequestException.class,
+                () -> parse("POST / HTTP/1.1\r\nContent-Length: -1\r\n\r\n"));
+        assertThrows(RequestHeadParser.MalformedRequestException.class,
+                () -> parse("POST / HTTP/1.1\r\nContent-Length: 99999999999999999999\r\n\r\n"));
+        assertThrows(RequestHeadParser.MalformedRequestException.class,
+                () -> parse("POST / HTTP/1.1\r\nContent-Length:\r\n\r\n"));
+    }
+
+    @Test
+    void chunked() throws Exception {
+        assertTrue(parse("POST / HTTP/1.1\r\nTransfer-Encoding: gzip, Chunked\r\n\r\n").isChunked());
+    }
+
+    @Test
+    void rejectMalformedRequest() {
+        String[] requests = {
+                "GET\r\n\r\n",
+                "FOO / HTTP/1.1\r\n\r\n",
+                "GET  HTTP/1.1\r\n\r\n",
+                "GET / HTTP/11\r\n\r\n",
+                "GET / HTTP/1.1\rX\n\r\n",
+                "GET / HTTP/1.1\r\nHost: a\r\n folded\r\n\r\n",
+                "GET / HTTP/1.1\r\nBad Name: a\r\n\r\n",
+                "GET / HTTP/1.1\r\nHost: a\u0001b\r\n\r\n",
+        };
+        for (String request : requests) {
+            assertThrows(RequestHeadParser.MalformedRequestException.class, () -> parse(request), request);
+        }
+    }
+
+    @Test
+    void rejectTooManyHeaders() {
+        StringBuilder sb = new StringBuilder("GET / HTTP/1.1\r\n");
+        for (int i = 0; i <= 100; i++) {
+            sb.append("X-").append(i).append(": v\r\n");
+        }
+        sb.append("\r\n");
+        assertThrows(RequestHeadParser.MalformedRequestException.class, () -> parse(sb.toString()));
+    }
+
+    @Test
+    void rejectTooLargeHead() {
+        StringBuilder sb = new StringBuilder("GET / HTTP/1.1\r\nX-Large: ");
+        while (sb.length() <= RequestHeadParser.MAX_HEAD_SIZE) {
+            sb.append('a');
+        }
+        byte[] data = bytes(sb.toString());
+        RequestHeadParser parser = new RequestHeadParser();
+        assertThrows(RequestHeadParser.MalformedRequestException.class, () -> parser.parse(data, 0, data.length));
+        assertThrows(RequestHeadParser.MalformedRequestException.class, () -> parser.parse(data, 0, data.length));
+    }
+
+    @Test
+    void resetForNextRequest() throws Exception {
+        byte[] data = bytes("GET /a HTTP/1.1\r\nContent-Length: 3\r\n\r\nabcGET /b HTTP/1.1\r\n\r\n");
+        RequestHeadParser parser = new RequestHeadParser();
+        assertTrue(parser.parse(data, 0, data.length));
+        assertEquals("/a", parser.getPath());
+        int next = parser.getHeadLength() + (int) parser.getContentLength();
+
+        parser.reset();
+        assertTrue(parser.parse(data, next, data.length));
+        assertEquals("/b", parser.getPath());
+        assertEquals(-1, parser.getContentLength());
+    }
+
+    @Test
+    void detachKeepsValues() throws Exception {
+        byte[] data = bytes("GET /a HTTP/1.1\r\nHost: a\r\n\r\n");
+        RequestHeadParser parser = new RequestHeadParser();
+        assertTrue(parser.parse(data, 0, data.length));
+        parser.detach();
+        Arrays.fill(data, (byte) 'x');
+        assertEquals("/a", parser.getPath());
+        assertEquals("a", parser.getHeader("Host"));
+    }
+
+}
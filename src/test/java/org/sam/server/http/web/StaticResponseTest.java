@@ -0,0 +1,173 @@
+package org.sam.server.http.web;
+
+import org.junit.jupiter.api.Test;
+import org.sam.server.constant.HttpStatus;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StaticResponseTest {
+
+    private static final String PAGE = Response.DEFAULT_FILE_PAGE;
+
+    private static byte[] page() throws IOException {
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(PAGE)) {
+            assertNotNull(in);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * 요청 헤더와 함께 정적 자원을 요청하고 응답을 반환합니다.
+     * */
+    private static Result get(String... headers) {
+        StringBuilder sb = new StringBuilder("GET / HTTP/1.1\r\nHost: localhost\r\n");
+        for (String header : headers) {
+            sb.append(header).append("\r\n");
+        }
+        sb.append("\r\n");
+        Request request = HttpRequest.from(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.ISO_8859_1)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HttpResponse.of(out, request).execute(PAGE, HttpStatus.OK);
+        return new Result(out.toByteArray());
+    }
+
+    @Test
+    void singleRange() throws IOException {
+        byte[] page = page();
+        Result result = get("Range: bytes=0-4");
+        assertEquals("206", result.status);
+        assertEquals("bytes 0-4/" + page.length, result.headers.get("content-range"));
+        assertEquals("5", result.headers.get("content-length"));
+        assertArrayEquals(Arrays.copyOfRange(page, 0, 5), result.body);
+    }
+
+    @Test
+    void openAndSuffixRanges() throws IOException {
+        byte[] page = page();
+        Result open = get("Range: bytes=" + (page.length - 3) + "-");
+        assertEquals("206", open.status);
+        assertArrayEquals(Arrays.copyOfRange(page, page.length - 3, page.length), open.body);
+
+        Result suffix = get("Range: bytes=-10");
+        assertEquals("206", suffix.status);
+        assertArrayEquals(Arrays.copyOfRange(page, page.length - 10, page.length), suffix.body);
+
+        Result clamped = get("Range: bytes=10-999999");
+        assertEquals("bytes 10-" + (page.length - 1) + "/" + page.length, clamped.headers.get("content-range"));
+    }
+
+    @Test
+    void multipleRanges() throws IOException {
+        byte[] page = page();
+        Result result = get("Range: bytes=0-1, 5-6");
+        assertEquals("206", result.status);
+        String contentType = result.headers.get("content-type");
+        assertTrue(contentType.startsWith("multipart/byteranges; boundary="));
+        String boundary = contentType.substring(contentType.indexOf('=') + 1);
+        String body = new String(result.body, StandardCharsets.ISO_8859_1);
+        assertEquals(Integer.parseInt(result.headers.get("content-length")), result.body.length);
+        assertTrue(body.startsWith("--" + boundary + "\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 0-1/" + page.length + "\r\n\r\n"
+                + new String(page, 0, 2, StandardCharsets.ISO_8859_1) + "\r\n--" + boundary + "\r\n"));
+        assertTrue(body.contains("Content-Range: bytes 5-6/" + page.length + "\r\n\r\n"
+                + new String(page, 5, 2, StandardCharsets.ISO_8859_1)));
+        assertTrue(body.endsWith("\r\n--" + boundary + "--\r\n"));
+    }
+
+    @Test
+    void unsatisfiableRange() throws IOException {
+        Result result = get("Range: bytes=999999-");
+        assertEquals("416", result.status);
+        assertEquals("bytes */" + page().length, result.headers.get("content-range"));
+        assertEquals(0, result.body.length);
+    }
+
+    @Test
+    void ignoreInvalidRange() throws IOException {
+        int length = page().length;
+        String[] ranges = { "bytes=5-1", "bytes=a-b", "bytes=1", "items=0-1", "bytes=0-,0-" };
+        for (String range : ranges) {
+            Result result = get("Range: " + range);
+            assertEquals("200", result.status, range);
+            assertEquals(length, result.body.length, range);
+        }
+    }
+
+    @Test
+    void ifRange() {
+        Result full = get();
+        String eTag = full.headers.get("etag");
+        String lastModified = full.headers.get("last-modified");
+        assertNotNull(eTag);
+        assertNotNull(lastModified);
+
+        assertEquals("206", get("Range: bytes=0-1", "If-Range: " + eTag).status);
+        assertEquals("200", get("Range: bytes=0-1", "If-Range: \"other\"").status);
+        assertEquals("200", get("Range: bytes=0-1", "If-Range: W/" + eTag).status);
+        assertEquals("200", get("Range: bytes=0-1", "If-Range: not a date").status);
+        assertEquals("206", get("Range: bytes=0-1", "If-Range: " + lastModified).status);
+    }
+
+    @Test
+    void notModified() {
+        Result full = get();
+        assertEquals("200", full.status);
+        String eTag = full.headers.get("etag");
+        assertNotNull(eTag);
+
+        Result result = get("If-None-Match: \"other\", " + eTag);
+        assertEquals("304", result.status);
+        assertEquals(eTag, result.headers.get("etag"));
+        assertEquals(0, result.body.length);
+        assertEquals("304", get("If-None-Match: W/" + eTag).status);
+        assertEquals("304", get("If-None-Match: *").status);
+        assertEquals("200", get("If-None-Match: \"other\"").status);
+    }
+
+    @Test
+    void notModifiedSince() {
+        String lastModified = get().headers.get("last-modified");
+        assertNotNull(lastModified);
+        assertEquals("304", get("If-Modified-Since: " + lastModified).status);
+        assertEquals("200", get("If-Modified-Since: Thu, 01 Jan 1970 00:00:00 GMT").status);
+        assertEquals("200", get("If-Modified-Since: yesterday").status);
+        assertEquals("200", get("If-None-Match: \"other\"", "If-Modified-Since: " + lastModified).status);
+    }
+
+    private static class Result {
+
+        private final String status;
+
+        private final Map<String, String> headers = new HashMap<>();
+
+        private final byte[] body;
+
+        private Result(byte[] response) {
+            String text = new String(response, StandardCharsets.ISO_8859_1);
+            int headEnd = text.indexOf("\r\n\r\n");
+            String[] lines = text.substring(0, headEnd).split("\r\n");
+            this.status = lines[0].split(" ")[1];
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                headers.put(lines[i].substring(0, colon).trim().toLowerCase(), lines[i].substring(colon + 1).trim());
+            }
+            this.body = Arrays.copyOfRange(response, headEnd + 4, response.length);
+        }
+    }
+
+}